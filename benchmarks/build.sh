@@ -0,0 +1,71 @@
+#!/bin/bash
+
+# Script de compilación de los benchmarks JMH del lexer
+# Requiere: Java 11+, JFlex, JMH 1.37
+
+cd "$(dirname "$0")/.."
+
+echo "========================================="
+echo "Compilando Benchmarks (JMH)"
+echo "========================================="
+
+JMH_LIB="benchmarks/lib"
+JMH_JARS="jmh-core-1.37.jar jmh-generator-annprocess-1.37.jar jopt-simple-5.0.4.jar commons-math3-3.6.1.jar"
+
+mkdir -p src/generated
+mkdir -p benchmarks/build
+mkdir -p "$JMH_LIB"
+
+# Verificar que JFlex y JMH estén disponibles
+if [ ! -f "lib/jflex-1.9.1.jar" ]; then
+    echo "ERROR: JFlex no encontrado en lib/jflex-1.9.1.jar"
+    exit 1
+fi
+
+for JAR in $JMH_JARS; do
+    if [ ! -f "$JMH_LIB/$JAR" ]; then
+        echo "ERROR: $JAR no encontrado en $JMH_LIB/"
+        echo "Descarga desde Maven Central (https://repo1.maven.org/maven2/):"
+        echo "  org/openjdk/jmh/jmh-core/1.37/jmh-core-1.37.jar"
+        echo "  org/openjdk/jmh/jmh-generator-annprocess/1.37/jmh-generator-annprocess-1.37.jar"
+        echo "  net/sf/jopt-simple/jopt-simple/5.0.4/jopt-simple-5.0.4.jar"
+        echo "  org/apache/commons/commons-math3/3.6.1/commons-math3-3.6.1.jar"
+        echo "Y colócalos en el directorio $JMH_LIB/"
+        exit 1
+    fi
+done
+
+# Paso 1: Generar el lexer desde Lexer.flex
+echo ""
+echo "Paso 1: Generando lexer con JFlex..."
+java -jar lib/jflex-1.9.1.jar --encoding UTF-8 -d src/generated src/main/java/lexer/Lexer.flex
+
+if [ $? -ne 0 ]; then
+    echo "ERROR: Fallo al generar el lexer"
+    exit 1
+fi
+
+# Paso 2: Compilar el lexer y los benchmarks (el procesador de anotaciones de JMH genera el arnés)
+echo ""
+echo "Paso 2: Compilando benchmarks..."
+
+JAVA_FILES=$(find src/main/java/lexer src/generated benchmarks/src/main/java -name "*.java" 2>/dev/null)
+CLASSPATH="$JMH_LIB/*"
+
+rm -rf benchmarks/build/*
+javac -encoding UTF-8 -cp "$CLASSPATH" -d benchmarks/build $JAVA_FILES 2>&1
+
+if [ $? -ne 0 ]; then
+    echo "ERROR: Fallo en la compilación de los benchmarks"
+    exit 1
+fi
+
+echo ""
+echo "========================================="
+echo "Benchmarks compilados en benchmarks/build"
+echo "========================================="
+echo ""
+echo "Para ejecutar (desde la raíz del proyecto):"
+echo "  benchmarks/run.sh                      # todos los benchmarks"
+echo "  benchmarks/run.sh LexerBenchmark -prof gc"
+echo ""
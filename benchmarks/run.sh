@@ -0,0 +1,4 @@
+#!/bin/bash
+# Ejecuta los benchmarks JMH; los argumentos se pasan a JMH (por ejemplo: LexerBenchmark -prof gc)
+cd "$(dirname "$0")/.."
+java -cp "benchmarks/build:benchmarks/lib/*" org.openjdk.jmh.Main "$@"
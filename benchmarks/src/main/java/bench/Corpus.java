@@ -0,0 +1,146 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generador de corpus sintéticos para medir el rendimiento del lexer.
+ * Cada tipo de corpus ejercita una parte distinta del autómata.
+ */
+public final class Corpus {
+
+    /**
+     * Tipos de corpus disponibles
+     */
+    public enum Tipo {
+        PALABRAS_RESERVADAS,
+        IDENTIFICADORES,
+        COMENTARIOS_BLOQUE,
+        COMENTARIOS_LINEA,
+        COMENTARIO_UNICO,
+        CADENAS,
+        ERRORES,
+        EJEMPLOS
+    }
+
+    private static final String[] PALABRAS = {
+        "if", "else", "while", "for", "int", "float", "string", "boolean", "true", "false", "return", "void"
+    };
+
+    private Corpus() {
+    }
+
+    /**
+     * Genera un corpus del tipo indicado con aproximadamente el tamaño pedido (en caracteres)
+     */
+    public static String generar(Tipo tipo, int tamano) throws IOException {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(tamano + 256);
+
+        switch (tipo) {
+            case PALABRAS_RESERVADAS:
+                while (sb.length() < tamano) {
+                    sb.append(PALABRAS[random.nextInt(PALABRAS.length)]);
+                    sb.append(random.nextInt(8) == 0 ? '\n' : ' ');
+                }
+                break;
+            case IDENTIFICADORES:
+                while (sb.length() < tamano) {
+                    int largo = 1 + random.nextInt(12);
+                    sb.append((char) ('a' + random.nextInt(26)));
+                    for (int i = 1; i < largo; i++) {
+                        int c = random.nextInt(37);
+                        sb.append(c < 26 ? (char) ('a' + c) : c < 36 ? (char) ('0' + c - 26) : '_');
+                    }
+                    sb.append(random.nextInt(8) == 0 ? '\n' : ' ');
+                }
+                break;
+            case COMENTARIOS_BLOQUE:
+                while (sb.length() < tamano) {
+                    sb.append("/*");
+                    int largo = 4096 + random.nextInt(4096);
+                    for (int i = 0; i < largo; i++) {
+                        sb.append(i % 64 == 63 ? '\n' : (char) ('a' + random.nextInt(26)));
+                    }
+                    sb.append("*/\n");
+                }
+                break;
+            case COMENTARIOS_LINEA:
+                while (sb.length() < tamano) {
+                    sb.append("//");
+                    int largo = 16 + random.nextInt(96);
+                    for (int i = 0; i < largo; i++) {
+                        sb.append(i % 8 == 7 ? ' ' : (char) ('a' + random.nextInt(26)));
+                    }
+                    sb.append('\n');
+                }
+                break;
+            case COMENTARIO_UNICO:
+                // Un solo comentario de bloque que ocupa todo el corpus, con algunos asteriscos
+                sb.append("/*");
+                while (sb.length() < tamano) {
+                    int c = random.nextInt(64);
+                    sb.append(c == 0 ? '*' : c == 1 ? '\n' : (char) ('a' + c % 26));
+                }
+                sb.append("*/\n");
+                break;
+            case CADENAS:
+                while (sb.length() < tamano) {
+                    sb.append('"');
+                    int largo = 1024 + random.nextInt(1024);
+                    for (int i = 0; i < largo; i++) {
+                        sb.append(i % 16 == 15 ? ' ' : (char) ('a' + random.nextInt(26)));
+                    }
+                    sb.append("\";\n");
+                }
+                break;
+            case ERRORES:
+                String invalidos = "@#$%&?!~`^|\\:'";
+                while (sb.length() < tamano) {
+                    sb.append(invalidos.charAt(random.nextInt(invalidos.length())));
+                    if (random.nextInt(16) == 0) {
+                        sb.append('\n');
+                    }
+                }
+                break;
+            case EJEMPLOS:
+                List<String> semillas = leerEjemplos();
+                if (semillas.isEmpty()) {
+                    throw new IOException("No se encontraron archivos .code en " + directorioEjemplos());
+                }
+                while (sb.length() < tamano) {
+                    sb.append(semillas.get(random.nextInt(semillas.size()))).append('\n');
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de corpus desconocido: " + tipo);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Directorio de los ejemplos usados como semilla (propiedad bench.ejemplos, por defecto "ejemplos")
+     */
+    private static Path directorioEjemplos() {
+        return Paths.get(System.getProperty("bench.ejemplos", "ejemplos"));
+    }
+
+    private static List<String> leerEjemplos() throws IOException {
+        List<String> semillas = new ArrayList<>();
+        try (Stream<Path> archivos = Files.list(directorioEjemplos())) {
+            for (Path archivo : (Iterable<Path>) archivos.sorted()::iterator) {
+                if (archivo.getFileName().toString().endsWith(".code")) {
+                    semillas.add(new String(Files.readAllBytes(archivo), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return semillas;
+    }
+}
@@ -0,0 +1,55 @@
+package bench;
+
+import lexer.TokenDiff;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diferencia de tokens entre dos versiones de un texto grande con ediciones dispersas.
+ * Los tokens se analizan en el setup, por lo que solo se mide la comparación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DiffBenchmark {
+
+    /** Tamaño del texto en caracteres (unos 4 MB producen alrededor de un millón de tokens) */
+    @Param({"4194304"})
+    public int tamano;
+
+    /** Líneas insertadas o eliminadas en la versión nueva */
+    @Param({"10", "1000"})
+    public int ediciones;
+
+    private TokenDiff base;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        String anterior = Corpus.generar(Corpus.Tipo.EJEMPLOS, tamano);
+        StringBuilder nuevo = new StringBuilder(anterior);
+        Random random = new Random(42);
+        for (int i = 0; i < ediciones; i++) {
+            int inicio = nuevo.indexOf("\n", random.nextInt(nuevo.length() - 1));
+            if (inicio < 0) {
+                continue;
+            }
+            int fin = nuevo.indexOf("\n", inicio + 1);
+            if (random.nextBoolean() && fin > 0) {
+                nuevo.delete(inicio, fin);
+            } else {
+                nuevo.insert(inicio + 1, "x" + i + " = x" + i + " + 1;\n");
+            }
+        }
+        base = TokenDiff.comparar(anterior, nuevo);
+    }
+
+    @Benchmark
+    public TokenDiff comparar() {
+        return new TokenDiff(base.getAnterior(), base.getNuevo());
+    }
+}
@@ -0,0 +1,106 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.LexerMetrics;
+import lexer.Token;
+import lexer.TokenBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Reader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de Lexer.nextToken sobre corpus sintéticos.
+ * Cada operación analiza el corpus completo; con -prof gc se obtiene además la tasa de asignación.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LexerBenchmark {
+
+    @Param({"PALABRAS_RESERVADAS", "IDENTIFICADORES", "COMENTARIOS_BLOQUE", "CADENAS", "ERRORES", "EJEMPLOS"})
+    public Corpus.Tipo corpus;
+
+    @Param({"1048576"})
+    public int tamano;
+
+    private String texto;
+    private Lexer lexer;
+    private Lexer lexerMedido;
+    private final TokenBuffer bloque = new TokenBuffer(TAMANO_BLOQUE);
+
+    private static final int TAMANO_BLOQUE = 4096;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        texto = Corpus.generar(corpus, tamano);
+        lexer = new Lexer(Reader.nullReader());
+        lexerMedido = new Lexer(Reader.nullReader());
+        lexerMedido.setMetricas(new LexerMetrics());
+    }
+
+    /**
+     * API de objetos: un Token y su lexema por cada token
+     */
+    @Benchmark
+    public int nextToken(Blackhole bh) throws Exception {
+        lexer.reiniciar(texto, 0, 1, 1);
+        int cantidad = 0;
+        Token token;
+        while ((token = lexer.nextToken()).getTipo() != Token.TipoToken.FIN_ARCHIVO) {
+            bh.consume(token);
+            cantidad++;
+        }
+        return cantidad;
+    }
+
+    /**
+     * Modo compacto: sin objetos Token ni lexemas
+     */
+    @Benchmark
+    public int siguienteToken(Blackhole bh) throws Exception {
+        lexer.reiniciar(texto, 0, 1, 1);
+        int cantidad = 0;
+        int tipo;
+        while ((tipo = lexer.siguienteToken()) >= 0) {
+            bh.consume(tipo);
+            cantidad++;
+        }
+        return cantidad;
+    }
+
+    /**
+     * Modo compacto por bloques: siguientes() llena un buffer reutilizado de TAMANO_BLOQUE tokens
+     */
+    @Benchmark
+    public int siguientes(Blackhole bh) throws Exception {
+        lexer.reiniciar(texto, 0, 1, 1);
+        int cantidad = 0;
+        int leidos;
+        while ((leidos = lexer.siguientes(bloque, TAMANO_BLOQUE)) > 0) {
+            bh.consume(bloque.getTipoOrdinal(leidos - 1));
+            cantidad += leidos;
+            bloque.clear();
+        }
+        return cantidad;
+    }
+
+    /**
+     * Modo compacto con la instrumentación activa, para medir su costo frente a siguienteToken
+     */
+    @Benchmark
+    public int siguienteTokenConMetricas(Blackhole bh) throws Exception {
+        lexerMedido.reiniciar(texto, 0, 1, 1);
+        int cantidad = 0;
+        int tipo;
+        while ((tipo = lexerMedido.siguienteToken()) >= 0) {
+            bh.consume(tipo);
+            cantidad++;
+        }
+        return cantidad;
+    }
+}
@@ -0,0 +1,41 @@
+package bench;
+
+import lexer.ParallelLexer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento del análisis paralelo por fragmentos de un único texto grande
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelLexerBenchmark {
+
+    @Param({"EJEMPLOS", "COMENTARIOS_BLOQUE"})
+    public Corpus.Tipo corpus;
+
+    @Param({"16777216"})
+    public int tamano;
+
+    @Param({"1", "4", "16"})
+    public int fragmentos;
+
+    private String texto;
+    private ParallelLexer lexer;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        texto = Corpus.generar(corpus, tamano);
+        lexer = new ParallelLexer();
+    }
+
+    @Benchmark
+    public int analizar() throws Exception {
+        return lexer.analizar(texto, fragmentos).getTokens().size();
+    }
+}
@@ -0,0 +1,62 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.LexerPool;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Análisis de fragmentos pequeños: un Lexer nuevo por fragmento frente a un lexer
+ * reutilizado que carga el texto directamente en su buffer.
+ * Con -prof gc se compara la asignación por operación.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnippetBenchmark {
+
+    @Param({"256", "4096"})
+    public int tamano;
+
+    private String fragmento;
+    private final LexerPool pool = new LexerPool(1);
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        fragmento = Corpus.generar(Corpus.Tipo.EJEMPLOS, tamano);
+    }
+
+    @Benchmark
+    public int lexerNuevo(Blackhole bh) throws Exception {
+        Lexer lexer = new Lexer(new StringReader(fragmento));
+        lexer.resetErrores();
+        return analizar(lexer, bh);
+    }
+
+    @Benchmark
+    public int lexerReutilizado(Blackhole bh) throws Exception {
+        Lexer lexer = pool.adquirir();
+        try {
+            lexer.reiniciar(fragmento);
+            return analizar(lexer, bh);
+        } finally {
+            pool.liberar(lexer);
+        }
+    }
+
+    private static int analizar(Lexer lexer, Blackhole bh) throws Exception {
+        int cantidad = 0;
+        int tipo;
+        while ((tipo = lexer.siguienteToken()) >= 0) {
+            bh.consume(tipo);
+            cantidad++;
+        }
+        return cantidad;
+    }
+}
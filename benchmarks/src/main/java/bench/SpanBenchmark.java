@@ -0,0 +1,68 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.Token;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Corpus dominados por comentarios y cadenas (tokens que abarcan varias reglas del lexer).
+ * La entrada se lee con un Reader para incluir las recargas del buffer, como al analizar archivos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpanBenchmark {
+
+    @Param({"COMENTARIOS_BLOQUE", "COMENTARIOS_LINEA", "COMENTARIO_UNICO", "CADENAS"})
+    public Corpus.Tipo corpus;
+
+    @Param({"1048576"})
+    public int tamano;
+
+    private String texto;
+    private Lexer lexer;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        texto = Corpus.generar(corpus, tamano);
+        lexer = new Lexer(Reader.nullReader());
+    }
+
+    /**
+     * API de objetos: se construye el lexema de cada comentario o cadena
+     */
+    @Benchmark
+    public int nextToken(Blackhole bh) throws Exception {
+        lexer.reiniciar(new StringReader(texto));
+        int cantidad = 0;
+        Token token;
+        while ((token = lexer.nextToken()).getTipo() != Token.TipoToken.FIN_ARCHIVO) {
+            bh.consume(token);
+            cantidad++;
+        }
+        return cantidad;
+    }
+
+    /**
+     * Modo compacto: solo desplazamiento y longitud de cada token
+     */
+    @Benchmark
+    public int siguienteToken(Blackhole bh) throws Exception {
+        lexer.reiniciar(new StringReader(texto));
+        int cantidad = 0;
+        int tipo;
+        while ((tipo = lexer.siguienteToken()) >= 0) {
+            bh.consume(tipo);
+            cantidad++;
+        }
+        return cantidad;
+    }
+}
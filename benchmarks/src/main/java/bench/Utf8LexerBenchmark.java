@@ -0,0 +1,96 @@
+package bench;
+
+import lexer.Lexer;
+import lexer.TokenBuffer;
+import lexer.Utf8Lexer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Análisis de un texto codificado en UTF-8: Lexer leyendo caracteres decodificados por un Reader
+ * frente a Utf8Lexer recorriendo los bytes (en un arreglo o en un ByteBuffer directo).
+ * Cada operación analiza el corpus completo en modo compacto por bloques.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Utf8LexerBenchmark {
+
+    @Param({"PALABRAS_RESERVADAS", "IDENTIFICADORES", "COMENTARIOS_BLOQUE", "CADENAS", "ERRORES", "EJEMPLOS"})
+    public Corpus.Tipo corpus;
+
+    @Param({"1048576"})
+    public int tamano;
+
+    private byte[] bytes;
+    private ByteBuffer directo;
+    private Lexer lexer;
+    private Utf8Lexer utf8Lexer;
+    private final TokenBuffer bloque = new TokenBuffer(TAMANO_BLOQUE);
+
+    private static final int TAMANO_BLOQUE = 4096;
+
+    @Setup(Level.Trial)
+    public void preparar() throws Exception {
+        bytes = Corpus.generar(corpus, tamano).getBytes(StandardCharsets.UTF_8);
+        directo = ByteBuffer.allocateDirect(bytes.length);
+        directo.put(bytes).flip();
+        lexer = new Lexer(Reader.nullReader());
+        utf8Lexer = new Utf8Lexer();
+    }
+
+    /**
+     * Lexer generado por JFlex sobre un InputStreamReader (decodificación de todos los bytes)
+     */
+    @Benchmark
+    public int lexerConReader(Blackhole bh) throws Exception {
+        lexer.reiniciar(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+        int cantidad = 0;
+        int leidos;
+        while ((leidos = lexer.siguientes(bloque, TAMANO_BLOQUE)) > 0) {
+            bh.consume(bloque.getTipoOrdinal(leidos - 1));
+            cantidad += leidos;
+            bloque.clear();
+        }
+        return cantidad;
+    }
+
+    /**
+     * Utf8Lexer sobre el arreglo de bytes, sin copiarlo
+     */
+    @Benchmark
+    public int utf8Lexer(Blackhole bh) throws Exception {
+        utf8Lexer.reiniciar(bytes, 0, bytes.length);
+        return consumir(bh);
+    }
+
+    /**
+     * Utf8Lexer sobre un ByteBuffer directo, copiado por ventanas
+     */
+    @Benchmark
+    public int utf8LexerDirecto(Blackhole bh) throws Exception {
+        utf8Lexer.reiniciar(directo);
+        return consumir(bh);
+    }
+
+    private int consumir(Blackhole bh) throws Exception {
+        int cantidad = 0;
+        int leidos;
+        while ((leidos = utf8Lexer.siguientes(bloque, TAMANO_BLOQUE)) > 0) {
+            bh.consume(bloque.getTipoOrdinal(leidos - 1));
+            cantidad += leidos;
+            bloque.clear();
+        }
+        return cantidad;
+    }
+}
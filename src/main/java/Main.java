@@ -1,10 +1,49 @@
+import cli.BatchAnalyzer;
+import cli.DirectoryWatcher;
+import cli.IndexSearch;
+import cli.LexerServer;
+import cli.TokenDiffer;
+import lexer.KeywordTable;
 import ui.MainApp;
 
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 /**
- * Punto de entrada principal de la aplicación
+ * Punto de entrada principal de la aplicación.
+ * Sin argumentos abre la interfaz gráfica; con --batch ejecuta el análisis por lotes,
+ * con --servidor atiende solicitudes de análisis en un socket local, con --vigilar
+ * vuelve a analizar los archivos de un directorio a medida que cambian, con --diff
+ * compara los tokens de dos versiones de un archivo y con --buscar consulta un índice
+ * invertido de los tokens de un directorio.
+ * En todos los modos, --palabras archivo (antes del modo) carga las palabras reservadas.
  */
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 1 && args[0].equals("--palabras")) {
+            KeywordTable.setPredeterminada(KeywordTable.cargar(Paths.get(args[1])));
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchAnalyzer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--servidor")) {
+            LexerServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--vigilar")) {
+            DirectoryWatcher.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--diff")) {
+            TokenDiffer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--buscar")) {
+            IndexSearch.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         MainApp.main(args);
     }
 }
@@ -0,0 +1,643 @@
+package cli;
+
+import lexer.ErrorBuffer;
+import lexer.Lexer;
+import lexer.LexerMetrics;
+import lexer.ParallelLexer;
+import lexer.Token;
+import lexer.TokenBuffer;
+import lexer.TokenStatistics;
+import lexer.Utf8Lexer;
+import lexer.io.TokenCache;
+import lexer.io.TokenWriter;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Analizador léxico por lotes, sin interfaz gráfica.
+ * Recorre un directorio, analiza los archivos en paralelo sobre un grupo de hilos
+ * (un lexer reutilizado por hilo: un Utf8Lexer que recorre los bytes del archivo, o el Lexer
+ * generado por JFlex si se miden métricas) y escribe los tokens y errores de cada archivo,
+ * junto con un resumen de rendimiento. Con una caché, los archivos cuyo contenido ya se
+ * analizó se leen de ella sin ejecutar el lexer.
+ */
+public class BatchAnalyzer {
+
+    private final int hilos;
+    private final Path directorioSalida;
+    private final String extension;
+    private final String formato;
+    private final int fragmentos;
+
+    /** Tamaño a partir del cual un archivo se divide en fragmentos analizados en paralelo */
+    private static final long UMBRAL_PARALELO = 8L << 20;
+
+    private final LongAdder archivos = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+    private final Queue<String> fallos = new ConcurrentLinkedQueue<>();
+
+    /** Estadísticas de todos los archivos; cada archivo suma las de su lexer al terminar */
+    private final TokenStatistics estadisticas = new TokenStatistics();
+
+    /** Métricas de cada lexer creado, si la instrumentación está activa */
+    private final Queue<LexerMetrics> metricas = new ConcurrentLinkedQueue<>();
+    private boolean medir;
+
+    /** Errores almacenados por archivo; los siguientes solo se cuentan */
+    private int maximoErrores = ErrorBuffer.MAXIMO_PREDETERMINADO;
+
+    /** Caché de resultados por contenido (null si no se usa) */
+    private TokenCache cache;
+
+    /** Un Lexer por hilo de trabajo, reiniciado para cada archivo */
+    private final ThreadLocal<Lexer> lexers = ThreadLocal.withInitial(() -> {
+        Lexer lexer = new Lexer(Reader.nullReader());
+        lexer.setMaximoErrores(maximoErrores);
+        if (medir) {
+            LexerMetrics metricasLexer = new LexerMetrics();
+            metricas.add(metricasLexer);
+            lexer.setMetricas(metricasLexer);
+        }
+        return lexer;
+    });
+
+    /** Un Utf8Lexer por hilo de trabajo, para los archivos que se analizan sin métricas */
+    private final ThreadLocal<Utf8Lexer> lexersUtf8 = ThreadLocal.withInitial(() -> {
+        Utf8Lexer lexer = new Utf8Lexer();
+        lexer.setMaximoErrores(maximoErrores);
+        // Como Files.newBufferedReader: un archivo con UTF-8 mal formado se informa como fallo
+        lexer.setInformarMalformados(true);
+        return lexer;
+    });
+
+    /**
+     * Constructor de BatchAnalyzer
+     * @param hilos Número de hilos de trabajo
+     * @param directorioSalida Directorio donde escribir la salida por archivo (null para omitirla)
+     * @param extension Extensión de los archivos a analizar (por ejemplo ".code")
+     * @param formato Formato de la salida: "texto", "ndjson" o "binario"
+     * @param fragmentos Fragmentos en que se divide cada archivo grande para analizarlo en paralelo (0 o 1 para no dividir)
+     */
+    public BatchAnalyzer(int hilos, Path directorioSalida, String extension, String formato, int fragmentos) {
+        TokenWriter.extension(formato); // valida el formato
+        this.hilos = hilos;
+        this.directorioSalida = directorioSalida;
+        this.extension = extension;
+        this.formato = formato;
+        this.fragmentos = fragmentos;
+    }
+
+    /**
+     * Activa la instrumentación de los lexers (debe llamarse antes de analizar)
+     */
+    public void setMedir(boolean medir) {
+        this.medir = medir;
+    }
+
+    /**
+     * Cantidad máxima de errores almacenados y escritos por archivo (debe llamarse antes de analizar)
+     */
+    public void setMaximoErrores(int maximoErrores) {
+        this.maximoErrores = maximoErrores;
+    }
+
+    /**
+     * Caché de resultados a consultar antes de analizar cada archivo (null para no usarla)
+     */
+    public void setCache(TokenCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Suma las métricas de todos los lexers de trabajo
+     */
+    public LexerMetrics getMetricas() {
+        LexerMetrics total = new LexerMetrics();
+        for (LexerMetrics parcial : metricas) {
+            total.agregar(parcial);
+        }
+        return total;
+    }
+
+    /**
+     * Analiza todos los archivos del árbol de directorios indicado
+     * @param raiz Directorio raíz
+     * @return Tiempo transcurrido en nanosegundos
+     */
+    public long analizar(Path raiz) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        long inicio = System.nanoTime();
+
+        try (Stream<Path> archivosRaiz = Files.walk(raiz)) {
+            archivosRaiz
+                .filter(Files::isRegularFile)
+                .filter(p -> p.getFileName().toString().endsWith(extension))
+                .forEach(p -> pool.execute(() -> analizarArchivo(raiz, p)));
+        } finally {
+            pool.shutdown();
+        }
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+
+        return System.nanoTime() - inicio;
+    }
+
+    /**
+     * Analiza un archivo con el Lexer del hilo actual, escribiendo cada token
+     * en la salida a medida que se produce
+     */
+    private void analizarArchivo(Path raiz, Path archivo) {
+        try {
+            long tamano = Files.size(archivo);
+            boolean enParalelo = fragmentos > 1 && tamano >= UMBRAL_PARALELO;
+            if (enParalelo || cache != null) {
+                analizarEnMemoria(raiz, archivo, enParalelo);
+                return;
+            }
+            // La instrumentación es del Lexer de JFlex; un mapeo abarca a lo sumo 2 GB
+            if (!medir && tamano <= Integer.MAX_VALUE) {
+                analizarBytes(raiz, archivo, tamano);
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            registrarFallo(raiz, archivo, e);
+            return;
+        }
+        Lexer lexer = lexers.get();
+
+        try (Reader reader = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            lexer.reiniciar(reader);
+
+            int tokenCount = 0;
+            try (Salida salida = abrirSalida(raiz, archivo)) {
+                TokenWriter writer = salida.writer;
+                if (writer == null || formato.equals("binario")) {
+                    // El formato binario no usa lexemas: modo compacto, sin objetos Token
+                    int tipo;
+                    while ((tipo = lexer.siguienteToken()) >= 0) {
+                        tokenCount++;
+                        if (writer != null) {
+                            writer.escribir(tipo, lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                                            lexer.getTokenLinea(), lexer.getTokenColumna(), null);
+                        }
+                    }
+                } else {
+                    Token token;
+                    while ((token = lexer.nextToken()) != null &&
+                           token.getTipo() != Token.TipoToken.FIN_ARCHIVO) {
+                        tokenCount++;
+                        writer.escribir(token.getTipo().ordinal(), lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                                        token.getLinea(), token.getColumna(), token.getLexema());
+                    }
+                }
+
+                if (writer != null) {
+                    writer.escribirErrores(lexer.getBufferErrores());
+                }
+                salida.confirmar();
+                errores.add(lexer.getBufferErrores().getTotal());
+            }
+
+            synchronized (estadisticas) {
+                estadisticas.agregar(lexer.getEstadisticas());
+            }
+            archivos.increment();
+            tokens.add(tokenCount);
+            bytes.add(Files.size(archivo));
+        } catch (IOException | RuntimeException e) {
+            registrarFallo(raiz, archivo, e);
+        }
+    }
+
+    /**
+     * Analiza un archivo mapeado en memoria con el Utf8Lexer del hilo actual, sin decodificarlo.
+     * Produce la misma salida que el Lexer sobre un Reader, con memoria constante.
+     */
+    private void analizarBytes(Path raiz, Path archivo, long tamano) throws IOException {
+        Utf8Lexer lexer = lexersUtf8.get();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            lexer.reiniciar(canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano));
+
+            int tokenCount = 0;
+            try (Salida salida = abrirSalida(raiz, archivo)) {
+                TokenWriter writer = salida.writer;
+                if (writer == null || formato.equals("binario")) {
+                    int tipo;
+                    while ((tipo = lexer.siguienteToken()) >= 0) {
+                        tokenCount++;
+                        if (writer != null) {
+                            writer.escribir(tipo, lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                                            lexer.getTokenLinea(), lexer.getTokenColumna(), null);
+                        }
+                    }
+                } else {
+                    Token token;
+                    while ((token = lexer.nextToken()).getTipo() != Token.TipoToken.FIN_ARCHIVO) {
+                        tokenCount++;
+                        writer.escribir(token.getTipo().ordinal(), lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                                        token.getLinea(), token.getColumna(), token.getLexema());
+                    }
+                }
+
+                if (writer != null) {
+                    writer.escribirErrores(lexer.getBufferErrores());
+                }
+                salida.confirmar();
+                errores.add(lexer.getBufferErrores().getTotal());
+            }
+
+            synchronized (estadisticas) {
+                estadisticas.agregar(lexer.getEstadisticas());
+            }
+            archivos.increment();
+            tokens.add(tokenCount);
+            bytes.add(tamano);
+        }
+    }
+
+    /**
+     * Analiza un archivo cargado en memoria: lo busca en la caché y, si no está, lo analiza
+     * (dividido en fragmentos en paralelo si es grande) y guarda el resultado
+     */
+    private void analizarEnMemoria(Path raiz, Path archivo, boolean enParalelo) {
+        try {
+            String texto = Files.readString(archivo, StandardCharsets.UTF_8);
+            long hash = 0;
+            TokenCache.Resultado resultado = null;
+            if (cache != null) {
+                hash = TokenCache.hashContenido(texto);
+                resultado = cache.buscar(hash, maximoErrores);
+            }
+            if (resultado == null) {
+                resultado = enParalelo ? analizarEnParalelo(texto) : analizarSecuencial(texto);
+                if (cache != null) {
+                    // Un fallo de la caché no impide escribir la salida del archivo
+                    try {
+                        cache.guardar(hash, maximoErrores, resultado.getTokens(), resultado.getBufferErrores(),
+                                      resultado.getTotalLineas());
+                    } catch (IOException e) {
+                        System.err.println("No se pudo guardar el análisis en la caché (" + archivo + "): " + e.getMessage());
+                    }
+                }
+            }
+            TokenBuffer buffer = resultado.getTokens();
+            buffer.setFuente(texto);
+
+            TokenStatistics estadisticasArchivo = new TokenStatistics();
+            try (Salida salida = abrirSalida(raiz, archivo)) {
+                TokenWriter writer = salida.writer;
+                boolean conLexemas = !formato.equals("binario");
+                for (int i = 0; i < buffer.size(); i++) {
+                    estadisticasArchivo.registrar(buffer.getTipoOrdinal(i), buffer.getLongitud(i));
+                    if (writer != null) {
+                        writer.escribir(buffer.getTipoOrdinal(i), buffer.getInicio(i), buffer.getLongitud(i),
+                                        buffer.getLinea(i), buffer.getColumna(i), conLexemas ? buffer.getLexema(i) : null);
+                    }
+                }
+                if (writer != null) {
+                    writer.escribirErrores(resultado.getBufferErrores());
+                }
+                salida.confirmar();
+            }
+
+            synchronized (estadisticas) {
+                estadisticas.agregar(estadisticasArchivo);
+            }
+
+            errores.add(resultado.getBufferErrores().getTotal());
+            archivos.increment();
+            tokens.add(buffer.size());
+            bytes.add(Files.size(archivo));
+        } catch (IOException | RuntimeException e) {
+            registrarFallo(raiz, archivo, e);
+        }
+    }
+
+    /**
+     * Registra un archivo que no se pudo analizar. Un error inesperado del lexer (RuntimeException)
+     * solo descarta ese archivo: se informa con el nombre de la excepción. La salida de un análisis
+     * anterior del archivo se borra, para no dejarla como si correspondiera al contenido actual.
+     */
+    private void registrarFallo(Path raiz, Path archivo, Exception e) {
+        String motivo = motivo(archivo, e);
+        if (directorioSalida != null) {
+            try {
+                Files.deleteIfExists(destino(raiz, archivo));
+            } catch (IOException | RuntimeException borrado) {
+                motivo += " (no se pudo borrar la salida anterior: " + borrado.getMessage() + ")";
+            }
+        }
+        fallos.add(archivo + ": " + motivo);
+    }
+
+    /**
+     * Analiza el texto dividido en fragmentos analizados en paralelo
+     */
+    private TokenCache.Resultado analizarEnParalelo(String texto) throws IOException {
+        ParallelLexer paralelo = new ParallelLexer();
+        paralelo.setMaximoErrores(maximoErrores);
+        ParallelLexer.Resultado resultado = paralelo.analizar(texto, fragmentos);
+        return new TokenCache.Resultado(resultado.getTokens(), resultado.getBufferErrores(), resultado.getTotalLineas());
+    }
+
+    /**
+     * Analiza el texto con el Lexer del hilo actual, acumulando los tokens en un buffer.
+     * Los errores quedan en el lexer, que no se reutiliza hasta terminar con el archivo.
+     */
+    private TokenCache.Resultado analizarSecuencial(String texto) throws IOException {
+        Lexer lexer = lexers.get();
+        lexer.reiniciar(texto);
+        TokenBuffer buffer = new TokenBuffer();
+        lexer.siguientes(buffer, Integer.MAX_VALUE);
+        return new TokenCache.Resultado(buffer, lexer.getBufferErrores(), lexer.getTokenLinea());
+    }
+
+    /**
+     * Abre la salida correspondiente, replicando la estructura del directorio raíz. Se escribe
+     * en un archivo temporal junto al destino, que solo lo reemplaza al confirmar la salida.
+     */
+    private Salida abrirSalida(Path raiz, Path archivo) throws IOException {
+        if (directorioSalida == null) {
+            return new Salida(null, null, null);
+        }
+        Path destino = destino(raiz, archivo);
+        Files.createDirectories(destino.getParent());
+        Path temporal = Files.createTempFile(destino.getParent(), destino.getFileName() + ".", ".tmp");
+        try {
+            return new Salida(TokenWriter.crear(formato, Files.newOutputStream(temporal)), temporal, destino);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+    }
+
+    /**
+     * Motivo legible del fallo al analizar un archivo. Las excepciones de decodificación solo
+     * indican la longitud de la secuencia ("Input length = 1"): se informa en su lugar el
+     * desplazamiento del primer byte que no es UTF-8 válido.
+     */
+    static String motivo(Path archivo, Exception e) {
+        if (e instanceof CharacterCodingException) {
+            long posicion = primerByteInvalido(archivo);
+            return posicion >= 0 ? "UTF-8 inválido en el byte " + posicion : "no es texto UTF-8 válido";
+        }
+        if (e instanceof NoSuchFileException) {
+            return "el archivo ya no existe";
+        }
+        return e instanceof IOException && e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+
+    /**
+     * Desplazamiento del primer byte de una secuencia UTF-8 mal formada del archivo
+     * @return -1 si el archivo es UTF-8 válido o no se puede volver a leer
+     */
+    private static long primerByteInvalido(Path archivo) {
+        CharsetDecoder decodificador = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer entrada = ByteBuffer.allocate(1 << 16);
+        CharBuffer descarte = CharBuffer.allocate(1 << 16);
+        long consumidos = 0;
+        try (ReadableByteChannel canal = Files.newByteChannel(archivo)) {
+            boolean fin = false;
+            while (true) {
+                fin = fin || canal.read(entrada) < 0;
+                entrada.flip();
+                CoderResult resultado = decodificador.decode(entrada, descarte, fin);
+                if (resultado.isError()) {
+                    return consumidos + entrada.position();
+                }
+                if (fin && resultado.isUnderflow()) {
+                    return -1;
+                }
+                consumidos += entrada.position();
+                entrada.compact();
+                descarte.clear();
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Archivo de salida de un archivo analizado, con la misma ruta relativa que en el directorio raíz
+     */
+    private Path destino(Path raiz, Path archivo) {
+        return directorioSalida.resolve(raiz.relativize(archivo).toString() + TokenWriter.extension(formato));
+    }
+
+    /**
+     * Salida de un archivo en curso. Si se cierra sin confirmar (el análisis falló), el archivo
+     * temporal se borra y no queda una salida parcial ni vacía en lugar de la anterior.
+     */
+    private static final class Salida implements Closeable {
+
+        /** Escritor de tokens (null si no se escribe salida) */
+        final TokenWriter writer;
+        private final Path temporal;
+        private final Path destino;
+        private boolean cerrada;
+        private boolean confirmada;
+
+        Salida(TokenWriter writer, Path temporal, Path destino) {
+            this.writer = writer;
+            this.temporal = temporal;
+            this.destino = destino;
+        }
+
+        /**
+         * Cierra el escritor y mueve el archivo temporal al destino
+         */
+        void confirmar() throws IOException {
+            if (writer == null) {
+                return;
+            }
+            cerrada = true;
+            writer.close();
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            confirmada = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer == null || confirmada) {
+                return;
+            }
+            try {
+                if (!cerrada) {
+                    cerrada = true;
+                    writer.close();
+                }
+            } finally {
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+
+    /**
+     * Imprime el resumen agregado de rendimiento
+     */
+    public void imprimirResumen(PrintStream out, long nanos) {
+        double segundos = nanos / 1e9;
+        out.println("RESUMEN DEL ANÁLISIS");
+        out.println("====================");
+        out.printf("Archivos: %d  Tokens: %d  Errores: %d  Bytes: %d%n",
+            archivos.sum(), tokens.sum(), errores.sum(), bytes.sum());
+        out.printf("Hilos: %d  Tiempo: %.3f s%n", hilos, segundos);
+        out.printf("Rendimiento: %.1f archivos/s, %.2f MB/s, %.0f tokens/s%n",
+            archivos.sum() / segundos,
+            bytes.sum() / (1024.0 * 1024.0) / segundos,
+            tokens.sum() / segundos);
+
+        if (cache != null) {
+            out.printf("Caché: %d aciertos, %d fallos, %.1f MB en disco%n",
+                cache.getAciertos(), cache.getFallos(), cache.getTamano() / (1024.0 * 1024.0));
+        }
+
+        imprimirEstadisticas(out);
+
+        if (!fallos.isEmpty()) {
+            out.println();
+            out.println("Archivos con fallos: " + fallos.size());
+            for (String fallo : fallos) {
+                out.println("  " + fallo);
+            }
+        }
+    }
+
+    /**
+     * Imprime la distribución de tokens por categoría, tipo y longitud
+     */
+    private void imprimirEstadisticas(PrintStream out) {
+        long total = Math.max(1, estadisticas.getTotal());
+
+        out.println();
+        out.println("Tokens por categoría:");
+        for (TokenStatistics.Categoria categoria : TokenStatistics.Categoria.values()) {
+            long cantidad = estadisticas.getCantidad(categoria);
+            if (cantidad > 0) {
+                out.printf("  %-22s %12d  %5.1f%%%n", categoria, cantidad, 100.0 * cantidad / total);
+            }
+        }
+
+        out.println("Tokens por tipo:");
+        for (Token.TipoToken tipo : Token.TipoToken.values()) {
+            long cantidad = estadisticas.getCantidad(tipo);
+            if (cantidad > 0) {
+                out.printf("  %-22s %12d  %5.1f%%%n", tipo, cantidad, 100.0 * cantidad / total);
+            }
+        }
+
+        out.printf("Longitud de lexemas: media %.2f, máxima %d%n",
+            estadisticas.getLongitudMedia(), estadisticas.getLongitudMaxima());
+        for (int k = 0; k < TokenStatistics.INTERVALOS_LONGITUD; k++) {
+            long cantidad = estadisticas.getCantidadPorLongitud(k);
+            if (cantidad > 0) {
+                String rango = k == 0 ? "0" : k == 1 ? "1" : (1 << (k - 1)) + "-" + ((1 << k) - 1);
+                out.printf("  %-22s %12d  %5.1f%%%n", rango, cantidad, 100.0 * cantidad / total);
+            }
+        }
+    }
+
+    /**
+     * Punto de entrada del modo por lotes.
+     * Uso: BatchAnalyzer &lt;directorio&gt; [--hilos N] [--salida dir] [--extension .code] [--formato texto|ndjson|binario] [--fragmentos N] [--metricas archivo|-] [--max-errores N] [--cache dir] [--cache-max MB]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: --batch <directorio> [--hilos N] [--salida dir] [--extension .code] [--formato texto|ndjson|binario] [--fragmentos N] [--metricas archivo|-] [--max-errores N] [--cache dir] [--cache-max MB]");
+            System.exit(1);
+        }
+
+        Path raiz = Paths.get(args[0]);
+        int hilos = Runtime.getRuntime().availableProcessors();
+        Path salida = null;
+        String extension = ".code";
+        String formato = "texto";
+        int fragmentos = 0;
+        String destinoMetricas = null;
+        int maximoErrores = ErrorBuffer.MAXIMO_PREDETERMINADO;
+        Path directorioCache = null;
+        long limiteCache = TokenCache.LIMITE_PREDETERMINADO;
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hilos":
+                    hilos = Integer.parseInt(args[++i]);
+                    break;
+                case "--salida":
+                    salida = Paths.get(args[++i]);
+                    break;
+                case "--extension":
+                    extension = args[++i];
+                    break;
+                case "--formato":
+                    formato = args[++i];
+                    break;
+                case "--fragmentos":
+                    fragmentos = Integer.parseInt(args[++i]);
+                    break;
+                case "--metricas":
+                    destinoMetricas = args[++i];
+                    break;
+                case "--max-errores":
+                    maximoErrores = Integer.parseInt(args[++i]);
+                    break;
+                case "--cache":
+                    directorioCache = Paths.get(args[++i]);
+                    break;
+                case "--cache-max":
+                    limiteCache = Long.parseLong(args[++i]) << 20;
+                    break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        BatchAnalyzer analyzer = new BatchAnalyzer(hilos, salida, extension, formato, fragmentos);
+        analyzer.setMedir(destinoMetricas != null);
+        analyzer.setMaximoErrores(maximoErrores);
+        if (directorioCache != null) {
+            analyzer.setCache(new TokenCache(directorioCache, limiteCache));
+        }
+        long nanos = analyzer.analizar(raiz);
+        analyzer.imprimirResumen(System.out, nanos);
+
+        if (destinoMetricas != null) {
+            LexerMetrics total = analyzer.getMetricas();
+            total.emitirEventoJfr();
+            if (destinoMetricas.equals("-")) {
+                System.out.println();
+                total.escribirPrometheus(System.out);
+            } else {
+                try (Writer writer = Files.newBufferedWriter(Paths.get(destinoMetricas), StandardCharsets.UTF_8)) {
+                    total.escribirPrometheus(writer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package cli;
+
+import lexer.ErrorBuffer;
+import lexer.Lexer;
+import lexer.LexerPool;
+import lexer.Token;
+import lexer.TokenBuffer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Modo de vigilancia: analiza los archivos de un directorio y, con un WatchService, vuelve a
+ * analizar solo los que cambian en disco. Los eventos se agrupan hasta que pasa un intervalo
+ * sin cambios (un guardado suele producir varios), y los archivos modificados se analizan en
+ * un grupo de hilos. Por cada archivo se conserva el último resultado en memoria y se imprime
+ * la diferencia de tokens por tipo y de errores respecto del análisis anterior.
+ */
+public class DirectoryWatcher implements AutoCloseable {
+
+    /** Intervalo sin eventos tras el cual se analizan los cambios acumulados */
+    public static final long ESPERA_PREDETERMINADA_MS = 200;
+
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+
+    private final Path raiz;
+    private final String extension;
+    private final long esperaMs;
+    private final ExecutorService pool;
+    private final WatchService vigilante;
+    private final Map<WatchKey, Path> directorios = new HashMap<>();
+
+    /** Último resultado de cada archivo analizado */
+    private final Map<Path, Resultado> resultados = new ConcurrentHashMap<>();
+
+    /** Lexers reutilizados entre archivos, uno por hilo de trabajo ocupado */
+    private final LexerPool lexers;
+
+    /**
+     * Resultado del análisis de un archivo
+     */
+    public static class Resultado {
+        private final TokenBuffer tokens;
+        private final ErrorBuffer errores;
+        private final int[] cantidadPorTipo = new int[TIPOS.length];
+
+        Resultado(TokenBuffer tokens, ErrorBuffer errores) {
+            this.tokens = tokens;
+            this.errores = errores;
+            for (int i = 0; i < tokens.size(); i++) {
+                cantidadPorTipo[tokens.getTipoOrdinal(i)]++;
+            }
+        }
+
+        public TokenBuffer getTokens() { return tokens; }
+        public ErrorBuffer getBufferErrores() { return errores; }
+        public int getCantidad(Token.TipoToken tipo) { return cantidadPorTipo[tipo.ordinal()]; }
+    }
+
+    /**
+     * Constructor de DirectoryWatcher
+     * @param raiz Directorio vigilado (con sus subdirectorios)
+     * @param extension Extensión de los archivos a analizar (por ejemplo ".code")
+     * @param hilos Número de hilos de trabajo
+     * @param esperaMs Intervalo sin eventos antes de analizar los cambios
+     */
+    public DirectoryWatcher(Path raiz, String extension, int hilos, long esperaMs) throws IOException {
+        this.raiz = raiz;
+        this.extension = extension;
+        this.esperaMs = esperaMs;
+        this.pool = Executors.newFixedThreadPool(hilos);
+        this.lexers = new LexerPool(hilos);
+        this.vigilante = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Resultado actual de un archivo, o null si no se analizó
+     */
+    public Resultado getResultado(Path archivo) {
+        return resultados.get(archivo);
+    }
+
+    /**
+     * Analiza todos los archivos y después vigila el directorio hasta que se cierre
+     * o se interrumpa el hilo, imprimiendo las diferencias de cada lote de cambios
+     */
+    public void vigilar(PrintStream out) throws IOException, InterruptedException {
+        Set<Path> iniciales = new TreeSet<>();
+        registrarArbol(raiz, iniciales);
+        long inicio = System.nanoTime();
+        analizarLote(iniciales, out, false);
+        long tokens = 0, errores = 0;
+        for (Resultado resultado : resultados.values()) {
+            tokens += resultado.tokens.size();
+            errores += resultado.errores.getTotal();
+        }
+        out.printf("Vigilando %s: %d archivos, %d tokens, %d errores (%.3f s)%n",
+            raiz, resultados.size(), tokens, errores, (System.nanoTime() - inicio) / 1e9);
+
+        try {
+            while (true) {
+                Set<Path> pendientes = new TreeSet<>();
+                WatchKey clave = vigilante.take();
+                // Acumular eventos hasta que pase el intervalo de espera sin ninguno nuevo
+                while (clave != null) {
+                    procesarEventos(clave, pendientes);
+                    clave = vigilante.poll(esperaMs, TimeUnit.MILLISECONDS);
+                }
+                if (!pendientes.isEmpty()) {
+                    analizarLote(pendientes, out, true);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // cerrado desde otro hilo
+        }
+    }
+
+    /**
+     * Registra un directorio y sus subdirectorios en el WatchService, agregando a
+     * pendientes los archivos que contienen
+     */
+    private void registrarArbol(Path directorio, Set<Path> pendientes) throws IOException {
+        try (Stream<Path> contenido = Files.walk(directorio)) {
+            for (Path ruta : (Iterable<Path>) contenido::iterator) {
+                if (Files.isDirectory(ruta)) {
+                    WatchKey clave = ruta.register(vigilante, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                    directorios.put(clave, ruta);
+                } else if (esAnalizable(ruta)) {
+                    pendientes.add(ruta);
+                }
+            }
+        }
+    }
+
+    private boolean esAnalizable(Path ruta) {
+        return ruta.getFileName().toString().endsWith(extension);
+    }
+
+    /**
+     * Agrega a pendientes los archivos afectados por los eventos de la clave
+     */
+    private void procesarEventos(WatchKey clave, Set<Path> pendientes) throws IOException {
+        Path directorio = directorios.get(clave);
+        for (WatchEvent<?> evento : clave.pollEvents()) {
+            if (evento.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Se perdieron eventos: revisar todos los archivos conocidos y el árbol completo
+                pendientes.addAll(resultados.keySet());
+                registrarArbol(raiz, pendientes);
+                continue;
+            }
+            if (directorio == null) {
+                continue;
+            }
+            Path ruta = directorio.resolve((Path) evento.context());
+            if (evento.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(ruta)) {
+                registrarArbol(ruta, pendientes);
+            } else if (esAnalizable(ruta)) {
+                pendientes.add(ruta);
+            }
+        }
+        if (!clave.reset()) {
+            directorios.remove(clave);
+        }
+    }
+
+    /**
+     * Analiza los archivos en el grupo de hilos y, si se pide, imprime la diferencia
+     * de cada uno respecto de su resultado anterior
+     */
+    private void analizarLote(Set<Path> archivos, PrintStream out, boolean informar) throws InterruptedException {
+        List<Path> rutas = new ArrayList<>(archivos);
+        List<Callable<Resultado>> tareas = new ArrayList<>();
+        for (Path archivo : rutas) {
+            tareas.add(() -> Files.isRegularFile(archivo) ? analizar(archivo) : null);
+        }
+        List<Future<Resultado>> futuros = pool.invokeAll(tareas);
+
+        for (int i = 0; i < rutas.size(); i++) {
+            Path archivo = rutas.get(i);
+            Resultado nuevo;
+            try {
+                nuevo = futuros.get(i).get();
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                String motivo = causa instanceof Exception ? BatchAnalyzer.motivo(archivo, (Exception) causa) : causa.toString();
+                out.println(raiz.relativize(archivo) + ": error al analizar: " + motivo);
+                continue;
+            }
+            Resultado anterior = nuevo != null ? resultados.put(archivo, nuevo) : resultados.remove(archivo);
+            if (informar) {
+                imprimirDiferencia(out, raiz.relativize(archivo), anterior, nuevo);
+            }
+        }
+    }
+
+    /**
+     * Analiza un archivo con un lexer del grupo; los errores se copian antes de liberarlo
+     */
+    private Resultado analizar(Path archivo) throws IOException {
+        String texto = Files.readString(archivo, StandardCharsets.UTF_8);
+        Lexer lexer = lexers.adquirir();
+        try {
+            lexer.reiniciar(texto);
+            TokenBuffer tokens = new TokenBuffer();
+            lexer.siguientes(tokens, Integer.MAX_VALUE);
+            tokens.setFuente(texto);
+            return new Resultado(tokens, lexer.getBufferErrores().copiar());
+        } finally {
+            lexers.liberar(lexer);
+        }
+    }
+
+    /**
+     * Imprime la diferencia entre dos resultados de un archivo (null si no existía)
+     */
+    static void imprimirDiferencia(PrintStream out, Path archivo, Resultado anterior, Resultado nuevo) {
+        if (nuevo == null) {
+            if (anterior != null) {
+                out.println(archivo + ": eliminado");
+            }
+            return;
+        }
+        int tokensAnteriores = anterior != null ? anterior.tokens.size() : 0;
+        long erroresAnteriores = anterior != null ? anterior.errores.getTotal() : 0;
+        out.printf("%s: %s%d tokens (%+d), %d errores (%+d)%n", archivo, anterior == null ? "nuevo, " : "",
+            nuevo.tokens.size(), nuevo.tokens.size() - tokensAnteriores,
+            nuevo.errores.getTotal(), nuevo.errores.getTotal() - erroresAnteriores);
+
+        StringBuilder tipos = new StringBuilder();
+        for (Token.TipoToken tipo : TIPOS) {
+            int delta = nuevo.getCantidad(tipo) - (anterior != null ? anterior.getCantidad(tipo) : 0);
+            if (delta != 0) {
+                tipos.append(tipos.length() == 0 ? "  tokens: " : ", ").append(tipo).append(String.format(" %+d", delta));
+            }
+        }
+        if (anterior != null && tipos.length() > 0) {
+            out.println(tipos);
+        }
+
+        // Errores que aparecen o desaparecen, comparados por mensaje
+        Map<String, Integer> conteo = new HashMap<>();
+        if (anterior != null) {
+            for (String mensaje : anterior.errores.mensajes()) {
+                conteo.merge(mensaje, -1, Integer::sum);
+            }
+        }
+        for (String mensaje : nuevo.errores.mensajes()) {
+            conteo.merge(mensaje, 1, Integer::sum);
+        }
+        List<String> lineas = new ArrayList<>();
+        for (Map.Entry<String, Integer> entrada : conteo.entrySet()) {
+            for (int k = 0; k < Math.abs(entrada.getValue()); k++) {
+                lineas.add((entrada.getValue() > 0 ? "  + " : "  - ") + entrada.getKey());
+            }
+        }
+        lineas.sort(null);
+        for (String linea : lineas) {
+            out.println(linea);
+        }
+    }
+
+    /**
+     * Deja de vigilar y detiene los hilos de trabajo
+     */
+    @Override
+    public void close() throws IOException {
+        vigilante.close();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Punto de entrada del modo de vigilancia.
+     * Uso: DirectoryWatcher &lt;directorio&gt; [--hilos N] [--extension .code] [--espera ms]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: --vigilar <directorio> [--hilos N] [--extension .code] [--espera ms]");
+            System.exit(1);
+        }
+
+        Path raiz = Paths.get(args[0]);
+        int hilos = Runtime.getRuntime().availableProcessors();
+        String extension = ".code";
+        long espera = ESPERA_PREDETERMINADA_MS;
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hilos":
+                    hilos = Integer.parseInt(args[++i]);
+                    break;
+                case "--extension":
+                    extension = args[++i];
+                    break;
+                case "--espera":
+                    espera = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        try (DirectoryWatcher watcher = new DirectoryWatcher(raiz, extension, hilos, espera)) {
+            watcher.vigilar(System.out);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package cli;
+
+import lexer.Token;
+import lexer.io.TokenIndex;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Búsqueda de tokens en un directorio mediante un índice invertido en disco.
+ *
+ * Antes de responder se actualiza el índice (solo se analizan los archivos que cambiaron).
+ * Una consulta es "TIPO:lexema" (por ejemplo IDENTIFICADOR:contador), "TIPO" para todos los
+ * tokens de un tipo (por ejemplo NUMERO_DECIMAL), o un lexema para buscarlo con cualquier tipo.
+ * Sin consultas en la línea de comandos se leen de la entrada estándar, una por línea.
+ */
+public class IndexSearch {
+
+    /** Resultados impresos por consulta */
+    public static final int LIMITE_PREDETERMINADO = 100;
+
+    private final TokenIndex indice;
+    private final int limite;
+
+    public IndexSearch(TokenIndex indice, int limite) {
+        this.indice = indice;
+        this.limite = limite;
+    }
+
+    /**
+     * Ejecuta una consulta y escribe los resultados
+     */
+    public void consultar(String consulta, Writer out) throws IOException {
+        long inicio = System.nanoTime();
+        List<TokenIndex.Ocurrencia> resultados = ejecutar(consulta.trim());
+        double ms = (System.nanoTime() - inicio) / 1e6;
+
+        int mostrados = Math.min(resultados.size(), limite);
+        for (int i = 0; i < mostrados; i++) {
+            out.write(resultados.get(i).toString().replace("\n", "\\n"));
+            out.write('\n');
+        }
+        if (resultados.size() > mostrados) {
+            out.write("... y " + (resultados.size() - mostrados) + " más\n");
+        }
+        out.write(String.format("%s: %d resultados (%.2f ms)%n", consulta, resultados.size(), ms));
+        out.flush();
+    }
+
+    private List<TokenIndex.Ocurrencia> ejecutar(String consulta) {
+        int separador = consulta.indexOf(':');
+        if (separador > 0) {
+            Token.TipoToken tipo = tipo(consulta.substring(0, separador));
+            if (tipo != null) {
+                return indice.buscar(tipo, consulta.substring(separador + 1));
+            }
+        }
+        Token.TipoToken tipo = tipo(consulta);
+        return tipo != null ? indice.buscar(tipo) : indice.buscar(consulta);
+    }
+
+    private static Token.TipoToken tipo(String nombre) {
+        try {
+            return Token.TipoToken.valueOf(nombre);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Uso: IndexSearch &lt;directorio&gt; [--indice archivo] [--extension .code] [--limite N] [consulta ...]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: --buscar <directorio> [--indice archivo] [--extension .code] [--limite N] [consulta ...]");
+            System.exit(1);
+        }
+
+        Path raiz = Paths.get(args[0]);
+        Path archivoIndice = raiz.resolve(".indice-lexico").resolve("indice.tki");
+        String extension = ".code";
+        int limite = LIMITE_PREDETERMINADO;
+        List<String> consultas = new ArrayList<>();
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--indice":
+                    archivoIndice = Paths.get(args[++i]);
+                    break;
+                case "--extension":
+                    extension = args[++i];
+                    break;
+                case "--limite":
+                    limite = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        System.err.println("Opción desconocida: " + args[i]);
+                        System.exit(1);
+                    }
+                    consultas.add(args[i]);
+            }
+        }
+
+        TokenIndex indice = new TokenIndex(archivoIndice);
+        long inicio = System.nanoTime();
+        TokenIndex.Actualizacion actualizacion = indice.actualizar(raiz, extension);
+        System.err.printf("Índice %s: %d archivos (%d analizados, %d sin cambios, %d eliminados), %d términos, %d bytes (%.3f s)%n",
+            archivoIndice, indice.getArchivos(), actualizacion.getAnalizados(), actualizacion.getSinCambios(),
+            actualizacion.getEliminados(), indice.getTerminos(), indice.getTamano(), (System.nanoTime() - inicio) / 1e9);
+        informarFallos(actualizacion);
+
+        IndexSearch busqueda = new IndexSearch(indice, limite);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        if (!consultas.isEmpty()) {
+            for (String consulta : consultas) {
+                busqueda.consultar(consulta, out);
+            }
+            return;
+        }
+        BufferedReader entrada = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String linea;
+        List<String> fallos = actualizacion.getFallos();
+        while ((linea = entrada.readLine()) != null) {
+            if (!linea.isBlank()) {
+                // Los archivos pudieron cambiar desde la consulta anterior
+                actualizacion = indice.actualizar(raiz, extension);
+                if (!actualizacion.getFallos().equals(fallos)) {
+                    informarFallos(actualizacion);
+                    fallos = actualizacion.getFallos();
+                }
+                busqueda.consultar(linea, out);
+            }
+        }
+    }
+
+    /**
+     * Informa en la salida de errores los archivos que quedaron fuera del índice
+     */
+    private static void informarFallos(TokenIndex.Actualizacion actualizacion) {
+        if (!actualizacion.getFallos().isEmpty()) {
+            System.err.println("Archivos con fallos: " + actualizacion.getFallos().size());
+            for (String fallo : actualizacion.getFallos()) {
+                System.err.println("  " + fallo);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package cli;
+
+import lexer.Lexer;
+import lexer.LexerPool;
+import lexer.io.BinaryTokenWriter;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor de análisis léxico de larga duración en localhost (TCP), para integraciones con
+ * editores: el arranque de la JVM se paga una vez y cada solicitud reutiliza un lexer del grupo.
+ *
+ * Protocolo: cada conexión admite varias solicitudes seguidas. Una solicitud es un entero de
+ * 4 bytes big-endian con la longitud en bytes seguido del texto en UTF-8. La respuesta es un
+ * flujo de tokens en el formato de {@link BinaryTokenWriter} (cabecera "TOK1", tokens en varint,
+ * marca de fin 0), que se puede leer con BinaryTokenReader y su método siguienteFlujo().
+ * Los desplazamientos y longitudes de la respuesta se expresan en caracteres UTF-16 del texto.
+ */
+public class LexerServer implements Closeable {
+
+    /** Puerto por omisión */
+    public static final int PUERTO_PREDETERMINADO = 7878;
+
+    /** Tamaño máximo de una solicitud en bytes */
+    public static final int MAX_SOLICITUD = 64 << 20;
+
+    private static final int TAMANO_BUFFER = 1 << 16;
+
+    private final ServerSocket servidor;
+    private final ExecutorService conexiones = crearEjecutor();
+    private final LexerPool lexers = new LexerPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Constructor de LexerServer
+     * @param puerto Puerto TCP en la interfaz de loopback (0 para elegir uno libre)
+     */
+    public LexerServer(int puerto) throws IOException {
+        servidor = new ServerSocket();
+        servidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto));
+    }
+
+    public int getPuerto() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Un hilo virtual por conexión si la JVM los ofrece (Java 21+), si no un hilo de plataforma
+     */
+    private static ExecutorService crearEjecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(tarea -> {
+                Thread hilo = new Thread(tarea, "conexion-lexer");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+    }
+
+    /**
+     * Acepta conexiones hasta que se cierra el servidor
+     */
+    public void atender() throws IOException {
+        while (!servidor.isClosed()) {
+            Socket socket;
+            try {
+                socket = servidor.accept();
+            } catch (SocketException e) {
+                if (servidor.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            conexiones.execute(() -> atenderConexion(socket));
+        }
+    }
+
+    private void atenderConexion(Socket socket) {
+        try (Socket conexion = socket;
+             DataInputStream entrada = new DataInputStream(new BufferedInputStream(conexion.getInputStream(), TAMANO_BUFFER));
+             BinaryTokenWriter writer = new BinaryTokenWriter(conexion.getOutputStream(), TAMANO_BUFFER)) {
+            conexion.setTcpNoDelay(true);
+            byte[] datos = new byte[8192];
+            while (true) {
+                int longitud;
+                try {
+                    longitud = entrada.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (longitud < 0 || longitud > MAX_SOLICITUD) {
+                    throw new IOException("Longitud de solicitud inválida: " + longitud);
+                }
+                if (datos.length < longitud) {
+                    datos = new byte[Math.max(longitud, datos.length * 2)];
+                }
+                entrada.readFully(datos, 0, longitud);
+                analizar(new String(datos, 0, longitud, StandardCharsets.UTF_8), writer);
+            }
+        } catch (IOException e) {
+            System.err.println("Conexión terminada: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Analiza el texto de una solicitud en modo compacto y envía sus tokens como un flujo terminado
+     */
+    private void analizar(String texto, BinaryTokenWriter writer) throws IOException {
+        Lexer lexer = lexers.adquirir();
+        try {
+            lexer.reiniciar(texto);
+            int tipo;
+            while ((tipo = lexer.siguienteToken()) >= 0) {
+                writer.escribir(tipo, lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                                lexer.getTokenLinea(), lexer.getTokenColumna(), null);
+            }
+        } finally {
+            lexers.liberar(lexer);
+        }
+        writer.terminar();
+    }
+
+    /**
+     * Deja de aceptar conexiones; las conexiones abiertas terminan al cerrarlas el cliente
+     */
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+        conexiones.shutdown();
+    }
+
+    /**
+     * Punto de entrada del modo servidor.
+     * Uso: LexerServer [--puerto N]
+     */
+    public static void main(String[] args) throws Exception {
+        int puerto = PUERTO_PREDETERMINADO;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--puerto":
+                    puerto = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        try (LexerServer servidor = new LexerServer(puerto)) {
+            System.out.println("Servidor léxico escuchando en " + InetAddress.getLoopbackAddress().getHostAddress()
+                + ":" + servidor.getPuerto());
+            servidor.atender();
+        }
+    }
+}
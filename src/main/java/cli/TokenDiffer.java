@@ -0,0 +1,131 @@
+package cli;
+
+import lexer.TokenBuffer;
+import lexer.TokenDiff;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Compara dos versiones de un archivo a nivel de tokens e imprime el script de edición:
+ * cada bloque muestra los tokens eliminados (-) e insertados (+) con su posición, rodeados
+ * opcionalmente de algunos tokens iguales como contexto.
+ */
+public class TokenDiffer {
+
+    /** Tokens iguales mostrados antes y después de cada bloque */
+    public static final int CONTEXTO_PREDETERMINADO = 3;
+
+    private final int contexto;
+    private final boolean soloResumen;
+
+    public TokenDiffer(int contexto, boolean soloResumen) {
+        this.contexto = contexto;
+        this.soloResumen = soloResumen;
+    }
+
+    /**
+     * Compara los archivos y escribe la diferencia
+     * @return Si los archivos tienen tokens distintos
+     */
+    public boolean comparar(Path anterior, Path nuevo, Writer out) throws IOException {
+        String textoAnterior = Files.readString(anterior, StandardCharsets.UTF_8);
+        String textoNuevo = Files.readString(nuevo, StandardCharsets.UTF_8);
+
+        long inicio = System.nanoTime();
+        TokenDiff diff = TokenDiff.comparar(textoAnterior, textoNuevo);
+        long tiempo = System.nanoTime() - inicio;
+
+        TokenBuffer a = diff.getAnterior();
+        TokenBuffer b = diff.getNuevo();
+        out.write("--- " + anterior + " (" + a.size() + " tokens)\n");
+        out.write("+++ " + nuevo + " (" + b.size() + " tokens)\n");
+        if (!soloResumen) {
+            for (TokenDiff.Cambio cambio : diff.getCambios()) {
+                escribirBloque(diff, cambio, out);
+            }
+        }
+        out.write(String.format("Resumen: %d bloques, %d tokens eliminados, %d insertados (%.3f s)%n",
+            diff.getCambios().size(), diff.getEliminados(), diff.getInsertados(), tiempo / 1e9));
+        return !diff.sinCambios();
+    }
+
+    private void escribirBloque(TokenDiff diff, TokenDiff.Cambio cambio, Writer out) throws IOException {
+        TokenBuffer a = diff.getAnterior();
+        TokenBuffer b = diff.getNuevo();
+        int desde = Math.max(0, cambio.getIndiceAnterior() - contexto);
+        int finAnterior = cambio.getIndiceAnterior() + cambio.getEliminados();
+        int hasta = Math.min(a.size(), finAnterior + contexto);
+
+        out.write("@@ " + posicion(a, cambio.getIndiceAnterior()) + " -" + cambio.getEliminados()
+            + " | " + posicion(b, cambio.getIndiceNuevo()) + " +" + cambio.getInsertados() + " @@\n");
+        for (int i = desde; i < cambio.getIndiceAnterior(); i++) {
+            escribirToken(' ', a, i, out);
+        }
+        for (int i = cambio.getIndiceAnterior(); i < finAnterior; i++) {
+            escribirToken('-', a, i, out);
+        }
+        for (int i = cambio.getIndiceNuevo(); i < cambio.getIndiceNuevo() + cambio.getInsertados(); i++) {
+            escribirToken('+', b, i, out);
+        }
+        for (int i = finAnterior; i < hasta; i++) {
+            escribirToken(' ', a, i, out);
+        }
+    }
+
+    /**
+     * Línea y columna del token, o del final del texto si el índice es el último
+     */
+    private static String posicion(TokenBuffer tokens, int i) {
+        if (i < tokens.size()) {
+            return tokens.getLinea(i) + ":" + tokens.getColumna(i);
+        }
+        return i == 0 ? "1:1" : "fin";
+    }
+
+    private static void escribirToken(char marca, TokenBuffer tokens, int i, Writer out) throws IOException {
+        out.write(marca);
+        out.write(' ');
+        out.write(tokens.getTipo(i).toString());
+        out.write(" '");
+        out.write(tokens.getLexema(i).replace("\n", "\\n"));
+        out.write("' ");
+        out.write(tokens.getLinea(i) + ":" + tokens.getColumna(i));
+        out.write('\n');
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: --diff <anterior> <nuevo> [--contexto N] [--resumen]");
+            System.exit(2);
+        }
+
+        int contexto = CONTEXTO_PREDETERMINADO;
+        boolean soloResumen = false;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--contexto":
+                    contexto = Integer.parseInt(args[++i]);
+                    break;
+                case "--resumen":
+                    soloResumen = true;
+                    break;
+                default:
+                    System.err.println("Opción desconocida: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        boolean distintos = new TokenDiffer(contexto, soloResumen).comparar(Paths.get(args[0]), Paths.get(args[1]), out);
+        out.flush();
+        // Como diff: 0 si no hay diferencias, 1 si las hay
+        System.exit(distintos ? 1 : 0);
+    }
+}
@@ -0,0 +1,59 @@
+package lexer;
+
+import java.io.Reader;
+
+/**
+ * Reader sobre un rango de un CharSequence, sin copiar el texto completo.
+ */
+public class CharSequenceReader extends Reader {
+
+    private final CharSequence texto;
+    private final int fin;
+    private int posicion;
+
+    /**
+     * Constructor de CharSequenceReader
+     * @param texto Texto a leer
+     * @param desde Desplazamiento inicial (incluido)
+     * @param hasta Desplazamiento final (excluido)
+     */
+    public CharSequenceReader(CharSequence texto, int desde, int hasta) {
+        this.texto = texto;
+        this.posicion = desde;
+        this.fin = hasta;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if (posicion >= fin) {
+            return -1;
+        }
+        int n = Math.min(len, fin - posicion);
+        if (texto instanceof String) {
+            ((String) texto).getChars(posicion, posicion + n, cbuf, off);
+        } else {
+            for (int i = 0; i < n; i++) {
+                cbuf[off + i] = texto.charAt(posicion + i);
+            }
+        }
+        posicion += n;
+        return n;
+    }
+
+    /**
+     * Desplazamiento del próximo carácter a leer
+     */
+    public int getPosicion() {
+        return posicion;
+    }
+
+    @Override
+    public int read() {
+        return posicion < fin ? texto.charAt(posicion++) : -1;
+    }
+
+    @Override
+    public void close() {
+        // nada que liberar
+    }
+}
@@ -0,0 +1,302 @@
+package lexer;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Errores léxicos almacenados en arreglos primitivos (código, desplazamiento, longitud, línea,
+ * columna, estado léxico y detalle). Los mensajes no se construyen al registrar el error:
+ * se formatean bajo demanda con {@link #getMensaje(int)}.
+ *
+ * Una serie de caracteres no reconocidos contiguos se fusiona en un solo error, y a partir de
+ * {@link #getMaximo()} errores los siguientes solo se cuentan como omitidos.
+ */
+public class ErrorBuffer {
+
+    /** Límite de errores almacenados por omisión */
+    public static final int MAXIMO_PREDETERMINADO = 10_000;
+
+    /**
+     * Tipos de error léxico
+     */
+    public enum Codigo {
+        CARACTER_NO_RECONOCIDO,
+        CADENA_NO_CERRADA,
+        CADENA_NO_CERRADA_AL_FINAL,
+        COMENTARIO_NO_CERRADO
+    }
+
+    private static final Codigo[] CODIGOS = Codigo.values();
+
+    private int[] codigos;
+    private int[] inicios;
+    private int[] longitudes;
+    private int[] lineas;
+    private int[] columnas;
+    private int[] estados;
+    private int[] detalles;
+    private int size;
+
+    private int maximo = MAXIMO_PREDETERMINADO;
+    private boolean fusionar = true;
+    private long omitidos;
+
+    // Último error registrado (almacenado u omitido), para fusionar la serie que continúa
+    private int ultimoCodigo = -1;
+    private int ultimoFin = -1;
+    private boolean ultimoOmitido;
+
+    public ErrorBuffer() {
+        this(16);
+    }
+
+    /**
+     * Constructor de ErrorBuffer
+     * @param capacidad Capacidad inicial en errores
+     */
+    public ErrorBuffer(int capacidad) {
+        capacidad = Math.max(capacidad, 4);
+        codigos = new int[capacidad];
+        inicios = new int[capacidad];
+        longitudes = new int[capacidad];
+        lineas = new int[capacidad];
+        columnas = new int[capacidad];
+        estados = new int[capacidad];
+        detalles = new int[capacidad];
+    }
+
+    /**
+     * Registra un error
+     * @param codigo Ordinal del Codigo
+     * @param inicio Desplazamiento en la entrada
+     * @param longitud Caracteres que abarca el error
+     * @param linea Línea (base 1)
+     * @param columna Columna (base 1)
+     * @param estado Estado léxico en el que se detectó
+     * @param detalle Primer carácter (code point) de un carácter no reconocido, 0 en otro caso
+     */
+    public void registrar(int codigo, int inicio, int longitud, int linea, int columna, int estado, int detalle) {
+        if (fusionar && codigo == Codigo.CARACTER_NO_RECONOCIDO.ordinal()
+                && codigo == ultimoCodigo && inicio == ultimoFin) {
+            ultimoFin = inicio + longitud;
+            if (!ultimoOmitido) {
+                longitudes[size - 1] += longitud;
+            }
+            return;
+        }
+        ultimoCodigo = codigo;
+        ultimoFin = inicio + longitud;
+        if (size >= maximo) {
+            omitidos++;
+            ultimoOmitido = true;
+            return;
+        }
+        ultimoOmitido = false;
+        if (size == codigos.length) {
+            crecer();
+        }
+        codigos[size] = codigo;
+        inicios[size] = inicio;
+        longitudes[size] = longitud;
+        lineas[size] = linea;
+        columnas[size] = columna;
+        estados[size] = estado;
+        detalles[size] = detalle;
+        size++;
+    }
+
+    /**
+     * Registra los errores de otro buffer cuyo desplazamiento está en [desde, hasta),
+     * aplicando la fusión y el límite de este buffer
+     */
+    public void agregar(ErrorBuffer otro, int desde, int hasta) {
+        for (int i = 0; i < otro.size; i++) {
+            if (otro.inicios[i] >= desde && otro.inicios[i] < hasta) {
+                registrar(otro.codigos[i], otro.inicios[i], otro.longitudes[i], otro.lineas[i],
+                          otro.columnas[i], otro.estados[i], otro.detalles[i]);
+            }
+        }
+        omitidos += otro.omitidos;
+    }
+
+    /**
+     * Registra todos los errores de otro buffer
+     */
+    public void agregar(ErrorBuffer otro) {
+        agregar(otro, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Suma errores omitidos detectados fuera de este buffer (por ejemplo, al restaurarlo de una caché)
+     */
+    public void agregarOmitidos(long cantidad) {
+        omitidos += cantidad;
+    }
+
+    /**
+     * Elimina el último error almacenado
+     */
+    public void quitarUltimo() {
+        size--;
+        ultimoCodigo = -1;
+        ultimoFin = -1;
+    }
+
+    private void crecer() {
+        int capacidad = codigos.length * 2;
+        codigos = Arrays.copyOf(codigos, capacidad);
+        inicios = Arrays.copyOf(inicios, capacidad);
+        longitudes = Arrays.copyOf(longitudes, capacidad);
+        lineas = Arrays.copyOf(lineas, capacidad);
+        columnas = Arrays.copyOf(columnas, capacidad);
+        estados = Arrays.copyOf(estados, capacidad);
+        detalles = Arrays.copyOf(detalles, capacidad);
+    }
+
+    /**
+     * Vacía el buffer conservando la configuración y la capacidad reservada
+     */
+    public void clear() {
+        size = 0;
+        omitidos = 0;
+        ultimoCodigo = -1;
+        ultimoFin = -1;
+        ultimoOmitido = false;
+    }
+
+    /**
+     * Copia independiente de los errores almacenados
+     */
+    public ErrorBuffer copiar() {
+        ErrorBuffer copia = new ErrorBuffer(size);
+        copia.maximo = maximo;
+        copia.fusionar = fusionar;
+        copia.agregar(this);
+        return copia;
+    }
+
+    // Configuración
+    /**
+     * Cantidad máxima de errores almacenados; los siguientes solo se cuentan
+     */
+    public void setMaximo(int maximo) {
+        this.maximo = maximo;
+    }
+
+    public int getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * Si se fusionan los caracteres no reconocidos contiguos en un solo error
+     */
+    public void setFusionar(boolean fusionar) {
+        this.fusionar = fusionar;
+    }
+
+    // Consultas
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0 && omitidos == 0;
+    }
+
+    /**
+     * Errores que no se almacenaron por haber alcanzado el máximo
+     */
+    public long getOmitidos() {
+        return omitidos;
+    }
+
+    /**
+     * Total de errores detectados, almacenados u omitidos
+     */
+    public long getTotal() {
+        return size + omitidos;
+    }
+
+    public Codigo getCodigo(int i) {
+        return CODIGOS[codigos[i]];
+    }
+
+    public int getInicio(int i) {
+        return inicios[i];
+    }
+
+    public int getLongitud(int i) {
+        return longitudes[i];
+    }
+
+    public int getLinea(int i) {
+        return lineas[i];
+    }
+
+    public int getColumna(int i) {
+        return columnas[i];
+    }
+
+    public int getEstado(int i) {
+        return estados[i];
+    }
+
+    /**
+     * Primer carácter (code point) de un carácter no reconocido, 0 en otro caso
+     */
+    public int getDetalle(int i) {
+        return detalles[i];
+    }
+
+    /**
+     * Formatea el mensaje del error i
+     */
+    public String getMensaje(int i) {
+        switch (getCodigo(i)) {
+            case CARACTER_NO_RECONOCIDO:
+                String caracter = new String(Character.toChars(detalles[i]));
+                int resto = longitudes[i] - caracter.length();
+                return (resto > 0
+                        ? "Caracteres no reconocidos: '" + caracter + "' y " + resto + " más"
+                        : "Carácter no reconocido: '" + caracter + "'")
+                    + " en línea " + lineas[i] + ", columna " + columnas[i];
+            case CADENA_NO_CERRADA:
+                return "Cadena no cerrada en línea " + lineas[i];
+            case CADENA_NO_CERRADA_AL_FINAL:
+                return "Cadena no cerrada al final del archivo";
+            case COMENTARIO_NO_CERRADO:
+                return "Comentario de bloque no cerrado en línea " + lineas[i];
+            default:
+                throw new IllegalStateException("Código de error desconocido: " + codigos[i]);
+        }
+    }
+
+    /**
+     * Mensaje que resume los errores omitidos, o null si no hubo
+     */
+    public String getMensajeOmitidos() {
+        return omitidos == 0 ? null
+            : "Se omitieron " + omitidos + " errores más (límite de " + maximo + ")";
+    }
+
+    /**
+     * Vista de solo lectura de los mensajes; cada uno se formatea al consultarlo
+     */
+    public List<String> mensajes() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int i) {
+                if (i < 0 || i >= size) {
+                    throw new IndexOutOfBoundsException("Índice: " + i + ", errores: " + size);
+                }
+                return getMensaje(i);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
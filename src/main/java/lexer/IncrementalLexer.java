@@ -0,0 +1,460 @@
+package lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Mantiene los tokens de un texto editable y, ante cada edición, vuelve a analizar
+ * solo la región afectada.
+ *
+ * Los tokens se guardan en arreglos primitivos organizados como buffer con hueco
+ * (gap buffer): los tokens anteriores al hueco guardan su desplazamiento y línea absolutos,
+ * y los posteriores los guardan relativos al final del texto. Así una edición no obliga a
+ * desplazar ni renumerar los tokens que siguen, y mover el hueco cuesta solo la distancia
+ * entre ediciones consecutivas.
+ *
+ * Todo token comienza en el estado YYINITIAL, por lo que el análisis se reanuda desde el
+ * inicio de un token anterior a la edición y se detiene en cuanto un token nuevo coincide
+ * (tipo, longitud, desplazamiento y columna) con uno antiguo posterior a la edición.
+ */
+public class IncrementalLexer implements TokenSequence {
+
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+
+    /** Caracteres que el lexer puede examinar más allá del final de un token */
+    private static final int MARGEN = 2;
+
+    private final Lexer lexer = new Lexer(Reader.nullReader());
+    private final TokenBuffer nuevos = new TokenBuffer();
+    private final TokenStatistics estadisticas = new TokenStatistics();
+
+    // Errores del documento completo; el auxiliar recibe la mezcla de cada edición y se intercambian
+    private ErrorBuffer erroresDocumento = new ErrorBuffer();
+    private ErrorBuffer erroresAuxiliar = new ErrorBuffer();
+
+    private int[] tipos;
+    private int[] inicios;
+    private int[] longitudes;
+    private int[] lineas;
+    private int[] columnas;
+    private int gapInicio;
+    private int gapFin;
+
+    private CharSequence texto = "";
+    private int longitudTexto;
+    private int totalLineas = 1;
+
+    /**
+     * Describe el resultado de una edición: los tokens [indice, indice + eliminados)
+     * fueron reemplazados por [indice, indice + insertados)
+     */
+    public static class Cambio {
+        private final int indice;
+        private final int eliminados;
+        private final int insertados;
+        private final int deltaLineas;
+
+        public Cambio(int indice, int eliminados, int insertados, int deltaLineas) {
+            this.indice = indice;
+            this.eliminados = eliminados;
+            this.insertados = insertados;
+            this.deltaLineas = deltaLineas;
+        }
+
+        public int getIndice() { return indice; }
+        public int getEliminados() { return eliminados; }
+        public int getInsertados() { return insertados; }
+        public int getDeltaLineas() { return deltaLineas; }
+    }
+
+    public IncrementalLexer() {
+        reservar(1024);
+    }
+
+    private void reservar(int capacidad) {
+        tipos = new int[capacidad];
+        inicios = new int[capacidad];
+        longitudes = new int[capacidad];
+        lineas = new int[capacidad];
+        columnas = new int[capacidad];
+        gapInicio = 0;
+        gapFin = capacidad;
+    }
+
+    /**
+     * Analiza el texto completo, descartando los tokens anteriores
+     */
+    public void analizarTodo(CharSequence texto) throws IOException {
+        iniciarCarga(texto);
+        lexer.reiniciar(texto, 0, 1, 1);
+        while (lexer.siguienteToken() >= 0) {
+            insertar(lexer.getTokenTipo(), lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                     lexer.getTokenLinea(), lexer.getTokenColumna());
+        }
+        finalizarCarga(lexer.getTokenLinea(), lexer.getBufferErrores());
+    }
+
+    /**
+     * Comienza una carga por lotes de los tokens del texto indicado, producidos por otro lexer
+     * (por ejemplo, un análisis en segundo plano). Descarta los tokens anteriores.
+     */
+    public void iniciarCarga(CharSequence texto) {
+        this.texto = texto;
+        gapInicio = 0;
+        gapFin = tipos.length;
+        longitudTexto = 0;
+        totalLineas = 1;
+        estadisticas.reiniciar();
+        erroresDocumento.clear();
+    }
+
+    /**
+     * Agrega al final un lote de tokens de la carga en curso
+     */
+    public void agregarLote(TokenSequence lote) {
+        moverGap(size());
+        for (int i = 0; i < lote.size(); i++) {
+            insertar(lote.getTipoOrdinal(i), lote.getInicio(i), lote.getLongitud(i),
+                     lote.getLinea(i), lote.getColumna(i));
+        }
+    }
+
+    /**
+     * Termina la carga por lotes
+     * @param totalLineas Línea del fin de archivo informada por el lexer
+     * @param errores Errores del texto completo informados por el lexer (se copian)
+     */
+    public void finalizarCarga(int totalLineas, ErrorBuffer errores) {
+        this.longitudTexto = texto.length();
+        this.totalLineas = totalLineas;
+        erroresDocumento.clear();
+        erroresDocumento.setMaximo(errores.getMaximo());
+        erroresDocumento.agregar(errores);
+    }
+
+    /**
+     * Errores léxicos del documento completo, actualizados con cada edición.
+     * Si se alcanzó el máximo de errores, los omitidos no tienen posición y su cantidad
+     * se conserva de forma aproximada.
+     */
+    public ErrorBuffer getErroresDocumento() {
+        return erroresDocumento;
+    }
+
+    /**
+     * Errores léxicos del último análisis (completo o de la región editada)
+     */
+    public List<String> getErrores() {
+        return lexer.getErrores();
+    }
+
+    public ErrorBuffer getBufferErrores() {
+        return lexer.getBufferErrores();
+    }
+
+    /**
+     * Estadísticas de los tokens almacenados, actualizadas con cada carga y edición
+     */
+    public TokenStatistics getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Actualiza los tokens tras reemplazar el rango [inicio, finAnterior) del texto anterior
+     * por longitudInsertada caracteres
+     * @param texto Texto completo después de la edición
+     * @return Rango de tokens modificado
+     */
+    public Cambio editar(CharSequence texto, int inicio, int finAnterior, int longitudInsertada) throws IOException {
+        int delta = longitudInsertada - (finAnterior - inicio);
+        int finNuevo = inicio + longitudInsertada;
+        int n = size();
+
+        // Token desde el que se reanuda el análisis: el último que termina antes de la edición
+        int reinicio = ultimoAntesDe(inicio - MARGEN);
+        int desde = 0;
+        int linea = 1;
+        int columna = 1;
+        if (reinicio >= 0) {
+            desde = getInicio(reinicio);
+            linea = getLinea(reinicio);
+            columna = getColumna(reinicio);
+        } else {
+            reinicio = 0;
+        }
+
+        // Primer token antiguo que comienza después del texto reemplazado
+        int antiguo = primeroDesde(finAnterior);
+        boolean sincronizado = false;
+        int deltaLineas = 0;
+        int inicioSincronizado = 0;
+
+        nuevos.clear();
+        lexer.reiniciar(texto, desde, linea, columna);
+        int tipo;
+        while ((tipo = lexer.siguienteToken()) >= 0) {
+            int inicioToken = lexer.getTokenInicio();
+            if (inicioToken >= finNuevo) {
+                int inicioAntiguo = inicioToken - delta;
+                while (antiguo < n && getInicio(antiguo) < inicioAntiguo) {
+                    antiguo++;
+                }
+                if (antiguo < n && getInicio(antiguo) == inicioAntiguo
+                        && tipos[fisico(antiguo)] == tipo
+                        && longitudes[fisico(antiguo)] == lexer.getTokenLongitud()
+                        && columnas[fisico(antiguo)] == lexer.getTokenColumna()) {
+                    deltaLineas = lexer.getTokenLinea() - getLinea(antiguo);
+                    inicioSincronizado = inicioToken;
+                    sincronizado = true;
+                    break;
+                }
+            }
+            nuevos.agregar(tipo, inicioToken, lexer.getTokenLongitud(),
+                           lexer.getTokenLinea(), lexer.getTokenColumna());
+        }
+        if (!sincronizado) {
+            antiguo = n;
+            deltaLineas = lexer.getTokenLinea() - totalLineas;
+        }
+
+        if (sincronizado) {
+            mezclarErrores(texto, desde, inicioSincronizado, delta, deltaLineas,
+                           lexer.getTokenLinea(), lexer.getTokenColumna());
+        } else {
+            mezclarErrores(texto, desde, Integer.MAX_VALUE, delta, deltaLineas, 0, 0);
+        }
+
+        // Reemplazar los tokens [reinicio, antiguo) por los nuevos
+        for (int i = reinicio; i < antiguo; i++) {
+            estadisticas.quitar(getTipoOrdinal(i), getLongitud(i));
+        }
+        moverGap(reinicio);
+        gapFin += antiguo - reinicio;
+        for (int i = 0; i < nuevos.size(); i++) {
+            insertar(nuevos.getTipoOrdinal(i), nuevos.getInicio(i), nuevos.getLongitud(i),
+                     nuevos.getLinea(i), nuevos.getColumna(i));
+        }
+
+        this.texto = texto;
+        longitudTexto += delta;
+        totalLineas += deltaLineas;
+        return new Cambio(reinicio, antiguo - reinicio, nuevos.size(), deltaLineas);
+    }
+
+    /**
+     * Reemplaza en los errores del documento los de la región analizada de nuevo,
+     * [desde, sincronizacion) en el texto nuevo, por los que informó el lexer, y desplaza
+     * los posteriores. Los caracteres no reconocidos contiguos que cruzan un borde de la región
+     * se recortan, y el registro en orden los vuelve a fusionar como en un análisis completo.
+     * @param texto Texto completo después de la edición
+     * @param sincronizacion Inicio del token que coincidió con uno antiguo (Integer.MAX_VALUE si ninguno)
+     * @param lineaSincronizacion Línea del token sincronizado en el texto nuevo
+     * @param columnaSincronizacion Columna del token sincronizado
+     */
+    private void mezclarErrores(CharSequence texto, int desde, int sincronizacion, int delta, int deltaLineas,
+                                int lineaSincronizacion, int columnaSincronizacion) {
+        ErrorBuffer anteriores = erroresDocumento;
+        ErrorBuffer region = lexer.getBufferErrores();
+        ErrorBuffer mezcla = erroresAuxiliar;
+        int noReconocido = ErrorBuffer.Codigo.CARACTER_NO_RECONOCIDO.ordinal();
+        long sincronizacionAnterior = (long) sincronizacion - delta;
+        mezcla.clear();
+        mezcla.setMaximo(anteriores.getMaximo());
+
+        // Errores anteriores a la región
+        int i = 0;
+        for (; i < anteriores.size() && anteriores.getInicio(i) < desde; i++) {
+            int inicioError = anteriores.getInicio(i);
+            mezcla.registrar(anteriores.getCodigo(i).ordinal(), inicioError,
+                             Math.min(anteriores.getLongitud(i), desde - inicioError),
+                             anteriores.getLinea(i), anteriores.getColumna(i),
+                             anteriores.getEstado(i), anteriores.getDetalle(i));
+        }
+
+        // Errores de la región analizada de nuevo (el lexer ya analizó el token sincronizado)
+        for (int j = 0; j < region.size() && region.getInicio(j) < sincronizacion; j++) {
+            int inicioError = region.getInicio(j);
+            mezcla.registrar(region.getCodigo(j).ordinal(), inicioError,
+                             (int) Math.min(region.getLongitud(j), (long) sincronizacion - inicioError),
+                             region.getLinea(j), region.getColumna(j), region.getEstado(j), region.getDetalle(j));
+        }
+        long omitidos = region.getOmitidos();
+
+        if (sincronizacion != Integer.MAX_VALUE) {
+            // Serie de caracteres no reconocidos que continúa desde el token sincronizado
+            int finSerie = 0;
+            int estadoSerie = 0;
+            for (i = 0; i < anteriores.size() && anteriores.getInicio(i) < sincronizacionAnterior; i++) {
+                int finError = anteriores.getInicio(i) + anteriores.getLongitud(i);
+                if (anteriores.getCodigo(i).ordinal() == noReconocido && finError > sincronizacionAnterior) {
+                    finSerie = finError;
+                    estadoSerie = anteriores.getEstado(i);
+                }
+            }
+            if (finSerie > 0) {
+                mezcla.registrar(noReconocido, sincronizacion, (int) (finSerie - sincronizacionAnterior),
+                                 lineaSincronizacion, columnaSincronizacion, estadoSerie,
+                                 Character.codePointAt(texto, sincronizacion));
+            }
+
+            // Errores posteriores, desplazados; el token sincronizado y los siguientes no cambiaron
+            for (; i < anteriores.size(); i++) {
+                mezcla.registrar(anteriores.getCodigo(i).ordinal(), anteriores.getInicio(i) + delta,
+                                 anteriores.getLongitud(i), anteriores.getLinea(i) + deltaLineas,
+                                 anteriores.getColumna(i), anteriores.getEstado(i), anteriores.getDetalle(i));
+            }
+            omitidos += anteriores.getOmitidos();
+        }
+        mezcla.agregarOmitidos(omitidos);
+
+        erroresAuxiliar = anteriores;
+        erroresDocumento = mezcla;
+    }
+
+    /**
+     * Índice del último token que termina en o antes del desplazamiento, o -1
+     */
+    private int ultimoAntesDe(int desplazamiento) {
+        int bajo = 0;
+        int alto = size() - 1;
+        int resultado = -1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (getInicio(medio) + getLongitud(medio) <= desplazamiento) {
+                resultado = medio;
+                bajo = medio + 1;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Índice del primer token que comienza en o después del desplazamiento, o size()
+     */
+    private int primeroDesde(int desplazamiento) {
+        int bajo = 0;
+        int alto = size();
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (getInicio(medio) < desplazamiento) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Mueve el hueco para que comience en la posición lógica indicada,
+     * convirtiendo las coordenadas de los tokens que lo cruzan
+     */
+    private void moverGap(int posicion) {
+        while (gapInicio > posicion) {
+            gapInicio--;
+            gapFin--;
+            tipos[gapFin] = tipos[gapInicio];
+            inicios[gapFin] = longitudTexto - inicios[gapInicio];
+            longitudes[gapFin] = longitudes[gapInicio];
+            lineas[gapFin] = totalLineas - lineas[gapInicio];
+            columnas[gapFin] = columnas[gapInicio];
+        }
+        while (gapInicio < posicion) {
+            tipos[gapInicio] = tipos[gapFin];
+            inicios[gapInicio] = longitudTexto - inicios[gapFin];
+            longitudes[gapInicio] = longitudes[gapFin];
+            lineas[gapInicio] = totalLineas - lineas[gapFin];
+            columnas[gapInicio] = columnas[gapFin];
+            gapInicio++;
+            gapFin++;
+        }
+    }
+
+    /**
+     * Inserta un token con coordenadas absolutas al comienzo del hueco
+     */
+    private void insertar(int tipo, int inicio, int longitud, int linea, int columna) {
+        if (gapInicio == gapFin) {
+            crecer();
+        }
+        tipos[gapInicio] = tipo;
+        inicios[gapInicio] = inicio;
+        longitudes[gapInicio] = longitud;
+        lineas[gapInicio] = linea;
+        columnas[gapInicio] = columna;
+        gapInicio++;
+        estadisticas.registrar(tipo, longitud);
+    }
+
+    private void crecer() {
+        int capacidad = tipos.length;
+        int nuevaCapacidad = capacidad * 2;
+        int cola = capacidad - gapFin;
+        tipos = crecer(tipos, nuevaCapacidad, cola);
+        inicios = crecer(inicios, nuevaCapacidad, cola);
+        longitudes = crecer(longitudes, nuevaCapacidad, cola);
+        lineas = crecer(lineas, nuevaCapacidad, cola);
+        columnas = crecer(columnas, nuevaCapacidad, cola);
+        gapFin = nuevaCapacidad - cola;
+    }
+
+    private int[] crecer(int[] arreglo, int nuevaCapacidad, int cola) {
+        int[] nuevo = new int[nuevaCapacidad];
+        System.arraycopy(arreglo, 0, nuevo, 0, gapInicio);
+        System.arraycopy(arreglo, arreglo.length - cola, nuevo, nuevaCapacidad - cola, cola);
+        return nuevo;
+    }
+
+    private int fisico(int i) {
+        return i < gapInicio ? i : i + (gapFin - gapInicio);
+    }
+
+    public CharSequence getTexto() {
+        return texto;
+    }
+
+    // Acceso por índice lógico
+    @Override
+    public int size() {
+        return tipos.length - (gapFin - gapInicio);
+    }
+
+    @Override
+    public int getTipoOrdinal(int i) {
+        return tipos[fisico(i)];
+    }
+
+    @Override
+    public Token.TipoToken getTipo(int i) {
+        return TIPOS[tipos[fisico(i)]];
+    }
+
+    @Override
+    public int getInicio(int i) {
+        return i < gapInicio ? inicios[i] : longitudTexto - inicios[fisico(i)];
+    }
+
+    @Override
+    public int getLongitud(int i) {
+        return longitudes[fisico(i)];
+    }
+
+    @Override
+    public int getLinea(int i) {
+        return i < gapInicio ? lineas[i] : totalLineas - lineas[fisico(i)];
+    }
+
+    @Override
+    public int getColumna(int i) {
+        return columnas[fisico(i)];
+    }
+
+    @Override
+    public String getLexema(int i) {
+        int inicio = getInicio(i);
+        return texto.subSequence(inicio, inicio + getLongitud(i)).toString();
+    }
+}
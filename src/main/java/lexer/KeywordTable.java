@@ -0,0 +1,320 @@
+package lexer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tabla de palabras reservadas del lexer, compilada en una función hash perfecta.
+ *
+ * La gramática reconoce cualquier palabra como IDENTIFICADOR con una sola regla, y la acción
+ * la clasifica con esta tabla. La clave de cada palabra se forma con su longitud y sus
+ * caracteres primero, central y último (o con un hash FNV-1a de todos sus caracteres si esa
+ * clave no distingue a dos palabras, probando otras bases del hash si también coinciden), y se
+ * busca una semilla que asigne a cada clave una ranura distinta: en el caso habitual una
+ * búsqueda lee a lo sumo tres caracteres antes de la comparación final.
+ *
+ * El conjunto de palabras se puede cargar al iniciar desde un archivo (ver {@link #cargar(Path)}),
+ * sin volver a generar el lexer. Las instancias son inmutables y se comparten entre hilos.
+ */
+public final class KeywordTable {
+
+    /** Bases del hash de clave completa que se prueban antes de rechazar el conjunto de palabras */
+    private static final int BASES_CLAVE = 256;
+
+    /** Palabras reservadas del lenguaje, en el orden de sus números de símbolo */
+    private static final String[] PALABRAS = {
+        "if", "else", "while", "for", "int", "float",
+        "string", "boolean", "true", "false", "return", "void"
+    };
+
+    private static volatile KeywordTable predeterminada = crearPredeterminada();
+
+    // Palabras en orden de registro y su tipo
+    private final String[] palabras;
+    private final Token.TipoToken[] tipos;
+
+    // Tabla hash perfecta: índice de palabra + 1 por ranura, o 0 si está libre
+    private final int[] ranuras;
+    private final char[][] caracteres;
+    private final boolean claveCompleta;
+    private final int baseClave;
+    private final int semilla;
+    private final int desplazamiento;
+    private final int longitudMinima;
+    private final int longitudMaxima;
+
+    /**
+     * Compila la tabla para las palabras indicadas
+     * @param palabrasYTipos Palabra y tipo de token de cada una, en el orden de sus números de símbolo
+     */
+    public KeywordTable(Map<String, Token.TipoToken> palabrasYTipos) {
+        palabras = palabrasYTipos.keySet().toArray(new String[0]);
+        tipos = palabrasYTipos.values().toArray(new Token.TipoToken[0]);
+        int minima = Integer.MAX_VALUE, maxima = 0;
+        for (String palabra : palabras) {
+            validar(palabra);
+            minima = Math.min(minima, palabra.length());
+            maxima = Math.max(maxima, palabra.length());
+        }
+        longitudMinima = palabras.length == 0 ? 1 : minima;
+        longitudMaxima = maxima;
+
+        // Claves de cada palabra; si dos coinciden se usa el hash de todos los caracteres,
+        // con la primera base que las distinga
+        int[] claves = new int[palabras.length];
+        boolean completa = !clavesDistintas(claves, false, 0);
+        int base = 0;
+        if (completa) {
+            int intento = 0;
+            do {
+                if (intento == BASES_CLAVE) {
+                    throw new IllegalArgumentException("Palabras reservadas con el mismo hash");
+                }
+                base = 0x811C9DC5 + intento++ * 0x9E3779B9;
+            } while (!clavesDistintas(claves, true, base));
+        }
+        claveCompleta = completa;
+        baseClave = base;
+
+        // Buscar una semilla sin colisiones, agrandando la tabla si hace falta
+        int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(Math.max(1, palabras.length * 2 - 1)));
+        int[] tabla;
+        int semillaEncontrada;
+        buscar:
+        while (true) {
+            tabla = new int[1 << bits];
+            for (int intento = 0; intento < 4096; intento++) {
+                semillaEncontrada = 0x9E3779B9 + intento * 0x632BE5AB | 1;
+                Arrays.fill(tabla, 0);
+                boolean perfecta = true;
+                for (int i = 0; i < claves.length && perfecta; i++) {
+                    int ranura = (claves[i] * semillaEncontrada) >>> (32 - bits);
+                    perfecta = tabla[ranura] == 0;
+                    tabla[ranura] = i + 1;
+                }
+                if (perfecta) {
+                    break buscar;
+                }
+            }
+            bits++;
+        }
+        ranuras = tabla;
+        semilla = semillaEncontrada;
+        desplazamiento = 32 - bits;
+
+        caracteres = new char[ranuras.length][];
+        for (int ranura = 0; ranura < ranuras.length; ranura++) {
+            if (ranuras[ranura] != 0) {
+                caracteres[ranura] = palabras[ranuras[ranura] - 1].toCharArray();
+            }
+        }
+    }
+
+    private static void validar(String palabra) {
+        // Debe coincidir con la regla IDENTIFICADOR de la gramática: {LETRA}({LETRA}|{DIGITO})*
+        boolean valida = !palabra.isEmpty();
+        for (int i = 0; i < palabra.length() && valida; i++) {
+            char c = palabra.charAt(i);
+            valida = c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (i > 0 && c >= '0' && c <= '9');
+        }
+        if (!valida) {
+            throw new IllegalArgumentException("Palabra reservada inválida: '" + palabra + "'");
+        }
+    }
+
+    private boolean clavesDistintas(int[] claves, boolean completa, int base) {
+        Set<Integer> vistas = new HashSet<>();
+        for (int i = 0; i < palabras.length; i++) {
+            char[] c = palabras[i].toCharArray();
+            claves[i] = clave(c, 0, c.length, completa, base);
+            if (!vistas.add(claves[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clave de una palabra: longitud y caracteres primero, central y último, o el hash FNV-1a
+     * de todos sus caracteres a partir de la base indicada
+     */
+    private static int clave(char[] buffer, int inicio, int longitud, boolean completa, int base) {
+        if (completa) {
+            int hash = base ^ longitud;
+            for (int i = inicio; i < inicio + longitud; i++) {
+                hash = (hash ^ buffer[i]) * 0x01000193;
+            }
+            return hash;
+        }
+        return longitud | buffer[inicio] << 8 | buffer[inicio + (longitud >> 1)] << 16
+            | buffer[inicio + longitud - 1] << 24;
+    }
+
+    /**
+     * Clave de una palabra en bytes ASCII; coincide con la de los mismos caracteres
+     */
+    private static int clave(byte[] datos, int inicio, int longitud, boolean completa, int base) {
+        if (completa) {
+            int hash = base ^ longitud;
+            for (int i = inicio; i < inicio + longitud; i++) {
+                hash = (hash ^ datos[i]) * 0x01000193;
+            }
+            return hash;
+        }
+        return longitud | datos[inicio] << 8 | datos[inicio + (longitud >> 1)] << 16
+            | datos[inicio + longitud - 1] << 24;
+    }
+
+    /**
+     * Busca la palabra formada por los caracteres [inicio, inicio + longitud) del arreglo
+     * @return Índice de la palabra reservada (igual a su número de símbolo), o -1 si no es una
+     */
+    public int buscar(char[] buffer, int inicio, int longitud) {
+        if (longitud < longitudMinima || longitud > longitudMaxima) {
+            return -1;
+        }
+        int ranura = (clave(buffer, inicio, longitud, claveCompleta, baseClave) * semilla) >>> desplazamiento;
+        char[] palabra = caracteres[ranura];
+        if (palabra == null || palabra.length != longitud) {
+            return -1;
+        }
+        for (int i = 0; i < longitud; i++) {
+            if (palabra[i] != buffer[inicio + i]) {
+                return -1;
+            }
+        }
+        return ranuras[ranura] - 1;
+    }
+
+    /**
+     * Busca la palabra formada por los bytes ASCII [inicio, inicio + longitud) del arreglo,
+     * como {@link #buscar(char[], int, int)} (lo usa Utf8Lexer, que no decodifica la entrada)
+     * @return Índice de la palabra reservada, o -1 si no es una
+     */
+    public int buscar(byte[] datos, int inicio, int longitud) {
+        if (longitud < longitudMinima || longitud > longitudMaxima) {
+            return -1;
+        }
+        int ranura = (clave(datos, inicio, longitud, claveCompleta, baseClave) * semilla) >>> desplazamiento;
+        char[] palabra = caracteres[ranura];
+        if (palabra == null || palabra.length != longitud) {
+            return -1;
+        }
+        for (int i = 0; i < longitud; i++) {
+            if (palabra[i] != datos[inicio + i]) {
+                return -1;
+            }
+        }
+        return ranuras[ranura] - 1;
+    }
+
+    /**
+     * Clasifica una palabra
+     * @return Tipo de la palabra reservada, o null si no es una
+     */
+    public Token.TipoToken buscar(String palabra) {
+        int i = buscar(palabra.toCharArray(), 0, palabra.length());
+        return i < 0 ? null : tipos[i];
+    }
+
+    /**
+     * Cantidad de palabras reservadas; ocupan los primeros números de la tabla de símbolos
+     */
+    public int size() {
+        return palabras.length;
+    }
+
+    public String getPalabra(int i) {
+        return palabras[i];
+    }
+
+    public Token.TipoToken getTipo(int i) {
+        return tipos[i];
+    }
+
+    /**
+     * Carga una tabla desde un archivo de texto UTF-8 con una palabra por línea,
+     * opcionalmente seguida del tipo de token (PALABRA_RESERVADA por omisión, o BOOLEANO).
+     * Las líneas vacías y las que comienzan con '#' se ignoran.
+     */
+    public static KeywordTable cargar(Path archivo) throws IOException {
+        Map<String, Token.TipoToken> palabras = new LinkedHashMap<>();
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            String linea;
+            int numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.startsWith("#")) {
+                    continue;
+                }
+                String[] partes = linea.split("\\s+");
+                if (partes.length > 2) {
+                    throw new IOException(archivo + ":" + numero + ": se esperaba una palabra y, opcionalmente, su tipo: " + linea);
+                }
+                Token.TipoToken tipo = Token.TipoToken.PALABRA_RESERVADA;
+                if (partes.length > 1) {
+                    try {
+                        tipo = Token.TipoToken.valueOf(partes[1]);
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException(archivo + ":" + numero + ": tipo desconocido: " + partes[1]);
+                    }
+                    if (tipo != Token.TipoToken.PALABRA_RESERVADA && tipo != Token.TipoToken.BOOLEANO) {
+                        throw new IOException(archivo + ":" + numero + ": tipo no admitido para una palabra reservada: " + tipo);
+                    }
+                }
+                palabras.put(partes[0], tipo);
+            }
+        }
+        try {
+            return new KeywordTable(palabras);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(archivo + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static KeywordTable crearPredeterminada() {
+        Map<String, Token.TipoToken> palabras = new LinkedHashMap<>();
+        for (String palabra : PALABRAS) {
+            boolean booleano = palabra.equals("true") || palabra.equals("false");
+            palabras.put(palabra, booleano ? Token.TipoToken.BOOLEANO : Token.TipoToken.PALABRA_RESERVADA);
+        }
+        return new KeywordTable(palabras);
+    }
+
+    /**
+     * Tabla que usan los lexers creados a partir de ahora
+     */
+    public static KeywordTable getPredeterminada() {
+        return predeterminada;
+    }
+
+    /**
+     * Reemplaza la tabla de los lexers que se creen a partir de ahora (por ejemplo, al iniciar
+     * con una tabla leída de un archivo)
+     */
+    public static void setPredeterminada(KeywordTable tabla) {
+        predeterminada = tabla;
+    }
+
+    /**
+     * Palabras y tipos en orden, para identificar la tabla (por ejemplo, en la versión de una caché)
+     */
+    public List<String> describir() {
+        List<String> descripcion = new ArrayList<>(palabras.length);
+        for (int i = 0; i < palabras.length; i++) {
+            descripcion.add(palabras[i] + " " + tipos[i]);
+        }
+        return descripcion;
+    }
+}
@@ -0,0 +1,222 @@
+package lexer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+
+/**
+ * Contadores de instrumentación de un Lexer: tokens por tipo, caracteres leídos,
+ * recargas del buffer (zzRefill), crecimientos del buffer, tiempo en cada estado léxico y errores.
+ *
+ * Se activan asociándolos con {@link Lexer#setMetricas(LexerMetrics)}; sin métricas asociadas
+ * el lexer solo evalúa una comparación con null por token. Los contadores son exactos salvo el
+ * tiempo por estado, que se mide en una de cada {@link #MUESTREO} búsquedas de token y se escala. Los contadores no son atómicos:
+ * cada lexer (y por lo tanto cada hilo) usa su propia instancia, y los informes se
+ * obtienen sumándolas con {@link #agregar(LexerMetrics)}.
+ */
+public class LexerMetrics {
+
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+
+    /** Una de cada MUESTREO llamadas a nextToken mide tiempos (potencia de dos) */
+    public static final int MUESTREO = 64;
+
+    /** Nombres de los estados léxicos, indexados por su número en Lexer */
+    private static final String[] ESTADOS = new String[8];
+    static {
+        ESTADOS[Lexer.YYINITIAL] = "YYINITIAL";
+        ESTADOS[Lexer.COMENTARIO_BLOQUE] = "COMENTARIO_BLOQUE";
+        ESTADOS[Lexer.COMENTARIO_LINEA] = "COMENTARIO_LINEA";
+        ESTADOS[Lexer.CADENA] = "CADENA";
+    }
+
+    private final long[] tokensPorTipo = new long[TIPOS.length];
+    private final long[] nanosPorEstado = new long[ESTADOS.length];
+    private long caracteres;
+    private long recargas;
+    private long crecimientos;
+
+    // Último buffer visto por el lector medido, para detectar crecimientos
+    private char[] ultimoBuffer;
+
+    void registrarToken(int tipo) {
+        tokensPorTipo[tipo]++;
+    }
+
+    /**
+     * Registra un texto copiado directamente en el buffer del lexer, sin Reader
+     */
+    void registrarCarga(int caracteres) {
+        this.caracteres += caracteres;
+    }
+
+    void registrarTiempo(int estado, long nanos) {
+        nanosPorEstado[estado] += nanos * MUESTREO;
+    }
+
+    /**
+     * Envuelve la entrada del lexer para contar caracteres, recargas y crecimientos del buffer
+     */
+    Reader medir(Reader entrada) {
+        ultimoBuffer = null;
+        return new Reader() {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                recargas++;
+                if (ultimoBuffer != null && cbuf != ultimoBuffer && cbuf.length > ultimoBuffer.length) {
+                    crecimientos++;
+                }
+                ultimoBuffer = cbuf;
+                int leidos = entrada.read(cbuf, off, len);
+                if (leidos > 0) {
+                    caracteres += leidos;
+                }
+                return leidos;
+            }
+
+            @Override
+            public int read() throws IOException {
+                // lectura de la segunda mitad de un par sustituto dentro de la misma recarga
+                int c = entrada.read();
+                if (c >= 0) {
+                    caracteres++;
+                }
+                return c;
+            }
+
+            @Override
+            public void close() throws IOException {
+                entrada.close();
+            }
+        };
+    }
+
+    /**
+     * Suma los contadores de otra instancia
+     */
+    public void agregar(LexerMetrics otras) {
+        for (int i = 0; i < tokensPorTipo.length; i++) {
+            tokensPorTipo[i] += otras.tokensPorTipo[i];
+        }
+        for (int i = 0; i < nanosPorEstado.length; i++) {
+            nanosPorEstado[i] += otras.nanosPorEstado[i];
+        }
+        caracteres += otras.caracteres;
+        recargas += otras.recargas;
+        crecimientos += otras.crecimientos;
+    }
+
+    // Consultas
+    public long getTokens(Token.TipoToken tipo) {
+        return tokensPorTipo[tipo.ordinal()];
+    }
+
+    public long getTokens() {
+        long total = 0;
+        for (long cantidad : tokensPorTipo) {
+            total += cantidad;
+        }
+        return total;
+    }
+
+    public long getCaracteres() {
+        return caracteres;
+    }
+
+    public long getRecargas() {
+        return recargas;
+    }
+
+    public long getCrecimientos() {
+        return crecimientos;
+    }
+
+    /**
+     * Errores léxicos (tokens ERROR)
+     */
+    public long getErrores() {
+        return tokensPorTipo[Token.TipoToken.ERROR.ordinal()];
+    }
+
+    /**
+     * Tiempo estimado en el estado léxico indicado (por ejemplo Lexer.CADENA)
+     */
+    public long getNanos(int estado) {
+        return nanosPorEstado[estado];
+    }
+
+    /**
+     * Escribe los contadores en el formato de texto de Prometheus
+     */
+    public void escribirPrometheus(Appendable salida) throws IOException {
+        encabezado(salida, "lexer_tokens_total", "Tokens emitidos por tipo");
+        for (Token.TipoToken tipo : TIPOS) {
+            salida.append("lexer_tokens_total{tipo=\"").append(tipo.name()).append("\"} ")
+                  .append(Long.toString(tokensPorTipo[tipo.ordinal()])).append('\n');
+        }
+        contador(salida, "lexer_caracteres_total", "Caracteres leídos de la entrada", caracteres);
+        contador(salida, "lexer_recargas_total", "Recargas del buffer de entrada (zzRefill)", recargas);
+        contador(salida, "lexer_crecimientos_buffer_total", "Veces que el buffer de entrada duplicó su tamaño", crecimientos);
+        contador(salida, "lexer_errores_total", "Errores léxicos", getErrores());
+
+        encabezado(salida, "lexer_estado_segundos_total", "Tiempo de análisis en cada estado léxico");
+        for (int estado = 0; estado < ESTADOS.length; estado++) {
+            if (ESTADOS[estado] != null) {
+                salida.append("lexer_estado_segundos_total{estado=\"").append(ESTADOS[estado]).append("\"} ")
+                      .append(String.format(Locale.ROOT, "%.9f", nanosPorEstado[estado] / 1e9)).append('\n');
+            }
+        }
+    }
+
+    private static void encabezado(Appendable salida, String nombre, String ayuda) throws IOException {
+        salida.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        salida.append("# TYPE ").append(nombre).append(" counter\n");
+    }
+
+    private static void contador(Appendable salida, String nombre, String ayuda, long valor) throws IOException {
+        encabezado(salida, nombre, ayuda);
+        salida.append(nombre).append(' ').append(Long.toString(valor)).append('\n');
+    }
+
+    /**
+     * Registra una instantánea de los contadores como evento JFR (solo si hay una grabación activa)
+     */
+    public void emitirEventoJfr() {
+        Evento evento = new Evento();
+        if (!evento.isEnabled()) {
+            return;
+        }
+        evento.tokens = getTokens();
+        evento.caracteres = caracteres;
+        evento.recargas = recargas;
+        evento.crecimientos = crecimientos;
+        evento.errores = getErrores();
+        evento.nanosInicial = nanosPorEstado[Lexer.YYINITIAL];
+        evento.nanosComentarioBloque = nanosPorEstado[Lexer.COMENTARIO_BLOQUE];
+        evento.nanosComentarioLinea = nanosPorEstado[Lexer.COMENTARIO_LINEA];
+        evento.nanosCadena = nanosPorEstado[Lexer.CADENA];
+        evento.commit();
+    }
+
+    @Name("lexer.Metricas")
+    @Label("Métricas del lexer")
+    @Category("Analizador léxico")
+    @Description("Contadores acumulados del analizador léxico")
+    static class Evento extends Event {
+        @Label("Tokens") long tokens;
+        @Label("Caracteres") long caracteres;
+        @Label("Recargas del buffer") long recargas;
+        @Label("Crecimientos del buffer") long crecimientos;
+        @Label("Errores") long errores;
+        @Label("Nanosegundos en YYINITIAL") long nanosInicial;
+        @Label("Nanosegundos en COMENTARIO_BLOQUE") long nanosComentarioBloque;
+        @Label("Nanosegundos en COMENTARIO_LINEA") long nanosComentarioLinea;
+        @Label("Nanosegundos en CADENA") long nanosCadena;
+    }
+}
@@ -0,0 +1,43 @@
+package lexer;
+
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Grupo acotado de instancias de Lexer reutilizables, para analizar muchos textos pequeños
+ * sin crear cada vez el buffer de 16K, las listas de errores ni la tabla de símbolos.
+ *
+ * Un lexer adquirido pertenece al hilo que lo adquirió hasta que se libera. Si el grupo está
+ * vacío se crea un lexer nuevo, y si está lleno el lexer liberado se descarta.
+ */
+public class LexerPool {
+
+    private final BlockingQueue<Lexer> libres;
+
+    /**
+     * Constructor de LexerPool
+     * @param capacidad Máximo de lexers libres retenidos
+     */
+    public LexerPool(int capacidad) {
+        libres = new ArrayBlockingQueue<>(capacidad);
+    }
+
+    /**
+     * Obtiene un lexer listo para reiniciar() con la nueva entrada
+     */
+    public Lexer adquirir() {
+        Lexer lexer = libres.poll();
+        return lexer != null ? lexer : new Lexer(Reader.nullReader());
+    }
+
+    /**
+     * Devuelve un lexer al grupo. Sus errores y tokens dejan de ser válidos:
+     * se deben copiar antes de liberarlo.
+     */
+    public void liberar(Lexer lexer) {
+        // Soltar la referencia a la entrada anterior
+        lexer.reiniciar(Reader.nullReader());
+        libres.offer(lexer);
+    }
+}
@@ -0,0 +1,282 @@
+package lexer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Texto UTF-8 de un archivo mapeado en memoria, leído sin cargarlo completo en el heap.
+ *
+ * El lexer lo consume con {@link #abrirReader()}, que decodifica directamente sobre el buffer
+ * del lexer. Durante esa lectura se construye un índice disperso de posiciones (carácter, byte)
+ * en las que la decodificación puede reanudarse, de modo que {@link #subSequence(int, int)}
+ * obtiene un lexema decodificando solo desde el punto indexado más cercano.
+ *
+ * Los desplazamientos son de tipo int (como en TokenBuffer), lo que limita el texto a 2^31 caracteres.
+ * Por eso se rechazan los archivos de más de {@link #MAXIMO_BYTES} bytes: cada carácter UTF-16
+ * proviene de al menos un byte, así que la cantidad de caracteres no puede superar ese límite.
+ */
+public class MappedText implements CharSequence, Closeable {
+
+    /** Tamaño máximo del archivo en bytes */
+    public static final long MAXIMO_BYTES = Integer.MAX_VALUE;
+
+    /** Tamaño de cada región mapeada; las regiones se solapan para no cortar una secuencia UTF-8 */
+    private static final long TAMANO_REGION = 1L << 30;
+    private static final int SOLAPE = 3;
+
+    /** Caracteres mínimos entre dos entradas del índice */
+    private static final int INTERVALO_INDICE = 8192;
+
+    private final FileChannel canal;
+    private final long tamano;
+    private final MappedByteBuffer[] regiones;
+
+    // Índice disperso: indiceChars[k] caracteres corresponden a indiceBytes[k] bytes
+    private long[] indiceChars = new long[256];
+    private long[] indiceBytes = new long[256];
+    private int entradas;
+    private volatile int longitud = -1;
+
+    /**
+     * Abre y mapea el archivo indicado
+     */
+    public MappedText(Path archivo) throws IOException {
+        canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        tamano = canal.size();
+        if (tamano > MAXIMO_BYTES) {
+            canal.close();
+            throw new IOException("El archivo supera el máximo de " + MAXIMO_BYTES + " bytes: " + archivo);
+        }
+        int cantidad = (int) Math.max(1, (tamano + TAMANO_REGION - 1) / TAMANO_REGION);
+        regiones = new MappedByteBuffer[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            long inicio = i * TAMANO_REGION;
+            long largo = Math.min(tamano - inicio, TAMANO_REGION + SOLAPE);
+            regiones[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.max(largo, 0));
+        }
+        registrarIndice(0, 0);
+    }
+
+    /**
+     * Tamaño del archivo en bytes
+     */
+    public long getTamanoBytes() {
+        return tamano;
+    }
+
+    /**
+     * Crea un Reader que decodifica el archivo completo desde el principio
+     */
+    public LectorMapeado abrirReader() {
+        return new LectorMapeado();
+    }
+
+    /**
+     * Decodifica como máximo los primeros maxChars caracteres, para mostrar una ventana del archivo
+     */
+    public String leerVentana(int maxChars) {
+        CharBuffer destino = CharBuffer.allocate(maxChars);
+        decodificar(nuevoDecodificador(), 0, destino);
+        destino.flip();
+        return destino.toString();
+    }
+
+    /**
+     * Reader que decodifica el archivo mapeado y completa el índice disperso
+     */
+    public class LectorMapeado extends Reader {
+        private final CharsetDecoder decoder = nuevoDecodificador();
+        private final CharBuffer par = CharBuffer.allocate(2);
+        private long posicion;
+        private long chars;
+        private long siguienteIndice = INTERVALO_INDICE;
+        private int pendiente = -1;
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (pendiente >= 0) {
+                // segunda mitad de un par sustituto entregado a medias
+                cbuf[off] = (char) pendiente;
+                pendiente = -1;
+                chars++;
+                return 1;
+            }
+            if (chars >= siguienteIndice) {
+                registrarIndice(chars, posicion);
+                siguienteIndice = chars + INTERVALO_INDICE;
+            }
+
+            int leidos;
+            if (len >= 2) {
+                CharBuffer destino = CharBuffer.wrap(cbuf, off, len);
+                posicion = decodificar(decoder, posicion, destino);
+                leidos = destino.position() - off;
+            } else {
+                // no hay espacio para un par sustituto completo
+                par.clear();
+                posicion = decodificar(decoder, posicion, par);
+                par.flip();
+                leidos = Math.min(par.remaining(), 1);
+                if (leidos == 1) {
+                    cbuf[off] = par.get();
+                    if (par.hasRemaining()) {
+                        pendiente = par.get();
+                    }
+                }
+            }
+
+            if (leidos == 0) {
+                longitud = (int) chars;
+                return -1;
+            }
+            chars += leidos;
+            return leidos;
+        }
+
+        /**
+         * Bytes del archivo decodificados hasta el momento
+         */
+        public long getBytesLeidos() {
+            return posicion;
+        }
+
+        @Override
+        public void close() {
+            // el mapeo se libera al cerrar el MappedText
+        }
+    }
+
+    private static CharsetDecoder nuevoDecodificador() {
+        return StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Decodifica desde la posición de bytes indicada hasta llenar el destino o agotar el archivo
+     * @return Nueva posición de bytes (siempre en un límite de secuencia UTF-8)
+     */
+    private long decodificar(CharsetDecoder decoder, long posicion, CharBuffer destino) {
+        while (destino.hasRemaining() && posicion < tamano) {
+            int k = (int) (posicion / TAMANO_REGION);
+            boolean ultima = k == regiones.length - 1;
+            ByteBuffer region = regiones[k].duplicate();
+            region.position((int) (posicion - k * TAMANO_REGION));
+
+            decoder.decode(region, destino, ultima);
+            long nueva = k * TAMANO_REGION + region.position();
+            if (nueva == posicion) {
+                // destino lleno o secuencia incompleta al final del archivo
+                break;
+            }
+            posicion = nueva;
+        }
+        return posicion;
+    }
+
+    private synchronized void registrarIndice(long chars, long bytes) {
+        if (entradas > 0 && indiceChars[entradas - 1] >= chars) {
+            return;
+        }
+        if (entradas == indiceChars.length) {
+            indiceChars = Arrays.copyOf(indiceChars, entradas * 2);
+            indiceBytes = Arrays.copyOf(indiceBytes, entradas * 2);
+        }
+        indiceChars[entradas] = chars;
+        indiceBytes[entradas] = bytes;
+        entradas++;
+    }
+
+    /**
+     * Entrada del índice más cercana que no supera el carácter indicado
+     */
+    private synchronized long[] buscarIndice(long caracter) {
+        int bajo = 0;
+        int alto = entradas - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (indiceChars[medio] <= caracter) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return new long[] { indiceChars[bajo], indiceBytes[bajo] };
+    }
+
+    /**
+     * Longitud del texto en caracteres. Si el archivo aún no se leyó por completo,
+     * se decodifica el resto para contarla.
+     */
+    @Override
+    public int length() {
+        if (longitud < 0) {
+            try (LectorMapeado lector = abrirReader()) {
+                char[] descarte = new char[INTERVALO_INDICE];
+                while (lector.read(descarte, 0, descarte.length) >= 0) {
+                    // solo se cuentan los caracteres
+                }
+            }
+        }
+        return longitud;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return subSequence(index, index + 1).charAt(0);
+    }
+
+    /**
+     * Decodifica el rango [start, end) a partir de la entrada del índice más cercana
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        long[] entrada = buscarIndice(start);
+        long caracter = entrada[0];
+        long posicion = entrada[1];
+
+        CharsetDecoder decoder = nuevoDecodificador();
+        CharBuffer bloque = CharBuffer.allocate(Math.max(64, Math.min(INTERVALO_INDICE, end - start + 2)));
+        StringBuilder resultado = new StringBuilder(end - start);
+        while (caracter < end) {
+            bloque.clear();
+            long nueva = decodificar(decoder, posicion, bloque);
+            bloque.flip();
+            if (!bloque.hasRemaining()) {
+                throw new IndexOutOfBoundsException("Fin de archivo antes del carácter " + end);
+            }
+            int desde = (int) Math.max(0, start - caracter);
+            int hasta = (int) Math.min(bloque.remaining(), end - caracter);
+            if (desde < hasta) {
+                resultado.append(bloque, desde, hasta);
+            }
+            caracter += bloque.remaining();
+            posicion = nueva;
+        }
+        return resultado.toString();
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
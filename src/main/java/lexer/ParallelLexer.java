@@ -0,0 +1,303 @@
+package lexer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Analiza un texto grande en paralelo dividiéndolo en fragmentos que comienzan justo después
+ * de un salto de línea '\n'.
+ *
+ * <ol>
+ *   <li>Se cuentan en paralelo los saltos de línea de cada fragmento (con las mismas reglas que
+ *       el lexer) para conocer la línea absoluta en la que comienza cada uno.</li>
+ *   <li>Cada fragmento se analiza en paralelo suponiendo que comienza en el estado YYINITIAL.</li>
+ *   <li>Los fragmentos se unen en orden. Si el anterior terminó dentro de un comentario de bloque
+ *       o una cadena, el fragmento se vuelve a analizar comenzando en ese estado solo hasta que un
+ *       token coincide en desplazamiento con uno del análisis especulativo; desde ahí ambos
+ *       análisis son idénticos y se reutilizan los tokens especulativos.</li>
+ * </ol>
+ * El resultado es idéntico (tokens, posiciones y errores) al de un análisis secuencial.
+ */
+public class ParallelLexer {
+
+    /** Tamaño mínimo de un fragmento en caracteres */
+    private static final int TAMANO_MINIMO = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final LexerPool lexers;
+    private int maximoErrores = ErrorBuffer.MAXIMO_PREDETERMINADO;
+
+    /**
+     * Resultado de un análisis paralelo
+     */
+    public static class Resultado {
+        private final TokenBuffer tokens;
+        private final ErrorBuffer errores;
+        private final int totalLineas;
+        private final int fragmentos;
+
+        public Resultado(TokenBuffer tokens, ErrorBuffer errores, int totalLineas, int fragmentos) {
+            this.tokens = tokens;
+            this.errores = errores;
+            this.totalLineas = totalLineas;
+            this.fragmentos = fragmentos;
+        }
+
+        public TokenBuffer getTokens() { return tokens; }
+        public List<String> getErrores() { return errores.mensajes(); }
+        public ErrorBuffer getBufferErrores() { return errores; }
+        public int getTotalLineas() { return totalLineas; }
+        public int getFragmentos() { return fragmentos; }
+    }
+
+    /**
+     * Tokens y errores de un fragmento analizado
+     */
+    private static class Fragmento {
+        final int desde;
+        final int hasta;
+        int lineaInicial;
+        final TokenBuffer tokens = new TokenBuffer();
+        // Errores sin fusionar ni límite: se fusionan y limitan al unir los fragmentos
+        final ErrorBuffer errores = sinFusionar(new ErrorBuffer());
+        int estadoFinal;
+        int lineaFinal;
+
+        Fragmento(int desde, int hasta) {
+            this.desde = desde;
+            this.hasta = hasta;
+        }
+    }
+
+    public ParallelLexer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelLexer(ForkJoinPool pool) {
+        this.pool = pool;
+        this.lexers = new LexerPool(pool.getParallelism() + 1);
+    }
+
+    /**
+     * Cantidad máxima de errores almacenados en el resultado; los siguientes solo se cuentan
+     */
+    public void setMaximoErrores(int maximo) {
+        this.maximoErrores = maximo;
+    }
+
+    private static ErrorBuffer sinFusionar(ErrorBuffer errores) {
+        errores.setFusionar(false);
+        errores.setMaximo(Integer.MAX_VALUE);
+        return errores;
+    }
+
+    /**
+     * Analiza el texto completo
+     * @param fragmentos Cantidad deseada de fragmentos (se usan menos si el texto es pequeño)
+     */
+    public Resultado analizar(CharSequence texto, int fragmentos) throws IOException {
+        List<Fragmento> partes = dividir(texto, fragmentos);
+
+        // Línea absoluta de inicio de cada fragmento
+        List<Callable<Integer>> conteos = new ArrayList<>();
+        for (Fragmento parte : partes) {
+            conteos.add(() -> contarLineas(texto, parte.desde, parte.hasta));
+        }
+        List<Integer> lineas = ejecutar(conteos);
+        int linea = 1;
+        for (int k = 0; k < partes.size(); k++) {
+            partes.get(k).lineaInicial = linea;
+            linea += lineas.get(k);
+        }
+
+        // Análisis especulativo: todos los fragmentos comienzan en YYINITIAL
+        List<Callable<Fragmento>> analisis = new ArrayList<>();
+        for (Fragmento parte : partes) {
+            analisis.add(() -> {
+                analizarFragmento(texto, parte, Lexer.YYINITIAL, null);
+                return parte;
+            });
+        }
+        ejecutar(analisis);
+
+        return unir(texto, partes);
+    }
+
+    /**
+     * Divide el texto en fragmentos que terminan justo después de un '\n'
+     * (o al final del texto), de modo que ningún par "\r\n" ni token quede partido
+     */
+    private static List<Fragmento> dividir(CharSequence texto, int fragmentos) {
+        int longitud = texto.length();
+        int tamano = Math.max(TAMANO_MINIMO, (int) ((long) longitud / Math.max(1, fragmentos)));
+        List<Fragmento> partes = new ArrayList<>();
+        int desde = 0;
+        while (desde < longitud) {
+            int hasta = (int) Math.min(longitud, (long) desde + tamano);
+            while (hasta < longitud && texto.charAt(hasta - 1) != '\n') {
+                hasta++;
+            }
+            partes.add(new Fragmento(desde, hasta));
+            desde = hasta;
+        }
+        if (partes.isEmpty()) {
+            partes.add(new Fragmento(0, 0));
+        }
+        return partes;
+    }
+
+    /**
+     * Cuenta los saltos de línea del rango como lo hace el lexer: CR LF cuenta una vez, y también
+     * son saltos CR, LF, VT, FF, NEL y los separadores Unicode de línea y de párrafo
+     */
+    private static int contarLineas(CharSequence texto, int desde, int hasta) {
+        int lineas = 0;
+        char anterior = 0;
+        for (int i = desde; i < hasta; i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '\n':
+                    if (anterior != '\r') {
+                        lineas++;
+                    }
+                    break;
+                case '\r':
+                case '\u000B':
+                case '\u000C':
+                case '\u0085':
+                case '\u2028':
+                case '\u2029':
+                    lineas++;
+                    break;
+                default:
+                    break;
+            }
+            anterior = c;
+        }
+        return lineas;
+    }
+
+    /**
+     * Analiza un fragmento comenzando en el estado indicado. Si se proporciona el análisis
+     * especulativo del mismo fragmento, se detiene en cuanto un token (posterior al primero)
+     * comienza en el mismo desplazamiento que uno especulativo y copia el resto de este.
+     */
+    private void analizarFragmento(CharSequence texto, Fragmento parte, int estado,
+                                   Fragmento especulativo) throws IOException {
+        Lexer lexer = lexers.adquirir();
+        sinFusionar(lexer.getBufferErrores());
+        try {
+            analizarFragmento(lexer, texto, parte, estado, especulativo);
+        } finally {
+            lexers.liberar(lexer);
+        }
+    }
+
+    private static void analizarFragmento(Lexer lexer, CharSequence texto, Fragmento parte, int estado,
+                                          Fragmento especulativo) throws IOException {
+        lexer.reiniciar(texto, parte.desde, parte.hasta, parte.lineaInicial, 1, estado);
+        ErrorBuffer erroresLexer = lexer.getBufferErrores();
+        int j = 0;
+
+        int tipo;
+        while ((tipo = lexer.siguienteToken()) >= 0) {
+            int inicio = lexer.getTokenInicio();
+            if (especulativo != null && parte.tokens.size() > 0) {
+                TokenBuffer otros = especulativo.tokens;
+                while (j < otros.size() && otros.getInicio(j) < inicio) {
+                    j++;
+                }
+                if (j < otros.size() && otros.getInicio(j) == inicio) {
+                    // Sincronizado: el resto del fragmento coincide con el análisis especulativo
+                    parte.tokens.agregar(otros, j, otros.size());
+                    // Ningún error de un token comienza antes que el token: los anteriores a este
+                    // desplazamiento son de los tokens ya agregados
+                    parte.errores.agregar(erroresLexer, Integer.MIN_VALUE, inicio);
+                    parte.errores.agregar(especulativo.errores, inicio, Integer.MAX_VALUE);
+                    parte.estadoFinal = especulativo.estadoFinal;
+                    parte.lineaFinal = especulativo.lineaFinal;
+                    return;
+                }
+            }
+            parte.tokens.agregar(tipo, inicio, lexer.getTokenLongitud(),
+                                 lexer.getTokenLinea(), lexer.getTokenColumna());
+        }
+        parte.errores.agregar(erroresLexer);
+        parte.estadoFinal = lexer.getEstadoInconcluso();
+        parte.lineaFinal = lexer.getTokenLinea();
+    }
+
+    /**
+     * Une los fragmentos en orden, reanalizando los que comienzan dentro de un comentario o cadena
+     */
+    private Resultado unir(CharSequence texto, List<Fragmento> partes) throws IOException {
+        int estimado = (int) Math.min(Integer.MAX_VALUE - 8, (long) partes.get(0).tokens.size() * partes.size());
+        TokenBuffer tokens = new TokenBuffer(estimado);
+        tokens.setFuente(texto);
+        ErrorBuffer errores = new ErrorBuffer();
+        errores.setMaximo(maximoErrores);
+        int estado = Lexer.YYINITIAL;
+        int lineaFinal = 1;
+
+        for (int k = 0; k < partes.size(); k++) {
+            Fragmento parte = partes.get(k);
+            if (estado != Lexer.YYINITIAL) {
+                Fragmento continuacion = new Fragmento(parte.desde, parte.hasta);
+                continuacion.lineaInicial = parte.lineaInicial;
+                analizarFragmento(texto, continuacion, estado, parte);
+                parte = continuacion;
+
+                // El primer token continúa el comentario o cadena sin cerrar del final del fragmento anterior
+                int ultimo = tokens.size() - 1;
+                int inicio = tokens.getInicio(ultimo);
+                int linea = tokens.getLinea(ultimo);
+                int columna = tokens.getColumna(ultimo);
+                tokens.quitarUltimo();
+                tokens.agregar(parte.tokens.getTipoOrdinal(0), inicio,
+                               parte.tokens.getInicio(0) + parte.tokens.getLongitud(0) - inicio, linea, columna);
+                tokens.agregar(parte.tokens, 1, parte.tokens.size());
+            } else {
+                tokens.agregar(parte.tokens, 0, parte.tokens.size());
+            }
+
+            estado = parte.estadoFinal;
+            if (estado != Lexer.YYINITIAL && k < partes.size() - 1) {
+                // El error de "no cerrado" solo vale al final del texto
+                parte.errores.quitarUltimo();
+            }
+            errores.agregar(parte.errores);
+            lineaFinal = parte.lineaFinal;
+        }
+        return new Resultado(tokens, errores, lineaFinal, partes.size());
+    }
+
+    private <T> List<T> ejecutar(List<Callable<T>> tareas) throws IOException {
+        List<T> resultados = new ArrayList<>(tareas.size());
+        try {
+            for (Future<T> futuro : pool.invokeAll(tareas)) {
+                resultados.add(futuro.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Análisis paralelo interrumpido", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) {
+                throw (IOException) causa;
+            }
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IOException(causa);
+        }
+        return resultados;
+    }
+}
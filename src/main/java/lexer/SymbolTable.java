@@ -0,0 +1,173 @@
+package lexer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Tabla de símbolos del lexer: asigna a cada identificador o palabra reservada un número
+ * de símbolo y una única instancia String canónica.
+ *
+ * La búsqueda se hace directamente sobre el rango de caracteres del buffer del lexer
+ * (direccionamiento abierto con sondeo lineal), de modo que un símbolo ya conocido
+ * no crea ningún objeto. Las palabras reservadas de la KeywordTable se registran al
+ * construir la tabla y ocupan los primeros números de símbolo.
+ *
+ * No es segura para hilos: cada lexer tiene su propia tabla.
+ */
+public class SymbolTable {
+
+    // Ranuras de la tabla hash: número de símbolo + 1, o 0 si está libre
+    private int[] ranuras = new int[256];
+    private int mascara = ranuras.length - 1;
+
+    // Datos por número de símbolo
+    private String[] nombres = new String[128];
+    private int[] hashes = new int[128];
+    private int size;
+    private final int palabrasReservadas;
+
+    public SymbolTable() {
+        this(KeywordTable.getPredeterminada());
+    }
+
+    /**
+     * Constructor de SymbolTable
+     * @param palabras Palabras reservadas, registradas como los primeros símbolos
+     */
+    public SymbolTable(KeywordTable palabras) {
+        for (int i = 0; i < palabras.size(); i++) {
+            String palabra = palabras.getPalabra(i);
+            intern(palabra.toCharArray(), 0, palabra.length());
+        }
+        palabrasReservadas = palabras.size();
+    }
+
+    /**
+     * Busca el símbolo formado por los caracteres [inicio, inicio + longitud) del arreglo,
+     * registrándolo si no existía
+     * @return Número de símbolo
+     */
+    public int intern(char[] buffer, int inicio, int longitud) {
+        int hash = 0;
+        for (int i = inicio; i < inicio + longitud; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+
+        int ranura = mezclar(hash) & mascara;
+        int actual;
+        while ((actual = ranuras[ranura]) != 0) {
+            int simbolo = actual - 1;
+            if (hashes[simbolo] == hash && coincide(nombres[simbolo], buffer, inicio, longitud)) {
+                return simbolo;
+            }
+            ranura = (ranura + 1) & mascara;
+        }
+        return registrar(new String(buffer, inicio, longitud), hash, ranura);
+    }
+
+    /**
+     * Busca el símbolo formado por los bytes ASCII [inicio, inicio + longitud) del arreglo,
+     * registrándolo si no existía. El número de símbolo es el mismo que el de esos caracteres.
+     * @return Número de símbolo
+     */
+    public int intern(byte[] datos, int inicio, int longitud) {
+        int hash = 0;
+        for (int i = inicio; i < inicio + longitud; i++) {
+            hash = 31 * hash + datos[i];
+        }
+
+        int ranura = mezclar(hash) & mascara;
+        int actual;
+        while ((actual = ranuras[ranura]) != 0) {
+            int simbolo = actual - 1;
+            if (hashes[simbolo] == hash && coincide(nombres[simbolo], datos, inicio, longitud)) {
+                return simbolo;
+            }
+            ranura = (ranura + 1) & mascara;
+        }
+        return registrar(new String(datos, inicio, longitud, StandardCharsets.ISO_8859_1), hash, ranura);
+    }
+
+    private int registrar(String nombre, int hash, int ranura) {
+        if (size == nombres.length) {
+            nombres = Arrays.copyOf(nombres, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int simbolo = size++;
+        nombres[simbolo] = nombre;
+        hashes[simbolo] = hash;
+        ranuras[ranura] = simbolo + 1;
+
+        // Factor de carga máximo de 1/2
+        if (size * 2 > ranuras.length) {
+            redimensionar();
+        }
+        return simbolo;
+    }
+
+    private static boolean coincide(String nombre, byte[] datos, int inicio, int longitud) {
+        if (nombre.length() != longitud) {
+            return false;
+        }
+        for (int i = 0; i < longitud; i++) {
+            if (nombre.charAt(i) != datos[inicio + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean coincide(String nombre, char[] buffer, int inicio, int longitud) {
+        if (nombre.length() != longitud) {
+            return false;
+        }
+        for (int i = 0; i < longitud; i++) {
+            if (nombre.charAt(i) != buffer[inicio + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Dispersa los bits altos del hash para que los patrones de String.hashCode
+     * no se concentren en pocas ranuras
+     */
+    private static int mezclar(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private void redimensionar() {
+        ranuras = new int[ranuras.length * 2];
+        mascara = ranuras.length - 1;
+        for (int simbolo = 0; simbolo < size; simbolo++) {
+            int ranura = mezclar(hashes[simbolo]) & mascara;
+            while (ranuras[ranura] != 0) {
+                ranura = (ranura + 1) & mascara;
+            }
+            ranuras[ranura] = simbolo + 1;
+        }
+    }
+
+    /**
+     * Instancia canónica del símbolo indicado
+     */
+    public String getNombre(int simbolo) {
+        return nombres[simbolo];
+    }
+
+    /**
+     * Indica si el símbolo es una palabra reservada
+     */
+    public boolean esPalabraReservada(int simbolo) {
+        return simbolo < palabrasReservadas;
+    }
+
+    /**
+     * Cantidad de símbolos registrados
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -1,5 +1,7 @@
 package lexer;
 
+import java.util.Objects;
+
 /**
  * Clase que representa un token identificado por el analizador léxico.
  * Contiene información sobre el tipo de token, su lexema, y su posición en el código.
@@ -56,6 +58,7 @@ public class Token {
     private String lexema;
     private int linea;
     private int columna;
+    private int simbolo = -1;
     
     /**
      * Constructor de Token
@@ -71,6 +74,15 @@ public class Token {
         this.columna = columna;
     }
     
+    /**
+     * Constructor de Token para identificadores y palabras reservadas
+     * @param simbolo Número de símbolo en la tabla de símbolos del lexer
+     */
+    public Token(TipoToken tipo, String lexema, int linea, int columna, int simbolo) {
+        this(tipo, lexema, linea, columna);
+        this.simbolo = simbolo;
+    }
+    
     // Getters
     public TipoToken getTipo() {
         return tipo;
@@ -88,6 +100,13 @@ public class Token {
         return columna;
     }
     
+    /**
+     * Número de símbolo del lexema, o -1 si el token no es un identificador ni una palabra reservada
+     */
+    public int getSimbolo() {
+        return simbolo;
+    }
+    
     /**
      * Obtiene una representación legible del tipo de token
      */
@@ -111,4 +130,9 @@ public class Token {
                columna == token.columna &&
                lexema.equals(token.lexema);
     }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(tipo, lexema, linea, columna);
+    }
 }
@@ -0,0 +1,154 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * Almacenamiento compacto de tokens en arreglos primitivos (una columna por atributo).
+ * Cada token ocupa cinco enteros: tipo, desplazamiento inicial, longitud, línea y columna.
+ * Los lexemas no se guardan: se obtienen bajo demanda a partir del texto fuente asociado.
+ */
+public class TokenBuffer implements TokenSequence {
+
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+
+    private int[] tipos;
+    private int[] inicios;
+    private int[] longitudes;
+    private int[] lineas;
+    private int[] columnas;
+    private int size;
+    private CharSequence fuente;
+
+    public TokenBuffer() {
+        this(1024);
+    }
+
+    /**
+     * Constructor de TokenBuffer
+     * @param capacidad Capacidad inicial en tokens
+     */
+    public TokenBuffer(int capacidad) {
+        capacidad = Math.max(capacidad, 16);
+        tipos = new int[capacidad];
+        inicios = new int[capacidad];
+        longitudes = new int[capacidad];
+        lineas = new int[capacidad];
+        columnas = new int[capacidad];
+    }
+
+    /**
+     * Agrega un token al final del buffer
+     */
+    public void agregar(int tipo, int inicio, int longitud, int linea, int columna) {
+        if (size == tipos.length) {
+            crecer();
+        }
+        tipos[size] = tipo;
+        inicios[size] = inicio;
+        longitudes[size] = longitud;
+        lineas[size] = linea;
+        columnas[size] = columna;
+        size++;
+    }
+
+    /**
+     * Agrega al final los tokens [desde, hasta) de otro buffer
+     */
+    public void agregar(TokenBuffer otro, int desde, int hasta) {
+        int cantidad = hasta - desde;
+        while (size + cantidad > tipos.length) {
+            crecer();
+        }
+        System.arraycopy(otro.tipos, desde, tipos, size, cantidad);
+        System.arraycopy(otro.inicios, desde, inicios, size, cantidad);
+        System.arraycopy(otro.longitudes, desde, longitudes, size, cantidad);
+        System.arraycopy(otro.lineas, desde, lineas, size, cantidad);
+        System.arraycopy(otro.columnas, desde, columnas, size, cantidad);
+        size += cantidad;
+    }
+
+    /**
+     * Elimina el último token
+     */
+    public void quitarUltimo() {
+        size--;
+    }
+
+    private void crecer() {
+        int capacidad = tipos.length * 2;
+        tipos = Arrays.copyOf(tipos, capacidad);
+        inicios = Arrays.copyOf(inicios, capacidad);
+        longitudes = Arrays.copyOf(longitudes, capacidad);
+        lineas = Arrays.copyOf(lineas, capacidad);
+        columnas = Arrays.copyOf(columnas, capacidad);
+    }
+
+    /**
+     * Vacía el buffer conservando la capacidad reservada
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Asocia el texto del que se extraen los lexemas
+     */
+    public void setFuente(CharSequence fuente) {
+        this.fuente = fuente;
+    }
+
+    public CharSequence getFuente() {
+        return fuente;
+    }
+
+    // Getters por índice
+    @Override
+    public int getTipoOrdinal(int i) {
+        return tipos[i];
+    }
+
+    @Override
+    public Token.TipoToken getTipo(int i) {
+        return TIPOS[tipos[i]];
+    }
+
+    @Override
+    public int getInicio(int i) {
+        return inicios[i];
+    }
+
+    @Override
+    public int getLongitud(int i) {
+        return longitudes[i];
+    }
+
+    @Override
+    public int getLinea(int i) {
+        return lineas[i];
+    }
+
+    @Override
+    public int getColumna(int i) {
+        return columnas[i];
+    }
+
+    /**
+     * Obtiene el lexema del token i a partir del texto fuente
+     */
+    @Override
+    public String getLexema(int i) {
+        if (fuente == null) {
+            throw new IllegalStateException("El buffer no tiene texto fuente asociado");
+        }
+        return fuente.subSequence(inicios[i], inicios[i] + longitudes[i]).toString();
+    }
+}
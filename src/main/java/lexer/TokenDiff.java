@@ -0,0 +1,299 @@
+package lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Diferencia a nivel de tokens entre dos versiones de un texto.
+ *
+ * Cada token se reduce a un número que identifica su tipo y lexema (dos tokens iguales en
+ * tipo y lexema reciben el mismo número, sin importar su posición), y sobre esas secuencias
+ * de enteros se calcula un script de edición mínimo con el algoritmo de Myers en su variante
+ * de espacio lineal: se busca la serpiente central del camino óptimo y se divide el problema
+ * en dos. Los prefijos y sufijos comunes se descartan antes de cada división, por lo que el
+ * costo es O((N + M) · D) con D el número de tokens eliminados e insertados.
+ */
+public class TokenDiff {
+
+    /**
+     * Un bloque del script de edición: los tokens [indiceAnterior, indiceAnterior + eliminados)
+     * de la versión anterior se reemplazan por [indiceNuevo, indiceNuevo + insertados) de la nueva
+     */
+    public static class Cambio {
+        private final int indiceAnterior;
+        private final int eliminados;
+        private final int indiceNuevo;
+        private final int insertados;
+
+        public Cambio(int indiceAnterior, int eliminados, int indiceNuevo, int insertados) {
+            this.indiceAnterior = indiceAnterior;
+            this.eliminados = eliminados;
+            this.indiceNuevo = indiceNuevo;
+            this.insertados = insertados;
+        }
+
+        public int getIndiceAnterior() { return indiceAnterior; }
+        public int getEliminados() { return eliminados; }
+        public int getIndiceNuevo() { return indiceNuevo; }
+        public int getInsertados() { return insertados; }
+    }
+
+    private final TokenBuffer anterior;
+    private final TokenBuffer nuevo;
+    private final List<Cambio> cambios = new ArrayList<>();
+    private int eliminados;
+    private int insertados;
+
+    // Estado del cálculo: claves de ambas secuencias y diagonales de las búsquedas hacia adelante y hacia atrás
+    private int[] a;
+    private int[] b;
+    private int[] adelante;
+    private int[] atras;
+    private int desplazamiento;
+
+    /**
+     * Compara dos secuencias de tokens; ambas deben tener su texto fuente asociado
+     */
+    public TokenDiff(TokenBuffer anterior, TokenBuffer nuevo) {
+        if (anterior.getFuente() == null || nuevo.getFuente() == null) {
+            throw new IllegalArgumentException("Los buffers deben tener texto fuente asociado");
+        }
+        this.anterior = anterior;
+        this.nuevo = nuevo;
+
+        Vocabulario vocabulario = new Vocabulario(anterior.size() + nuevo.size());
+        a = vocabulario.claves(anterior);
+        b = vocabulario.claves(nuevo);
+        int maximo = (a.length + b.length + 1) / 2 + 1;
+        desplazamiento = maximo;
+        adelante = new int[2 * maximo + 1];
+        atras = new int[2 * maximo + 1];
+        diferenciar(0, a.length, 0, b.length);
+        a = b = adelante = atras = null;
+    }
+
+    /**
+     * Analiza ambos textos y compara sus tokens
+     */
+    public static TokenDiff comparar(CharSequence anterior, CharSequence nuevo) throws IOException {
+        Lexer lexer = new Lexer(Reader.nullReader());
+        return new TokenDiff(analizar(lexer, anterior), analizar(lexer, nuevo));
+    }
+
+    private static TokenBuffer analizar(Lexer lexer, CharSequence texto) throws IOException {
+        lexer.reiniciar(texto);
+        TokenBuffer buffer = new TokenBuffer();
+        lexer.siguientes(buffer, Integer.MAX_VALUE);
+        buffer.setFuente(texto);
+        return buffer;
+    }
+
+    public TokenBuffer getAnterior() {
+        return anterior;
+    }
+
+    public TokenBuffer getNuevo() {
+        return nuevo;
+    }
+
+    /**
+     * Bloques del script de edición, en orden y sin bloques adyacentes
+     */
+    public List<Cambio> getCambios() {
+        return Collections.unmodifiableList(cambios);
+    }
+
+    public int getEliminados() {
+        return eliminados;
+    }
+
+    public int getInsertados() {
+        return insertados;
+    }
+
+    /**
+     * Indica si ambas versiones tienen los mismos tokens
+     */
+    public boolean sinCambios() {
+        return cambios.isEmpty();
+    }
+
+    /**
+     * Calcula el script de edición de a[a0, a1) a b[b0, b1)
+     */
+    private void diferenciar(int a0, int a1, int b0, int b1) {
+        while (a0 < a1 && b0 < b1 && a[a0] == b[b0]) {
+            a0++;
+            b0++;
+        }
+        while (a0 < a1 && b0 < b1 && a[a1 - 1] == b[b1 - 1]) {
+            a1--;
+            b1--;
+        }
+        if (a0 == a1 || b0 == b1) {
+            if (a0 < a1 || b0 < b1) {
+                agregar(a0, a1 - a0, b0, b1 - b0);
+            }
+            return;
+        }
+        // Sin prefijo ni sufijo común hay al menos dos ediciones, y cada mitad tiene menos
+        long serpiente = serpienteCentral(a0, a1, b0, b1);
+        int x = (int) (serpiente >>> 32);
+        int y = (int) serpiente;
+        int u = x, v = y;
+        while (u < a1 && v < b1 && a[u] == b[v]) {
+            u++;
+            v++;
+        }
+        diferenciar(a0, x, b0, y);
+        diferenciar(u, a1, v, b1);
+    }
+
+    /**
+     * Busca a la vez desde el inicio y desde el final el punto donde se cruzan los caminos
+     * de D / 2 ediciones
+     * @return Inicio de la serpiente central, como (x << 32) | y en coordenadas absolutas
+     */
+    private long serpienteCentral(int a0, int a1, int b0, int b1) {
+        int n = a1 - a0;
+        int m = b1 - b0;
+        int delta = n - m;
+        boolean impar = (delta & 1) != 0;
+        int o = desplazamiento;
+        adelante[o + 1] = 0;
+        atras[o + 1] = 0;
+        for (int d = 0, limite = (n + m + 1) / 2; d <= limite; d++) {
+            // Hacia adelante: x más lejano alcanzado en cada diagonal k = x - y
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && adelante[o + k - 1] < adelante[o + k + 1])
+                    ? adelante[o + k + 1] : adelante[o + k - 1] + 1;
+                int y = x - k;
+                int x0 = x, y0 = y;
+                while (x < n && y < m && a[a0 + x] == b[b0 + y]) {
+                    x++;
+                    y++;
+                }
+                adelante[o + k] = x;
+                int kr = delta - k;
+                if (impar && kr >= -(d - 1) && kr <= d - 1 && x + atras[o + kr] >= n) {
+                    return (long) (a0 + x0) << 32 | (b0 + y0);
+                }
+            }
+            // Hacia atrás, sobre las secuencias invertidas
+            for (int kr = -d; kr <= d; kr += 2) {
+                int xr = kr == -d || (kr != d && atras[o + kr - 1] < atras[o + kr + 1])
+                    ? atras[o + kr + 1] : atras[o + kr - 1] + 1;
+                int yr = xr - kr;
+                while (xr < n && yr < m && a[a1 - 1 - xr] == b[b1 - 1 - yr]) {
+                    xr++;
+                    yr++;
+                }
+                atras[o + kr] = xr;
+                int k = delta - kr;
+                if (!impar && k >= -d && k <= d && adelante[o + k] + xr >= n) {
+                    return (long) (a1 - xr) << 32 | (b1 - yr);
+                }
+            }
+        }
+        throw new IllegalStateException("No se encontró la serpiente central");
+    }
+
+    private void agregar(int indiceAnterior, int cantidadEliminada, int indiceNuevo, int cantidadInsertada) {
+        eliminados += cantidadEliminada;
+        insertados += cantidadInsertada;
+        int ultimo = cambios.size() - 1;
+        if (ultimo >= 0) {
+            Cambio previo = cambios.get(ultimo);
+            if (previo.indiceAnterior + previo.eliminados == indiceAnterior
+                    && previo.indiceNuevo + previo.insertados == indiceNuevo) {
+                cambios.set(ultimo, new Cambio(previo.indiceAnterior, previo.eliminados + cantidadEliminada,
+                                               previo.indiceNuevo, previo.insertados + cantidadInsertada));
+                return;
+            }
+        }
+        cambios.add(new Cambio(indiceAnterior, cantidadEliminada, indiceNuevo, cantidadInsertada));
+    }
+
+    /**
+     * Asigna un número a cada par (tipo, lexema) distinto de ambas versiones.
+     * Los lexemas se comparan directamente sobre los textos fuente, sin crear Strings.
+     */
+    private static class Vocabulario {
+        // Ranuras de la tabla hash: número + 1, o 0 si está libre
+        private final int[] ranuras;
+        private final int mascara;
+
+        // Representante de cada número: texto, inicio, longitud y tipo de su primer token
+        private CharSequence[] fuentes;
+        private int[] inicios;
+        private int[] longitudes;
+        private int[] tipos;
+        private int size;
+
+        Vocabulario(int tokens) {
+            int capacidad = Integer.highestOneBit(Math.max(16, tokens) * 2 - 1) << 1;
+            ranuras = new int[capacidad];
+            mascara = capacidad - 1;
+            int inicial = Math.max(16, Math.min(tokens, 1 << 16));
+            fuentes = new CharSequence[inicial];
+            inicios = new int[inicial];
+            longitudes = new int[inicial];
+            tipos = new int[inicial];
+        }
+
+        int[] claves(TokenBuffer tokens) {
+            CharSequence fuente = tokens.getFuente();
+            int[] claves = new int[tokens.size()];
+            for (int i = 0; i < claves.length; i++) {
+                claves[i] = numero(fuente, tokens.getTipoOrdinal(i), tokens.getInicio(i), tokens.getLongitud(i));
+            }
+            return claves;
+        }
+
+        private int numero(CharSequence fuente, int tipo, int inicio, int longitud) {
+            int hash = tipo;
+            for (int i = inicio; i < inicio + longitud; i++) {
+                hash = 31 * hash + fuente.charAt(i);
+            }
+            hash ^= hash >>> 16;
+            for (int ranura = (hash * 0x9E3779B9) & mascara; ; ranura = (ranura + 1) & mascara) {
+                int n = ranuras[ranura] - 1;
+                if (n < 0) {
+                    ranuras[ranura] = registrar(fuente, tipo, inicio, longitud) + 1;
+                    return size - 1;
+                }
+                if (tipos[n] == tipo && longitudes[n] == longitud && iguales(fuentes[n], inicios[n], fuente, inicio, longitud)) {
+                    return n;
+                }
+            }
+        }
+
+        private static boolean iguales(CharSequence f1, int i1, CharSequence f2, int i2, int longitud) {
+            for (int i = 0; i < longitud; i++) {
+                if (f1.charAt(i1 + i) != f2.charAt(i2 + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int registrar(CharSequence fuente, int tipo, int inicio, int longitud) {
+            if (size == tipos.length) {
+                int capacidad = size * 2;
+                fuentes = Arrays.copyOf(fuentes, capacidad);
+                inicios = Arrays.copyOf(inicios, capacidad);
+                longitudes = Arrays.copyOf(longitudes, capacidad);
+                tipos = Arrays.copyOf(tipos, capacidad);
+            }
+            fuentes[size] = fuente;
+            inicios[size] = inicio;
+            longitudes[size] = longitud;
+            tipos[size] = tipo;
+            return size++;
+        }
+    }
+}
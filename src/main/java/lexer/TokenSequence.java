@@ -0,0 +1,54 @@
+package lexer;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Secuencia de tokens de solo lectura, consultada por índice.
+ * Las implementaciones guardan los tokens en arreglos primitivos y crean los lexemas bajo demanda.
+ */
+public interface TokenSequence {
+
+    int size();
+
+    int getTipoOrdinal(int i);
+
+    Token.TipoToken getTipo(int i);
+
+    int getInicio(int i);
+
+    int getLongitud(int i);
+
+    int getLinea(int i);
+
+    int getColumna(int i);
+
+    String getLexema(int i);
+
+    /**
+     * Crea un Token con los datos del token i
+     */
+    default Token getToken(int i) {
+        return new Token(getTipo(i), getLexema(i), getLinea(i), getColumna(i));
+    }
+
+    /**
+     * Vista de solo lectura como lista de Token; cada acceso crea el Token correspondiente
+     */
+    default List<Token> asList() {
+        return new AbstractList<Token>() {
+            @Override
+            public Token get(int index) {
+                if (index < 0 || index >= TokenSequence.this.size()) {
+                    throw new IndexOutOfBoundsException("Índice: " + index + ", tamaño: " + TokenSequence.this.size());
+                }
+                return getToken(index);
+            }
+
+            @Override
+            public int size() {
+                return TokenSequence.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package lexer;
+
+import java.util.Arrays;
+
+/**
+ * Estadísticas de tokens actualizadas en O(1) por token a medida que se emiten:
+ * histograma por tipo, conteo por categoría, distribución de longitudes y errores.
+ * Las consultas no recorren los tokens.
+ */
+public class TokenStatistics {
+
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+
+    /**
+     * Agrupación de los tipos de token para los reportes
+     */
+    public enum Categoria {
+        PALABRAS_RESERVADAS,
+        IDENTIFICADORES,
+        NUMEROS,
+        CADENAS,
+        BOOLEANOS,
+        OPERADORES,
+        DELIMITADORES,
+        COMENTARIOS,
+        ERRORES,
+        OTROS
+    }
+
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+    private static final int[] CATEGORIA_POR_TIPO = new int[TIPOS.length];
+    static {
+        for (Token.TipoToken tipo : TIPOS) {
+            CATEGORIA_POR_TIPO[tipo.ordinal()] = categoriaDe(tipo).ordinal();
+        }
+    }
+
+    /** Cantidad de intervalos de longitud: el intervalo k agrupa las longitudes [2^(k-1), 2^k) */
+    public static final int INTERVALOS_LONGITUD = 32;
+
+    private final long[] porTipo = new long[TIPOS.length];
+    private final long[] porCategoria = new long[CATEGORIAS.length];
+    private final long[] porLongitud = new long[INTERVALOS_LONGITUD];
+    private long total;
+    private long longitudTotal;
+    private int longitudMaxima;
+
+    /**
+     * Categoría a la que pertenece un tipo de token
+     */
+    public static Categoria categoriaDe(Token.TipoToken tipo) {
+        switch (tipo) {
+            case PALABRA_RESERVADA:
+                return Categoria.PALABRAS_RESERVADAS;
+            case IDENTIFICADOR:
+                return Categoria.IDENTIFICADORES;
+            case NUMERO_ENTERO:
+            case NUMERO_DECIMAL:
+                return Categoria.NUMEROS;
+            case CADENA_TEXTO:
+                return Categoria.CADENAS;
+            case BOOLEANO:
+                return Categoria.BOOLEANOS;
+            case OPERADOR_SUMA:
+            case OPERADOR_RESTA:
+            case OPERADOR_MULTIPLICACION:
+            case OPERADOR_DIVISION:
+            case OPERADOR_ASIGNACION:
+            case OPERADOR_IGUAL:
+            case OPERADOR_DIFERENTE:
+            case OPERADOR_MENOR:
+            case OPERADOR_MAYOR:
+            case OPERADOR_MENOR_IGUAL:
+            case OPERADOR_MAYOR_IGUAL:
+                return Categoria.OPERADORES;
+            case PARENTESIS_IZQ:
+            case PARENTESIS_DER:
+            case LLAVE_IZQ:
+            case LLAVE_DER:
+            case CORCHETE_IZQ:
+            case CORCHETE_DER:
+            case PUNTO_COMA:
+            case COMA:
+                return Categoria.DELIMITADORES;
+            case COMENTARIO_LINEA:
+            case COMENTARIO_BLOQUE:
+                return Categoria.COMENTARIOS;
+            case ERROR:
+                return Categoria.ERRORES;
+            default:
+                return Categoria.OTROS;
+        }
+    }
+
+    /**
+     * Intervalo de la distribución de longitudes al que pertenece una longitud
+     */
+    public static int intervaloDe(int longitud) {
+        return 32 - Integer.numberOfLeadingZeros(longitud);
+    }
+
+    /**
+     * Registra un token emitido
+     * @param tipo Ordinal del TipoToken
+     */
+    public void registrar(int tipo, int longitud) {
+        porTipo[tipo]++;
+        porCategoria[CATEGORIA_POR_TIPO[tipo]]++;
+        porLongitud[intervaloDe(longitud)]++;
+        total++;
+        longitudTotal += longitud;
+        if (longitud > longitudMaxima) {
+            longitudMaxima = longitud;
+        }
+    }
+
+    /**
+     * Descuenta un token registrado antes (por ejemplo, reemplazado por una edición).
+     * La longitud máxima no se recalcula: queda como cota superior.
+     */
+    public void quitar(int tipo, int longitud) {
+        porTipo[tipo]--;
+        porCategoria[CATEGORIA_POR_TIPO[tipo]]--;
+        porLongitud[intervaloDe(longitud)]--;
+        total--;
+        longitudTotal -= longitud;
+    }
+
+    /**
+     * Suma las estadísticas de otro acumulador
+     */
+    public void agregar(TokenStatistics otras) {
+        for (int i = 0; i < porTipo.length; i++) {
+            porTipo[i] += otras.porTipo[i];
+        }
+        for (int i = 0; i < porCategoria.length; i++) {
+            porCategoria[i] += otras.porCategoria[i];
+        }
+        for (int i = 0; i < porLongitud.length; i++) {
+            porLongitud[i] += otras.porLongitud[i];
+        }
+        total += otras.total;
+        longitudTotal += otras.longitudTotal;
+        longitudMaxima = Math.max(longitudMaxima, otras.longitudMaxima);
+    }
+
+    public void reiniciar() {
+        Arrays.fill(porTipo, 0);
+        Arrays.fill(porCategoria, 0);
+        Arrays.fill(porLongitud, 0);
+        total = 0;
+        longitudTotal = 0;
+        longitudMaxima = 0;
+    }
+
+    // Consultas
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCantidad(Token.TipoToken tipo) {
+        return porTipo[tipo.ordinal()];
+    }
+
+    public long getCantidad(Categoria categoria) {
+        return porCategoria[categoria.ordinal()];
+    }
+
+    public long getErrores() {
+        return porTipo[Token.TipoToken.ERROR.ordinal()];
+    }
+
+    /**
+     * Tokens cuya longitud está en el intervalo [2^(k-1), 2^k) (el intervalo 0 es la longitud 0)
+     */
+    public long getCantidadPorLongitud(int intervalo) {
+        return porLongitud[intervalo];
+    }
+
+    public double getLongitudMedia() {
+        return total == 0 ? 0 : (double) longitudTotal / total;
+    }
+
+    public int getLongitudMaxima() {
+        return longitudMaxima;
+    }
+}
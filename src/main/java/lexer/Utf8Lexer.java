@@ -0,0 +1,798 @@
+package lexer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Analizador léxico que recorre directamente bytes UTF-8, sin decodificar la entrada a caracteres.
+ *
+ * Reconoce la misma gramática que Lexer (Lexer.flex) y produce los mismos tokens, errores y
+ * posiciones: los desplazamientos y columnas se cuentan en caracteres UTF-16 y las líneas con los
+ * mismos separadores que JFlex (\r, \n, \r\n, U+000B, U+000C, U+0085, U+2028 y U+2029). Fuera de
+ * cadenas y comentarios la gramática es ASCII, por lo que cada byte se clasifica con una tabla; solo
+ * las secuencias de varios bytes se decodifican, para contar sus caracteres y reconocer separadores.
+ * Las secuencias mal formadas se reemplazan por U+FFFD como lo hace el decodificador UTF-8 de la
+ * plataforma, o se informan con una MalformedInputException si se activa setInformarMalformados.
+ *
+ * Un byte[] o un ByteBuffer con arreglo se recorren sin copiarlos; los ByteBuffer directos o mapeados
+ * se copian por ventanas a un buffer interno. No tiene métricas ni observador de estados.
+ * No es seguro para hilos.
+ */
+public class Utf8Lexer {
+
+    private static final int TAMANO_VENTANA = 1 << 16;
+
+    // Límites de lo que una instancia reutilizada conserva entre análisis
+    private static final int CAPACIDAD_RETENIDA = 1 << 16;
+    private static final int MAX_SIMBOLOS_RETENIDOS = 1 << 16;
+
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+    private static final int FIN_ARCHIVO = Token.TipoToken.FIN_ARCHIVO.ordinal();
+
+    // Clase de cada byte ASCII según la gramática
+    private static final byte LETRA = 1;
+    private static final byte DIGITO = 2;
+    private static final byte[] CLASES = new byte[128];
+
+    static {
+        for (int c = 'a'; c <= 'z'; c++) {
+            CLASES[c] = LETRA;
+            CLASES[c - 'a' + 'A'] = LETRA;
+        }
+        CLASES['_'] = LETRA;
+        for (int c = '0'; c <= '9'; c++) {
+            CLASES[c] = DIGITO;
+        }
+    }
+
+    // Entrada: bytes válidos en datos[0, limite) (o desde el inicio del rango indicado)
+    private byte[] datos = new byte[0];
+    private int limite;
+    private int posicion;
+    // Resto de una entrada directa, copiado por ventanas (null si no hay)
+    private ByteBuffer origen;
+    private byte[] ventana;
+    // Primer byte que la ventana conserva al recargarse: el inicio del token en curso
+    private int marca;
+    // Desplazamiento en caracteres del byte datos[i]: i + ajuste (mientras no haya bytes no ASCII entre ambos)
+    private int ajuste;
+
+    // Línea actual (base 1) y desplazamiento en caracteres de su comienzo
+    private int linea;
+    private int inicioLinea;
+
+    // Token actual
+    private int tokenTipo;
+    private int tokenInicio;
+    private int tokenLongitud;
+    private int tokenLinea;
+    private int tokenColumna;
+    private int tokenSimbolo = -1;
+    private boolean tokenSpan;
+
+    // Comentario o cadena en curso
+    private boolean enSpan;
+    private int spanInicio;
+    private int spanLinea;
+    private int spanColumna;
+    private int estadoInconcluso = Lexer.YYINITIAL;
+
+    // Bytes del comentario o cadena en curso, acumulados desde datos[tramo] (solo con nextToken)
+    private boolean conLexemas;
+    private byte[] acumulado = new byte[256];
+    private int acumulados;
+    private int tramo;
+
+    private final ErrorBuffer errores = new ErrorBuffer();
+    private final TokenStatistics estadisticas = new TokenStatistics();
+    private KeywordTable palabras = KeywordTable.getPredeterminada();
+    private SymbolTable simbolos = new SymbolTable(palabras);
+
+    // Decodificador que mide las secuencias mal formadas
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPORT)
+        .onUnmappableCharacter(CodingErrorAction.REPORT);
+    private final char[] descarte = new char[2];
+    private boolean informarMalformados;
+
+    /**
+     * Reinicia el lexer para analizar los bytes [desde, hasta) del arreglo, sin copiarlos.
+     * Los desplazamientos de los tokens se cuentan desde el carácter en la posición desde.
+     */
+    public void reiniciar(byte[] datos, int desde, int hasta) {
+        reiniciarEstado();
+        this.datos = datos;
+        origen = null;
+        posicion = desde;
+        marca = desde;
+        limite = hasta;
+        ajuste = -desde;
+    }
+
+    /**
+     * Reinicia el lexer para analizar los bytes restantes del buffer (no se modifica su posición)
+     */
+    public void reiniciar(ByteBuffer entrada) {
+        if (entrada.hasArray()) {
+            int base = entrada.arrayOffset();
+            reiniciar(entrada.array(), base + entrada.position(), base + entrada.limit());
+            return;
+        }
+        reiniciarEstado();
+        if (ventana == null) {
+            ventana = new byte[TAMANO_VENTANA];
+        }
+        datos = ventana;
+        origen = entrada.duplicate();
+        posicion = 0;
+        marca = 0;
+        limite = 0;
+        ajuste = 0;
+    }
+
+    private void reiniciarEstado() {
+        errores.clear();
+        estadisticas.reiniciar();
+        estadoInconcluso = Lexer.YYINITIAL;
+        linea = 1;
+        inicioLinea = 0;
+        enSpan = false;
+        acumulados = 0;
+        // No retener la capacidad de un comentario o cadena muy largo ni una ventana agrandada
+        if (acumulado.length > CAPACIDAD_RETENIDA) {
+            acumulado = new byte[256];
+        }
+        if (ventana != null && ventana.length > TAMANO_VENTANA) {
+            ventana = new byte[TAMANO_VENTANA];
+        }
+        if (simbolos.size() > MAX_SIMBOLOS_RETENIDOS) {
+            simbolos = new SymbolTable(palabras);
+        }
+    }
+
+    /**
+     * Con true, una secuencia UTF-8 mal formada interrumpe el análisis con una
+     * MalformedInputException (como un Reader creado con Files.newBufferedReader);
+     * con false (predeterminado) se reemplaza por U+FFFD
+     */
+    public void setInformarMalformados(boolean informar) {
+        informarMalformados = informar;
+    }
+
+    /**
+     * Avanza al siguiente token sin crear objetos Token ni lexemas
+     * @return Ordinal del TipoToken, o -1 al llegar al fin de archivo
+     */
+    public int siguienteToken() throws IOException {
+        escanear();
+        return tokenTipo == FIN_ARCHIVO ? -1 : tokenTipo;
+    }
+
+    /**
+     * Agrega al final del buffer hasta max tokens sin crear objetos Token
+     * @return Tokens agregados; 0 solo al llegar al fin de archivo
+     */
+    public int siguientes(TokenBuffer buffer, int max) throws IOException {
+        int agregados = 0;
+        while (agregados < max) {
+            escanear();
+            if (tokenTipo == FIN_ARCHIVO) {
+                break;
+            }
+            buffer.agregar(tokenTipo, tokenInicio, tokenLongitud, tokenLinea, tokenColumna);
+            agregados++;
+        }
+        return agregados;
+    }
+
+    /**
+     * Devuelve el siguiente token de la entrada con su lexema decodificado
+     */
+    public Token nextToken() throws IOException {
+        conLexemas = true;
+        try {
+            escanear();
+        } finally {
+            conLexemas = false;
+        }
+        Token.TipoToken tipo = TIPOS[tokenTipo];
+        if (tokenTipo == FIN_ARCHIVO) {
+            return new Token(tipo, "EOF", tokenLinea, tokenColumna);
+        }
+        if (tokenSimbolo >= 0) {
+            return new Token(tipo, simbolos.getNombre(tokenSimbolo), tokenLinea, tokenColumna, tokenSimbolo);
+        }
+        String lexema = tokenSpan ? new String(acumulado, 0, acumulados, StandardCharsets.UTF_8)
+                                  : new String(datos, marca, posicion - marca, StandardCharsets.UTF_8);
+        return new Token(tipo, lexema, tokenLinea, tokenColumna);
+    }
+
+    /**
+     * Reconoce el siguiente token y lo deja en los campos token*
+     */
+    private void escanear() throws IOException {
+        while (true) {
+            marca = posicion;
+            if (posicion == limite && !rellenar()) {
+                int fin = posicion + ajuste;
+                registrar(FIN_ARCHIVO, fin, 0, linea, fin - inicioLinea + 1);
+                return;
+            }
+            int inicio = posicion + ajuste;
+            int columna = inicio - inicioLinea + 1;
+            byte b = datos[posicion];
+            if (b < 0) {
+                // Fuera de cadenas y comentarios todo carácter no ASCII es un error
+                int codigo = decodificar();
+                errorCaracter(inicio, columna, codigo);
+                return;
+            }
+            switch (b) {
+                case ' ':
+                case '\t':
+                    posicion++;
+                    continue;
+                case '\n':
+                    posicion++;
+                    nuevaLinea();
+                    continue;
+                case '\r':
+                    posicion++;
+                    siguienteEs('\n');
+                    nuevaLinea();
+                    continue;
+                case '+':
+                    simple(Token.TipoToken.OPERADOR_SUMA, inicio, columna);
+                    return;
+                case '-':
+                    simple(Token.TipoToken.OPERADOR_RESTA, inicio, columna);
+                    return;
+                case '*':
+                    simple(Token.TipoToken.OPERADOR_MULTIPLICACION, inicio, columna);
+                    return;
+                case '(':
+                    simple(Token.TipoToken.PARENTESIS_IZQ, inicio, columna);
+                    return;
+                case ')':
+                    simple(Token.TipoToken.PARENTESIS_DER, inicio, columna);
+                    return;
+                case '{':
+                    simple(Token.TipoToken.LLAVE_IZQ, inicio, columna);
+                    return;
+                case '}':
+                    simple(Token.TipoToken.LLAVE_DER, inicio, columna);
+                    return;
+                case '[':
+                    simple(Token.TipoToken.CORCHETE_IZQ, inicio, columna);
+                    return;
+                case ']':
+                    simple(Token.TipoToken.CORCHETE_DER, inicio, columna);
+                    return;
+                case ';':
+                    simple(Token.TipoToken.PUNTO_COMA, inicio, columna);
+                    return;
+                case ',':
+                    simple(Token.TipoToken.COMA, inicio, columna);
+                    return;
+                case '=':
+                    posicion++;
+                    emitir(siguienteEs('=') ? Token.TipoToken.OPERADOR_IGUAL : Token.TipoToken.OPERADOR_ASIGNACION,
+                           inicio, columna);
+                    return;
+                case '<':
+                    posicion++;
+                    emitir(siguienteEs('=') ? Token.TipoToken.OPERADOR_MENOR_IGUAL : Token.TipoToken.OPERADOR_MENOR,
+                           inicio, columna);
+                    return;
+                case '>':
+                    posicion++;
+                    emitir(siguienteEs('=') ? Token.TipoToken.OPERADOR_MAYOR_IGUAL : Token.TipoToken.OPERADOR_MAYOR,
+                           inicio, columna);
+                    return;
+                case '!':
+                    posicion++;
+                    if (siguienteEs('=')) {
+                        emitir(Token.TipoToken.OPERADOR_DIFERENTE, inicio, columna);
+                    } else {
+                        errorCaracter(inicio, columna, '!');
+                    }
+                    return;
+                case '/':
+                    posicion++;
+                    if (siguienteEs('/')) {
+                        comentarioLinea(inicio, columna);
+                    } else if (siguienteEs('*')) {
+                        comentarioBloque(inicio, columna);
+                    } else {
+                        emitir(Token.TipoToken.OPERADOR_DIVISION, inicio, columna);
+                    }
+                    return;
+                case '"':
+                    posicion++;
+                    cadena(inicio, columna);
+                    return;
+                default:
+                    if (CLASES[b] == LETRA) {
+                        palabra(inicio, columna);
+                    } else if (CLASES[b] == DIGITO) {
+                        numero(inicio, columna);
+                    } else {
+                        posicion++;
+                        errorCaracter(inicio, columna, b);
+                        if (b == 0x0B || b == 0x0C) {
+                            nuevaLinea();
+                        }
+                    }
+                    return;
+            }
+        }
+    }
+
+    private void simple(Token.TipoToken tipo, int inicio, int columna) {
+        posicion++;
+        emitir(tipo, inicio, columna);
+    }
+
+    /**
+     * Emite un token ASCII desde el inicio indicado hasta la posición actual
+     */
+    private void emitir(Token.TipoToken tipo, int inicio, int columna) {
+        registrar(tipo.ordinal(), inicio, posicion + ajuste - inicio, linea, columna);
+    }
+
+    /**
+     * Emite como error el carácter ya consumido
+     */
+    private void errorCaracter(int inicio, int columna, int codigo) {
+        int longitud = posicion + ajuste - inicio;
+        errores.registrar(ErrorBuffer.Codigo.CARACTER_NO_RECONOCIDO.ordinal(), inicio, longitud, linea, columna,
+                          Lexer.YYINITIAL, codigo);
+        registrar(Token.TipoToken.ERROR.ordinal(), inicio, longitud, linea, columna);
+        if (codigo == 0x85 || codigo == 0x2028 || codigo == 0x2029) {
+            nuevaLinea();
+        }
+    }
+
+    /**
+     * Identificador, palabra reservada o booleano (clasificados con la KeywordTable)
+     */
+    private void palabra(int inicio, int columna) {
+        int p = posicion + 1;
+        while (true) {
+            byte[] d = datos;
+            int fin = limite;
+            byte b;
+            while (p < fin && (b = d[p]) >= 0 && CLASES[b] != 0) {
+                p++;
+            }
+            posicion = p;
+            if (p < fin || !rellenar()) {
+                break;
+            }
+            p = posicion;
+        }
+        int longitud = posicion - marca;
+        int palabra = palabras.buscar(datos, marca, longitud);
+        int simbolo = palabra >= 0 ? palabra : simbolos.intern(datos, marca, longitud);
+        Token.TipoToken tipo = palabra >= 0 ? palabras.getTipo(palabra) : Token.TipoToken.IDENTIFICADOR;
+        registrar(tipo.ordinal(), inicio, longitud, linea, columna);
+        tokenSimbolo = simbolo;
+    }
+
+    /**
+     * Número entero o decimal ({DIGITO}+"."{DIGITO}+)
+     */
+    private void numero(int inicio, int columna) {
+        posicion++;
+        digitos();
+        Token.TipoToken tipo = Token.TipoToken.NUMERO_ENTERO;
+        if (asegurar(2) && datos[posicion] == '.' && esDigito(datos[posicion + 1])) {
+            posicion += 2;
+            digitos();
+            tipo = Token.TipoToken.NUMERO_DECIMAL;
+        }
+        emitir(tipo, inicio, columna);
+    }
+
+    private void digitos() {
+        int p = posicion;
+        while (true) {
+            byte[] d = datos;
+            int fin = limite;
+            while (p < fin && esDigito(d[p])) {
+                p++;
+            }
+            posicion = p;
+            if (p < fin || !rellenar()) {
+                return;
+            }
+            p = posicion;
+        }
+    }
+
+    private static boolean esDigito(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    /**
+     * Comentario de línea: hasta el salto de línea (que se consume sin formar parte del token)
+     * o el fin de la entrada
+     */
+    private void comentarioLinea(int inicio, int columna) throws IOException {
+        iniciarSpan(inicio, columna);
+        int p = posicion;
+        while (true) {
+            byte[] d = datos;
+            int fin = limite;
+            byte b = 0;
+            // Los bytes mayores que \r son ASCII imprimibles sin efecto sobre la línea
+            while (p < fin && (b = d[p]) > '\r') {
+                p++;
+            }
+            posicion = p;
+            if (p == fin) {
+                if (!rellenar()) {
+                    emitirSpan(Token.TipoToken.COMENTARIO_LINEA, posicion);
+                    return;
+                }
+            } else if (b == '\n' || b == '\r') {
+                emitirSpan(Token.TipoToken.COMENTARIO_LINEA, posicion);
+                saltoLinea();
+                return;
+            } else {
+                contenido(b);
+            }
+            p = posicion;
+        }
+    }
+
+    /**
+     * Comentario de bloque: hasta el primer "*&#47;" inclusive; sin él es un error al fin de la entrada
+     */
+    private void comentarioBloque(int inicio, int columna) throws IOException {
+        iniciarSpan(inicio, columna);
+        int p = posicion;
+        while (true) {
+            byte[] d = datos;
+            int fin = limite;
+            byte b = 0;
+            while (p < fin && (b = d[p]) > '\r' && b != '*') {
+                p++;
+            }
+            posicion = p;
+            if (p == fin) {
+                if (!rellenar()) {
+                    spanInconcluso(ErrorBuffer.Codigo.COMENTARIO_NO_CERRADO, Lexer.COMENTARIO_BLOQUE);
+                    return;
+                }
+            } else if (b == '*') {
+                posicion++;
+                if (siguienteEs('/')) {
+                    emitirSpan(Token.TipoToken.COMENTARIO_BLOQUE, posicion);
+                    return;
+                }
+            } else if (b == '\n' || b == '\r') {
+                saltoLinea();
+            } else {
+                contenido(b);
+            }
+            p = posicion;
+        }
+    }
+
+    /**
+     * Cadena: hasta la comilla de cierre inclusive. Un salto de línea o el fin de la entrada
+     * antes de la comilla la convierten en un error.
+     */
+    private void cadena(int inicio, int columna) throws IOException {
+        iniciarSpan(inicio, columna);
+        int p = posicion;
+        while (true) {
+            byte[] d = datos;
+            int fin = limite;
+            byte b = 0;
+            while (p < fin && (b = d[p]) > '\r' && b != '"') {
+                p++;
+            }
+            posicion = p;
+            if (p == fin) {
+                if (!rellenar()) {
+                    spanInconcluso(ErrorBuffer.Codigo.CADENA_NO_CERRADA_AL_FINAL, Lexer.CADENA);
+                    return;
+                }
+            } else if (b == '"') {
+                posicion++;
+                emitirSpan(Token.TipoToken.CADENA_TEXTO, posicion);
+                return;
+            } else if (b == '\n' || b == '\r') {
+                int salto = posicion + ajuste;
+                errores.registrar(ErrorBuffer.Codigo.CADENA_NO_CERRADA.ordinal(), salto, 0, linea,
+                                  salto - inicioLinea + 1, Lexer.CADENA, 0);
+                emitirSpan(Token.TipoToken.ERROR, posicion);
+                saltoLinea();
+                return;
+            } else {
+                contenido(b);
+            }
+            p = posicion;
+        }
+    }
+
+    /**
+     * Consume un carácter de un comentario o cadena que no es ASCII imprimible:
+     * un control ASCII (U+000B y U+000C cambian de línea) o una secuencia de varios bytes
+     */
+    private void contenido(byte b) throws CharacterCodingException {
+        if (b >= 0) {
+            posicion++;
+            if (b == 0x0B || b == 0x0C) {
+                nuevaLinea();
+            }
+            return;
+        }
+        int codigo = decodificar();
+        if (codigo == 0x85 || codigo == 0x2028 || codigo == 0x2029) {
+            nuevaLinea();
+        }
+    }
+
+    /**
+     * Consume un salto de línea (\n, \r o \r\n)
+     */
+    private void saltoLinea() {
+        if (datos[posicion++] == '\r') {
+            siguienteEs('\n');
+        }
+        nuevaLinea();
+    }
+
+    private void nuevaLinea() {
+        linea++;
+        inicioLinea = posicion + ajuste;
+    }
+
+    /**
+     * Consume el byte siguiente si es el indicado
+     */
+    private boolean siguienteEs(char c) {
+        if (asegurar(1) && datos[posicion] == c) {
+            posicion++;
+            return true;
+        }
+        return false;
+    }
+
+    private void iniciarSpan(int inicio, int columna) {
+        enSpan = true;
+        spanInicio = inicio;
+        spanLinea = linea;
+        spanColumna = columna;
+        if (conLexemas) {
+            acumulados = 0;
+            tramo = marca;
+        }
+    }
+
+    /**
+     * Emite el comentario o cadena en curso hasta el byte fin (exclusivo)
+     */
+    private void emitirSpan(Token.TipoToken tipo, int fin) {
+        if (conLexemas) {
+            acumular(fin);
+        }
+        enSpan = false;
+        marca = posicion;
+        registrar(tipo.ordinal(), spanInicio, fin + ajuste - spanInicio, spanLinea, spanColumna);
+        tokenSpan = true;
+    }
+
+    /**
+     * Emite como error un comentario o cadena que llegó al fin de la entrada sin cerrarse
+     */
+    private void spanInconcluso(ErrorBuffer.Codigo codigo, int estado) {
+        int fin = posicion + ajuste;
+        errores.registrar(codigo.ordinal(), fin, 0, linea, fin - inicioLinea + 1, estado, 0);
+        estadoInconcluso = estado;
+        emitirSpan(Token.TipoToken.ERROR, posicion);
+    }
+
+    /**
+     * Copia los bytes [tramo, hasta) al lexema del comentario o cadena en curso
+     */
+    private void acumular(int hasta) {
+        int cantidad = hasta - tramo;
+        if (acumulados + cantidad > acumulado.length) {
+            acumulado = Arrays.copyOf(acumulado, Math.max(acumulado.length * 2, acumulados + cantidad));
+        }
+        System.arraycopy(datos, tramo, acumulado, acumulados, cantidad);
+        acumulados += cantidad;
+        tramo = hasta;
+    }
+
+    /**
+     * Decodifica la secuencia de varios bytes en la posición actual y la consume
+     * @return Código del carácter, o U+FFFD si la secuencia está mal formada
+     */
+    private int decodificar() throws CharacterCodingException {
+        asegurar(4);
+        byte[] d = datos;
+        int p = posicion;
+        int disponibles = limite - p;
+        int b1 = d[p] & 0xFF;
+        int codigo = -1;
+        int bytes = 0;
+        // Secuencias bien formadas (tabla 3-7 de Unicode); el resto lo decide el decodificador
+        if (b1 >= 0xC2 && b1 <= 0xDF) {
+            if (disponibles >= 2 && esContinuacion(d[p + 1], 0x80, 0xBF)) {
+                codigo = (b1 & 0x1F) << 6 | d[p + 1] & 0x3F;
+                bytes = 2;
+            }
+        } else if (b1 >= 0xE0 && b1 <= 0xEF) {
+            if (disponibles >= 3
+                && esContinuacion(d[p + 1], b1 == 0xE0 ? 0xA0 : 0x80, b1 == 0xED ? 0x9F : 0xBF)
+                && esContinuacion(d[p + 2], 0x80, 0xBF)) {
+                codigo = (b1 & 0x0F) << 12 | (d[p + 1] & 0x3F) << 6 | d[p + 2] & 0x3F;
+                bytes = 3;
+            }
+        } else if (b1 >= 0xF0 && b1 <= 0xF4) {
+            if (disponibles >= 4
+                && esContinuacion(d[p + 1], b1 == 0xF0 ? 0x90 : 0x80, b1 == 0xF4 ? 0x8F : 0xBF)
+                && esContinuacion(d[p + 2], 0x80, 0xBF) && esContinuacion(d[p + 3], 0x80, 0xBF)) {
+                codigo = (b1 & 0x07) << 18 | (d[p + 1] & 0x3F) << 12 | (d[p + 2] & 0x3F) << 6 | d[p + 3] & 0x3F;
+                bytes = 4;
+            }
+        }
+        if (bytes == 0) {
+            bytes = malformada(p, disponibles);
+            codigo = 0xFFFD;
+        }
+        posicion = p + bytes;
+        ajuste -= bytes - Character.charCount(codigo);
+        return codigo;
+    }
+
+    private static boolean esContinuacion(byte b, int minimo, int maximo) {
+        int v = b & 0xFF;
+        return v >= minimo && v <= maximo;
+    }
+
+    /**
+     * Deja que el decodificador de la plataforma determine cuántos bytes abarca la secuencia mal
+     * formada, para reemplazarla exactamente como al leer con un Reader (o informarla)
+     * @return Bytes de la secuencia
+     */
+    private int malformada(int p, int disponibles) throws CharacterCodingException {
+        ByteBuffer entrada = ByteBuffer.wrap(datos, p, Math.min(4, disponibles));
+        boolean finEntrada = disponibles <= 4 && (origen == null || !origen.hasRemaining());
+        decoder.reset();
+        CoderResult resultado = decoder.decode(entrada, CharBuffer.wrap(descarte), finEntrada);
+        if (informarMalformados) {
+            resultado.throwException();
+        }
+        return resultado.length();
+    }
+
+    /**
+     * Asegura que haya al menos n bytes disponibles desde la posición actual, si la entrada los tiene
+     */
+    private boolean asegurar(int n) {
+        while (limite - posicion < n) {
+            if (!rellenar()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copia más bytes de una entrada directa a la ventana. Se conservan los bytes desde el
+     * inicio del token en curso, salvo dentro de un comentario o cadena, cuyo contenido ya
+     * leído se acumula (si hace falta el lexema) y se descarta.
+     * @return false si no quedan bytes por leer
+     */
+    private boolean rellenar() {
+        if (origen == null || !origen.hasRemaining()) {
+            return false;
+        }
+        if (enSpan && conLexemas) {
+            acumular(posicion);
+        }
+        int conservar = enSpan ? posicion : marca;
+        if (conservar > 0) {
+            System.arraycopy(datos, conservar, datos, 0, limite - conservar);
+            limite -= conservar;
+            posicion -= conservar;
+            marca -= conservar;
+            tramo -= conservar;
+            ajuste += conservar;
+        }
+        if (limite == datos.length) {
+            // Un token más largo que la ventana
+            datos = ventana = Arrays.copyOf(datos, datos.length * 2);
+        }
+        int cantidad = Math.min(datos.length - limite, origen.remaining());
+        origen.get(datos, limite, cantidad);
+        limite += cantidad;
+        return true;
+    }
+
+    private void registrar(int tipo, int inicio, int longitud, int linea, int columna) {
+        tokenTipo = tipo;
+        tokenInicio = inicio;
+        tokenLongitud = longitud;
+        tokenLinea = linea;
+        tokenColumna = columna;
+        tokenSimbolo = -1;
+        tokenSpan = false;
+        if (tipo != FIN_ARCHIVO) {
+            estadisticas.registrar(tipo, longitud);
+        }
+    }
+
+    public int getTokenTipo() { return tokenTipo; }
+    public int getTokenInicio() { return tokenInicio; }
+    public int getTokenLongitud() { return tokenLongitud; }
+    public int getTokenLinea() { return tokenLinea; }
+    public int getTokenColumna() { return tokenColumna; }
+
+    /**
+     * Número de símbolo del último token, o -1 si no es un identificador ni una palabra reservada
+     */
+    public int getTokenSimbolo() { return tokenSimbolo; }
+
+    /**
+     * Estado léxico en el que terminó la entrada (ver Lexer.getEstadoInconcluso())
+     */
+    public int getEstadoInconcluso() {
+        return estadoInconcluso;
+    }
+
+    /**
+     * Mensajes de los errores léxicos (vista de solo lectura formateada bajo demanda)
+     */
+    public List<String> getErrores() {
+        return errores.mensajes();
+    }
+
+    public ErrorBuffer getBufferErrores() {
+        return errores;
+    }
+
+    /**
+     * Cantidad máxima de errores almacenados por análisis; los siguientes solo se cuentan
+     */
+    public void setMaximoErrores(int maximo) {
+        errores.setMaximo(maximo);
+    }
+
+    /**
+     * Estadísticas de los tokens emitidos desde el último reiniciar()
+     */
+    public TokenStatistics getEstadisticas() {
+        return estadisticas;
+    }
+
+    /**
+     * Reemplaza las palabras reservadas del lexer (se descarta la tabla de símbolos actual)
+     */
+    public void setPalabrasReservadas(KeywordTable palabras) {
+        this.palabras = palabras;
+        simbolos = new SymbolTable(palabras);
+    }
+
+    public KeywordTable getPalabrasReservadas() {
+        return palabras;
+    }
+
+    public SymbolTable getSimbolos() {
+        return simbolos;
+    }
+}
@@ -0,0 +1,97 @@
+package lexer.io;
+
+import lexer.TokenBuffer;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Lector del formato escrito por {@link BinaryTokenWriter}.
+ * Permite consumir los tokens por lotes mientras el productor sigue escribiendo.
+ */
+public class BinaryTokenReader implements Closeable {
+
+    private final InputStream entrada;
+    private int finAnterior;
+    private int lineaAnterior = 1;
+    private boolean cabeceraLeida;
+    private boolean terminado;
+
+    public BinaryTokenReader(InputStream entrada) {
+        this.entrada = new BufferedInputStream(entrada, 1 << 16);
+    }
+
+    /**
+     * Lee hasta max tokens y los agrega al buffer
+     * @return Cantidad de tokens leídos, o -1 si el flujo ya terminó
+     */
+    public int leer(TokenBuffer buffer, int max) throws IOException {
+        leerCabecera();
+        if (terminado) {
+            return -1;
+        }
+        int leidos = 0;
+        while (leidos < max) {
+            int tipo = leerVarint();
+            if (tipo == 0) {
+                terminado = true;
+                break;
+            }
+            int inicio = finAnterior + leerVarint();
+            int longitud = leerVarint();
+            int linea = lineaAnterior + leerVarint();
+            int columna = leerVarint();
+            buffer.agregar(tipo - 1, inicio, longitud, linea, columna);
+            finAnterior = inicio + longitud;
+            lineaAnterior = linea;
+            leidos++;
+        }
+        return leidos == 0 && terminado ? -1 : leidos;
+    }
+
+    /**
+     * Prepara la lectura del siguiente flujo de la misma entrada, una vez terminado el actual
+     */
+    public void siguienteFlujo() {
+        cabeceraLeida = false;
+        terminado = false;
+        finAnterior = 0;
+        lineaAnterior = 1;
+    }
+
+    private void leerCabecera() throws IOException {
+        if (cabeceraLeida) {
+            return;
+        }
+        byte[] cabecera = entrada.readNBytes(BinaryTokenWriter.CABECERA.length);
+        if (!Arrays.equals(cabecera, BinaryTokenWriter.CABECERA)) {
+            throw new IOException("Flujo de tokens inválido: cabecera desconocida");
+        }
+        cabeceraLeida = true;
+    }
+
+    private int leerVarint() throws IOException {
+        int valor = 0;
+        int desplazamiento = 0;
+        while (true) {
+            int b = entrada.read();
+            if (b < 0) {
+                throw new EOFException("Flujo de tokens truncado");
+            }
+            valor |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+            desplazamiento += 7;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+}
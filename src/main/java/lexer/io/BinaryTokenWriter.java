@@ -0,0 +1,113 @@
+package lexer.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Escritor de tokens en formato binario compacto.
+ *
+ * El flujo comienza con la cabecera "TOK1" y sigue con un registro por token formado por
+ * cinco enteros sin signo codificados como varint (7 bits por byte, el bit alto indica continuación):
+ * <ol>
+ *   <li>ordinal del tipo + 1 (el valor 0 marca el fin del flujo)</li>
+ *   <li>distancia desde el final del token anterior hasta el inicio de este</li>
+ *   <li>longitud</li>
+ *   <li>líneas avanzadas desde el token anterior</li>
+ *   <li>columna</li>
+ * </ol>
+ * Los lexemas no se incluyen: se obtienen de la entrada con el desplazamiento y la longitud.
+ * Los errores léxicos quedan representados por los tokens ERROR.
+ * Con {@link #terminar()} se pueden escribir varios flujos seguidos en la misma salida.
+ */
+public class BinaryTokenWriter implements TokenWriter {
+
+    static final byte[] CABECERA = { 'T', 'O', 'K', '1' };
+
+    private final OutputStream salida;
+    private int finAnterior;
+    private int lineaAnterior = 1;
+    private boolean cabeceraEscrita;
+    private boolean flujoTerminado;
+    private boolean cerrado;
+
+    public BinaryTokenWriter(OutputStream salida) {
+        this(salida, TAMANO_BUFFER);
+    }
+
+    /**
+     * Constructor de BinaryTokenWriter
+     * @param tamanoBuffer Tamaño del buffer de salida en bytes
+     */
+    public BinaryTokenWriter(OutputStream salida, int tamanoBuffer) {
+        this.salida = new BufferedOutputStream(salida, tamanoBuffer);
+    }
+
+    @Override
+    public void escribir(int tipo, int inicio, int longitud, int linea, int columna, CharSequence lexema) throws IOException {
+        escribirCabecera();
+        escribirVarint(tipo + 1);
+        escribirVarint(inicio - finAnterior);
+        escribirVarint(longitud);
+        escribirVarint(linea - lineaAnterior);
+        escribirVarint(columna);
+        finAnterior = inicio + longitud;
+        lineaAnterior = linea;
+    }
+
+    @Override
+    public void escribirError(String mensaje) {
+        // los errores viajan como tokens ERROR
+    }
+
+    private void escribirCabecera() throws IOException {
+        if (!cabeceraEscrita) {
+            salida.write(CABECERA);
+            cabeceraEscrita = true;
+            flujoTerminado = false;
+        }
+    }
+
+    /**
+     * Escribe la marca de fin del flujo actual y lo envía sin cerrar la salida.
+     * Los tokens siguientes forman un flujo nuevo, con su propia cabecera.
+     */
+    public void terminar() throws IOException {
+        escribirCabecera();
+        escribirVarint(0);
+        salida.flush();
+        cabeceraEscrita = false;
+        flujoTerminado = true;
+        finAnterior = 0;
+        lineaAnterior = 1;
+    }
+
+    private void escribirVarint(int valor) throws IOException {
+        while ((valor & ~0x7F) != 0) {
+            salida.write((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        salida.write(valor);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        salida.flush();
+    }
+
+    /**
+     * Escribe la marca de fin (salvo que el último flujo ya esté terminado) y cierra la salida
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        if (!flujoTerminado) {
+            escribirCabecera();
+            escribirVarint(0);
+        }
+        salida.close();
+    }
+}
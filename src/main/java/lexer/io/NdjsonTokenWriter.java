@@ -0,0 +1,128 @@
+package lexer.io;
+
+import lexer.ErrorBuffer;
+import lexer.Token;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor de tokens en JSON delimitado por líneas (NDJSON): un objeto por línea.
+ *
+ * <pre>
+ * {"tipo":"IDENTIFICADOR","lexema":"x","inicio":4,"longitud":1,"linea":1,"columna":5}
+ * {"error":"Carácter no reconocido: '@' en línea 2, columna 3","codigo":"CARACTER_NO_RECONOCIDO","inicio":17,"longitud":1,"linea":2,"columna":3}
+ * </pre>
+ */
+public class NdjsonTokenWriter implements TokenWriter {
+
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer writer;
+
+    public NdjsonTokenWriter(OutputStream salida) {
+        writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANO_BUFFER);
+    }
+
+    @Override
+    public void escribir(int tipo, int inicio, int longitud, int linea, int columna, CharSequence lexema) throws IOException {
+        writer.write("{\"tipo\":\"");
+        writer.write(TIPOS[tipo].name());
+        writer.write("\",\"lexema\":");
+        escribirCadena(lexema);
+        writer.write(",\"inicio\":");
+        writer.write(Integer.toString(inicio));
+        writer.write(",\"longitud\":");
+        writer.write(Integer.toString(longitud));
+        writer.write(",\"linea\":");
+        writer.write(Integer.toString(linea));
+        writer.write(",\"columna\":");
+        writer.write(Integer.toString(columna));
+        writer.write("}\n");
+    }
+
+    @Override
+    public void escribirError(String mensaje) throws IOException {
+        writer.write("{\"error\":");
+        escribirCadena(mensaje);
+        writer.write("}\n");
+    }
+
+    /**
+     * Escribe cada error con su código y posición además del mensaje
+     */
+    @Override
+    public void escribirErrores(ErrorBuffer errores) throws IOException {
+        for (int i = 0; i < errores.size(); i++) {
+            writer.write("{\"error\":");
+            escribirCadena(errores.getMensaje(i));
+            writer.write(",\"codigo\":\"");
+            writer.write(errores.getCodigo(i).name());
+            writer.write("\",\"inicio\":");
+            writer.write(Integer.toString(errores.getInicio(i)));
+            writer.write(",\"longitud\":");
+            writer.write(Integer.toString(errores.getLongitud(i)));
+            writer.write(",\"linea\":");
+            writer.write(Integer.toString(errores.getLinea(i)));
+            writer.write(",\"columna\":");
+            writer.write(Integer.toString(errores.getColumna(i)));
+            writer.write("}\n");
+        }
+        if (errores.getOmitidos() > 0) {
+            writer.write("{\"omitidos\":");
+            writer.write(Long.toString(errores.getOmitidos()));
+            writer.write("}\n");
+        }
+    }
+
+    /**
+     * Escribe una cadena JSON escapando comillas, barras y caracteres de control
+     */
+    private void escribirCadena(CharSequence texto) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write("\\u00");
+                        writer.write(HEX[c >> 4]);
+                        writer.write(HEX[c & 0xF]);
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,62 @@
+package lexer.io;
+
+import lexer.Token;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor de tokens en el formato de texto tabulado de la aplicación,
+ * con los errores léxicos al final.
+ */
+public class TextTokenWriter implements TokenWriter {
+
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+
+    private final Writer writer;
+    private final StringBuilder errores = new StringBuilder();
+
+    public TextTokenWriter(OutputStream salida) {
+        writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANO_BUFFER);
+    }
+
+    /**
+     * Constructor que escribe un título subrayado antes de los tokens
+     */
+    public TextTokenWriter(OutputStream salida, String titulo) throws IOException {
+        this(salida);
+        writer.write(titulo + System.lineSeparator());
+        writer.write("=".repeat(titulo.length()) + System.lineSeparator());
+        writer.write(System.lineSeparator());
+    }
+
+    @Override
+    public void escribir(int tipo, int inicio, int longitud, int linea, int columna, CharSequence lexema) throws IOException {
+        writer.write(String.format("%-30s %-20s Línea: %-5d Columna: %-5d%n",
+            TIPOS[tipo].toString().replace("_", " "), lexema, linea, columna));
+    }
+
+    @Override
+    public void escribirError(String mensaje) {
+        errores.append(mensaje).append(System.lineSeparator());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (errores.length() > 0) {
+            writer.write(System.lineSeparator());
+            writer.write("ERRORES LÉXICOS" + System.lineSeparator());
+            writer.write(errores.toString());
+        }
+        writer.close();
+    }
+}
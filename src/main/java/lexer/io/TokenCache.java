@@ -0,0 +1,419 @@
+package lexer.io;
+
+import lexer.CharSequenceReader;
+import lexer.ErrorBuffer;
+import lexer.KeywordTable;
+import lexer.Lexer;
+import lexer.Token;
+import lexer.TokenBuffer;
+import lexer.TokenSequence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché en disco de resultados de análisis (tokens, errores y total de líneas), indexada por
+ * un hash del contenido y por la versión del lexer que los produjo. Un acierto devuelve los
+ * tokens leídos de un archivo mapeado en memoria sin ejecutar el lexer.
+ *
+ * Cada entrada es un archivo "&lt;clave&gt;.tkc" con una cabecera y los enteros de tokens y errores.
+ * Cuando el tamaño total supera el límite se eliminan las entradas usadas hace más tiempo;
+ * la fecha de modificación de cada archivo registra su último uso, de modo que el orden se
+ * conserva entre ejecuciones. Las entradas se escriben en un archivo temporal y se renombran,
+ * así que varios procesos pueden compartir el directorio.
+ */
+public class TokenCache {
+
+    /** Límite de tamaño por omisión en bytes */
+    public static final long LIMITE_PREDETERMINADO = 512L << 20;
+
+    private static final int MAGIA = 0x544B4331; // "TKC1"
+    private static final int TAMANO_CABECERA = 4 + 8 + 8 + 4 * 5 + 8;
+    private static final int ENTEROS_POR_TOKEN = 5;
+    private static final int ENTEROS_POR_ERROR = 7;
+    private static final String EXTENSION = ".tkc";
+    private static final String EXTENSION_TEMPORAL = ".tmp";
+
+    /** Antigüedad a partir de la cual un archivo temporal se considera abandonado */
+    private static final long ANTIGUEDAD_TEMPORAL_MS = 60L * 60 * 1000;
+
+    private static final long PRIMO_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIMO_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final Path directorio;
+    private final long limite;
+    private final long versionLexer;
+
+    // Entradas en orden de uso (la primera es la usada hace más tiempo) con su tamaño
+    private final LinkedHashMap<String, Long> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long tamano;
+    private long aciertos;
+    private long fallos;
+
+    /**
+     * Resultado de un análisis guardado en la caché
+     */
+    public static class Resultado {
+        private final TokenBuffer tokens;
+        private final ErrorBuffer errores;
+        private final int totalLineas;
+
+        public Resultado(TokenBuffer tokens, ErrorBuffer errores, int totalLineas) {
+            this.tokens = tokens;
+            this.errores = errores;
+            this.totalLineas = totalLineas;
+        }
+
+        public TokenBuffer getTokens() { return tokens; }
+        public ErrorBuffer getBufferErrores() { return errores; }
+        public int getTotalLineas() { return totalLineas; }
+    }
+
+    /**
+     * Abre (o crea) la caché en el directorio indicado
+     * @param limite Tamaño máximo de las entradas en bytes
+     */
+    public TokenCache(Path directorio, long limite) throws IOException {
+        this.directorio = directorio;
+        this.limite = limite;
+        this.versionLexer = calcularVersionLexer();
+        Files.createDirectories(directorio);
+
+        // Recuperar el orden de uso de las entradas existentes
+        List<Path> archivos = new ArrayList<>();
+        long limiteTemporales = System.currentTimeMillis() - ANTIGUEDAD_TEMPORAL_MS;
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : contenido) {
+                String nombre = archivo.getFileName().toString();
+                if (nombre.endsWith(EXTENSION)) {
+                    archivos.add(archivo);
+                } else if (nombre.endsWith(EXTENSION_TEMPORAL)) {
+                    eliminarSiAbandonado(archivo, limiteTemporales);
+                }
+            }
+        }
+        List<FileTime> usos = new ArrayList<>();
+        for (Path archivo : archivos) {
+            usos.add(Files.getLastModifiedTime(archivo));
+        }
+        Integer[] orden = new Integer[archivos.size()];
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = i;
+        }
+        java.util.Arrays.sort(orden, (a, b) -> usos.get(a).compareTo(usos.get(b)));
+        synchronized (this) {
+            for (int i : orden) {
+                long bytes = Files.size(archivos.get(i));
+                entradas.put(archivos.get(i).getFileName().toString(), bytes);
+                tamano += bytes;
+            }
+            desalojar();
+        }
+    }
+
+    /**
+     * Elimina un archivo temporal que no se modificó desde el instante indicado: los recientes
+     * pueden pertenecer a una escritura en curso de otro proceso que comparte el directorio
+     */
+    private static void eliminarSiAbandonado(Path archivo, long limite) throws IOException {
+        try {
+            if (Files.getLastModifiedTime(archivo).toMillis() < limite) {
+                Files.deleteIfExists(archivo);
+            }
+        } catch (NoSuchFileException e) {
+            // Otro proceso terminó de escribirlo o ya lo eliminó
+        }
+    }
+
+    /**
+     * Hash de 64 bits del contenido de un texto
+     */
+    public static long hashContenido(CharSequence texto) throws IOException {
+        return hashContenido(new CharSequenceReader(texto, 0, texto.length()));
+    }
+
+    /**
+     * Hash de 64 bits de los caracteres de la entrada, que se consume por completo
+     */
+    public static long hashContenido(Reader entrada) throws IOException {
+        Hash hash = new Hash();
+        char[] bloque = new char[8192];
+        int leidos;
+        while ((leidos = entrada.read(bloque, 0, bloque.length)) >= 0) {
+            hash.actualizar(bloque, leidos);
+        }
+        return hash.terminar();
+    }
+
+    /**
+     * Busca el resultado del análisis de un contenido
+     * @param hash Hash del contenido (hashContenido)
+     * @param maximoErrores Límite de errores con el que se analiza (forma parte de la clave)
+     * @return El resultado guardado, o null si no está en la caché
+     */
+    public Resultado buscar(long hash, int maximoErrores) throws IOException {
+        String nombre = nombreEntrada(hash, maximoErrores);
+        Path archivo = directorio.resolve(nombre);
+        Resultado resultado;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            resultado = leer(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()), hash, maximoErrores);
+        } catch (NoSuchFileException e) {
+            resultado = null;
+        }
+
+        synchronized (this) {
+            if (resultado == null) {
+                fallos++;
+                return null;
+            }
+            aciertos++;
+            if (entradas.get(nombre) == null) {
+                // escrita por otro proceso
+                long bytes = Files.size(archivo);
+                entradas.put(nombre, bytes);
+                tamano += bytes;
+            }
+        }
+        try {
+            Files.setLastModifiedTime(archivo, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // la entrada pudo ser desalojada por otro proceso; el resultado ya se leyó
+        }
+        return resultado;
+    }
+
+    /**
+     * Lee una entrada mapeada; devuelve null si no corresponde a la clave o a esta versión del lexer
+     */
+    private Resultado leer(MappedByteBuffer datos, long hash, int maximoErrores) {
+        if (datos.remaining() < TAMANO_CABECERA || datos.getInt() != MAGIA
+                || datos.getLong() != versionLexer || datos.getLong() != hash || datos.getInt() != maximoErrores) {
+            return null;
+        }
+        int totalLineas = datos.getInt();
+        int cantidadTokens = datos.getInt();
+        int cantidadErrores = datos.getInt();
+        int reservado = datos.getInt();
+        long omitidos = datos.getLong();
+        if (reservado != 0 || datos.remaining() != 4L * (cantidadTokens * (long) ENTEROS_POR_TOKEN
+                                                           + cantidadErrores * (long) ENTEROS_POR_ERROR)) {
+            return null;
+        }
+
+        IntBuffer enteros = datos.asIntBuffer();
+        TokenBuffer tokens = new TokenBuffer(cantidadTokens);
+        for (int i = 0; i < cantidadTokens; i++) {
+            tokens.agregar(enteros.get(), enteros.get(), enteros.get(), enteros.get(), enteros.get());
+        }
+        ErrorBuffer errores = new ErrorBuffer(cantidadErrores);
+        errores.setMaximo(maximoErrores);
+        errores.setFusionar(false);
+        for (int i = 0; i < cantidadErrores; i++) {
+            errores.registrar(enteros.get(), enteros.get(), enteros.get(), enteros.get(),
+                              enteros.get(), enteros.get(), enteros.get());
+        }
+        errores.setFusionar(true);
+        errores.agregarOmitidos(omitidos);
+        return new Resultado(tokens, errores, totalLineas);
+    }
+
+    /**
+     * Guarda el resultado del análisis de un contenido, desalojando entradas si hace falta
+     * @param hash Hash del contenido (hashContenido)
+     * @param maximoErrores Límite de errores con el que se analizó
+     */
+    public void guardar(long hash, int maximoErrores, TokenSequence tokens, ErrorBuffer errores,
+                        int totalLineas) throws IOException {
+        long bytes = TAMANO_CABECERA + 4L * (tokens.size() * (long) ENTEROS_POR_TOKEN
+                                            + errores.size() * (long) ENTEROS_POR_ERROR);
+        if (bytes > limite) {
+            return;
+        }
+        String nombre = nombreEntrada(hash, maximoErrores);
+        Path archivo = directorio.resolve(nombre);
+        // Nombre único aun entre procesos que comparten el directorio
+        Path temporal = Files.createTempFile(directorio, nombre + ".", EXTENSION_TEMPORAL);
+
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                ByteBuffer bloque = ByteBuffer.allocateDirect(1 << 16);
+                bloque.putInt(MAGIA).putLong(versionLexer).putLong(hash).putInt(maximoErrores)
+                      .putInt(totalLineas).putInt(tokens.size()).putInt(errores.size()).putInt(0)
+                      .putLong(errores.getOmitidos());
+                for (int i = 0; i < tokens.size(); i++) {
+                    if (bloque.remaining() < 4 * ENTEROS_POR_TOKEN) {
+                        vaciar(canal, bloque);
+                    }
+                    bloque.putInt(tokens.getTipoOrdinal(i)).putInt(tokens.getInicio(i)).putInt(tokens.getLongitud(i))
+                          .putInt(tokens.getLinea(i)).putInt(tokens.getColumna(i));
+                }
+                for (int i = 0; i < errores.size(); i++) {
+                    if (bloque.remaining() < 4 * ENTEROS_POR_ERROR) {
+                        vaciar(canal, bloque);
+                    }
+                    bloque.putInt(errores.getCodigo(i).ordinal()).putInt(errores.getInicio(i)).putInt(errores.getLongitud(i))
+                          .putInt(errores.getLinea(i)).putInt(errores.getColumna(i)).putInt(errores.getEstado(i))
+                          .putInt(errores.getDetalle(i));
+                }
+                vaciar(canal, bloque);
+            }
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+
+        synchronized (this) {
+            Long anterior = entradas.put(nombre, bytes);
+            tamano += bytes - (anterior != null ? anterior : 0);
+            desalojar();
+        }
+    }
+
+    private static void vaciar(FileChannel canal, ByteBuffer bloque) throws IOException {
+        bloque.flip();
+        while (bloque.hasRemaining()) {
+            canal.write(bloque);
+        }
+        bloque.clear();
+    }
+
+    /**
+     * Elimina las entradas usadas hace más tiempo hasta respetar el límite
+     */
+    private void desalojar() throws IOException {
+        Iterator<Map.Entry<String, Long>> it = entradas.entrySet().iterator();
+        while (tamano > limite && it.hasNext()) {
+            Map.Entry<String, Long> entrada = it.next();
+            Files.deleteIfExists(directorio.resolve(entrada.getKey()));
+            tamano -= entrada.getValue();
+            it.remove();
+        }
+    }
+
+    private String nombreEntrada(long hash, int maximoErrores) {
+        long clave = mezclar(hash ^ mezclar(versionLexer + maximoErrores));
+        return String.format("%016x", clave) + EXTENSION;
+    }
+
+    // Consultas
+    public synchronized long getTamano() {
+        return tamano;
+    }
+
+    public synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    public synchronized long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Versión del lexer: hash de la clase generada por JFlex (tablas y acciones), de las
+     * palabras reservadas y de los tipos de token y códigos de error, cuyos ordinales se
+     * guardan en las entradas
+     */
+    static long calcularVersionLexer() throws IOException {
+        byte[] clase;
+        try (InputStream entrada = Lexer.class.getResourceAsStream("Lexer.class")) {
+            if (entrada == null) {
+                throw new IOException("No se encontró Lexer.class para identificar la versión del lexer");
+            }
+            clase = entrada.readAllBytes();
+        }
+        Hash hash = new Hash();
+        for (byte b : clase) {
+            hash.agregar((char) (b & 0xFF));
+        }
+        for (String palabra : KeywordTable.getPredeterminada().describir()) {
+            hash.agregar(palabra);
+        }
+        for (Token.TipoToken tipo : Token.TipoToken.values()) {
+            hash.agregar(tipo.name());
+        }
+        for (ErrorBuffer.Codigo codigo : ErrorBuffer.Codigo.values()) {
+            hash.agregar(codigo.name());
+        }
+        return hash.terminar();
+    }
+
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Hash incremental de caracteres: combina grupos de cuatro caracteres por ronda
+     * (multiplicación y rotación) y mezcla la longitud al final
+     */
+    private static final class Hash {
+        private long acumulado = PRIMO_1;
+        private long palabra;
+        private int enPalabra;
+        private long longitud;
+
+        void actualizar(char[] bloque, int cantidad) {
+            int i = 0;
+            while (enPalabra != 0 && i < cantidad) {
+                agregar(bloque[i++]);
+            }
+            for (; i + 4 <= cantidad; i += 4) {
+                ronda(bloque[i] | (long) bloque[i + 1] << 16 | (long) bloque[i + 2] << 32 | (long) bloque[i + 3] << 48);
+                longitud += 4;
+            }
+            while (i < cantidad) {
+                agregar(bloque[i++]);
+            }
+        }
+
+        void agregar(String texto) {
+            for (int i = 0; i < texto.length(); i++) {
+                agregar(texto.charAt(i));
+            }
+            agregar('\0');
+        }
+
+        void agregar(char c) {
+            palabra |= (long) c << (16 * enPalabra);
+            longitud++;
+            if (++enPalabra == 4) {
+                ronda(palabra);
+                palabra = 0;
+                enPalabra = 0;
+            }
+        }
+
+        private void ronda(long k) {
+            acumulado = Long.rotateLeft(acumulado + k * PRIMO_2, 31) * PRIMO_1;
+        }
+
+        long terminar() {
+            if (enPalabra != 0) {
+                ronda(palabra);
+            }
+            return mezclar(acumulado ^ longitud);
+        }
+    }
+}
@@ -0,0 +1,699 @@
+package lexer.io;
+
+import lexer.Lexer;
+import lexer.Token;
+import lexer.TokenBuffer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido en disco de los tokens de un directorio: para cada término (tipo de token
+ * y lexema) guarda las posiciones (archivo, línea, columna) en que aparece.
+ *
+ * El índice es un único archivo mapeado en memoria con la tabla de archivos, un diccionario
+ * de términos de tamaño fijo ordenado por tipo y lexema (búsqueda binaria), los lexemas en
+ * UTF-8 y las listas de posiciones comprimidas: cada posición se guarda como diferencias
+ * respecto de la anterior (archivo, línea y columna) codificadas como varint.
+ *
+ * La actualización es incremental: solo se analizan los archivos nuevos o cuyo tamaño o fecha
+ * de modificación cambiaron. Las posiciones de los demás se copian del índice anterior, y el
+ * archivo nuevo se escribe aparte y se renombra, de modo que las consultas en curso siguen
+ * viendo el índice anterior.
+ */
+public class TokenIndex {
+
+    private static final int MAGIA = 0x544B4931; // "TKI1"
+    private static final int TAMANO_CABECERA = 4 + 8 + 4 + 4 + 8 * 4;
+    private static final int TAMANO_TERMINO = 4 * 4 + 8;
+    private static final Token.TipoToken[] TIPOS = Token.TipoToken.values();
+
+    private final Path archivo;
+    private final long versionLexer;
+    private final Lexer lexer = new Lexer(Reader.nullReader());
+
+    /** Índice abierto actualmente; se reemplaza completo en cada actualización */
+    private volatile Vista vista;
+
+    /** Archivos que no se pudieron leer, con el tamaño y la fecha de ese intento */
+    private final Map<String, Fallo> fallidos = new HashMap<>();
+
+    private static class Fallo {
+        private final long tamano;
+        private final long modificado;
+        private final String mensaje;
+
+        Fallo(long tamano, long modificado, String mensaje) {
+            this.tamano = tamano;
+            this.modificado = modificado;
+            this.mensaje = mensaje;
+        }
+    }
+
+    /**
+     * Posición de un token encontrado por una consulta
+     */
+    public static class Ocurrencia {
+        private final String archivo;
+        private final Token.TipoToken tipo;
+        private final String lexema;
+        private final int linea;
+        private final int columna;
+
+        public Ocurrencia(String archivo, Token.TipoToken tipo, String lexema, int linea, int columna) {
+            this.archivo = archivo;
+            this.tipo = tipo;
+            this.lexema = lexema;
+            this.linea = linea;
+            this.columna = columna;
+        }
+
+        /** Ruta relativa al directorio indexado */
+        public String getArchivo() { return archivo; }
+        public Token.TipoToken getTipo() { return tipo; }
+        public String getLexema() { return lexema; }
+        public int getLinea() { return linea; }
+        public int getColumna() { return columna; }
+
+        @Override
+        public String toString() {
+            return archivo + ":" + linea + ":" + columna + " " + tipo + " " + lexema;
+        }
+    }
+
+    /**
+     * Resumen de una actualización
+     */
+    public static class Actualizacion {
+        private final int analizados;
+        private final int sinCambios;
+        private final int eliminados;
+        private final List<String> fallos;
+
+        public Actualizacion(int analizados, int sinCambios, int eliminados, List<String> fallos) {
+            this.analizados = analizados;
+            this.sinCambios = sinCambios;
+            this.eliminados = eliminados;
+            this.fallos = fallos;
+        }
+
+        public int getAnalizados() { return analizados; }
+        public int getSinCambios() { return sinCambios; }
+        public int getEliminados() { return eliminados; }
+        /** Archivos que no se pudieron indexar ("ruta: motivo"); quedan fuera del índice */
+        public List<String> getFallos() { return fallos; }
+    }
+
+    /**
+     * Abre el índice guardado en el archivo; si no existe o lo produjo otra versión del lexer,
+     * el índice queda vacío hasta la primera actualización
+     */
+    public TokenIndex(Path archivo) throws IOException {
+        this.archivo = archivo;
+        this.versionLexer = TokenCache.calcularVersionLexer();
+        this.vista = abrir();
+    }
+
+    private Vista abrir() throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (datos.limit() >= TAMANO_CABECERA && datos.getInt(0) == MAGIA && datos.getLong(4) == versionLexer) {
+                return new Vista(datos);
+            }
+        } catch (NoSuchFileException e) {
+            // todavía no se creó
+        }
+        return Vista.VACIA;
+    }
+
+    // Consultas
+
+    /**
+     * Todas las apariciones de un lexema con el tipo indicado (por ejemplo, los usos de un identificador)
+     */
+    public List<Ocurrencia> buscar(Token.TipoToken tipo, String lexema) {
+        Vista v = vista;
+        List<Ocurrencia> resultado = new ArrayList<>();
+        int t = v.buscarTermino(tipo.ordinal(), lexema);
+        if (t >= 0) {
+            v.agregarOcurrencias(t, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Todas las apariciones de un lexema, de cualquier tipo
+     */
+    public List<Ocurrencia> buscar(String lexema) {
+        Vista v = vista;
+        List<Ocurrencia> resultado = new ArrayList<>();
+        for (Token.TipoToken tipo : TIPOS) {
+            int t = v.buscarTermino(tipo.ordinal(), lexema);
+            if (t >= 0) {
+                v.agregarOcurrencias(t, resultado);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Todos los tokens de un tipo (por ejemplo, todos los literales NUMERO_DECIMAL)
+     */
+    public List<Ocurrencia> buscar(Token.TipoToken tipo) {
+        Vista v = vista;
+        List<Ocurrencia> resultado = new ArrayList<>();
+        for (int t = v.primerTerminoDeTipo(tipo.ordinal()); t < v.terminos && v.tipo(t) == tipo.ordinal(); t++) {
+            v.agregarOcurrencias(t, resultado);
+        }
+        return resultado;
+    }
+
+    public int getArchivos() {
+        return vista.rutas.length;
+    }
+
+    public int getTerminos() {
+        return vista.terminos;
+    }
+
+    /** Tamaño del archivo de índice en bytes */
+    public long getTamano() {
+        return vista.datos.limit();
+    }
+
+    // Actualización
+
+    /**
+     * Pone el índice al día con los archivos del directorio: analiza los nuevos y los modificados,
+     * quita los eliminados y conserva las posiciones de los demás. Un archivo que no se puede leer
+     * (no es UTF-8 válido, se eliminó durante la actualización...) se omite y se informa en
+     * {@link Actualizacion#getFallos()}; no se vuelve a intentar hasta que cambie.
+     * @param extension Extensión de los archivos a indexar (por ejemplo ".code")
+     */
+    public synchronized Actualizacion actualizar(Path raiz, String extension) throws IOException {
+        Vista anterior = vista;
+        List<Path> actuales = new ArrayList<>();
+        try (Stream<Path> contenido = Files.walk(raiz)) {
+            contenido.filter(p -> p.getFileName().toString().endsWith(extension) && Files.isRegularFile(p))
+                     .sorted()
+                     .forEach(actuales::add);
+        }
+
+        Map<String, Integer> anteriores = new HashMap<>();
+        for (int i = 0; i < anterior.rutas.length; i++) {
+            anteriores.put(anterior.rutas[i], i);
+        }
+
+        // Archivos sin cambios: conservan su orden y reciben los primeros números nuevos
+        int[] numeroNuevo = new int[anterior.rutas.length];
+        boolean[] presente = new boolean[anterior.rutas.length];
+        Arrays.fill(numeroNuevo, -1);
+        List<Path> pendientes = new ArrayList<>();
+        List<long[]> metadatosPendientes = new ArrayList<>();
+        List<String> fallos = new ArrayList<>();
+        Map<String, Fallo> fallidosVigentes = new HashMap<>();
+        for (Path ruta : actuales) {
+            String relativa = relativa(raiz, ruta);
+            long tamano;
+            long modificado;
+            try {
+                tamano = Files.size(ruta);
+                modificado = Files.getLastModifiedTime(ruta).toMillis();
+            } catch (IOException e) {
+                fallos.add(relativa + ": " + mensaje(e));
+                continue;
+            }
+            Fallo fallo = fallidos.get(relativa);
+            if (fallo != null && fallo.tamano == tamano && fallo.modificado == modificado) {
+                fallidosVigentes.put(relativa, fallo);
+                fallos.add(relativa + ": " + fallo.mensaje);
+                continue;
+            }
+            Integer i = anteriores.get(relativa);
+            if (i != null) {
+                presente[i] = true;
+            }
+            if (i != null && anterior.tamanos[i] == tamano && anterior.modificados[i] == modificado) {
+                numeroNuevo[i] = 0;
+            } else {
+                pendientes.add(ruta);
+                metadatosPendientes.add(new long[] {tamano, modificado});
+            }
+        }
+        List<String> rutas = new ArrayList<>();
+        List<long[]> metadatos = new ArrayList<>();
+        int eliminados = 0;
+        for (int i = 0; i < anterior.rutas.length; i++) {
+            if (numeroNuevo[i] == 0) {
+                numeroNuevo[i] = rutas.size();
+                rutas.add(anterior.rutas[i]);
+                metadatos.add(new long[] {anterior.tamanos[i], anterior.modificados[i]});
+            } else if (!presente[i]) {
+                eliminados++;
+            }
+        }
+        int sinCambios = rutas.size();
+        fallidos.keySet().retainAll(fallidosVigentes.keySet());
+        if (pendientes.isEmpty() && eliminados == 0 && anterior != Vista.VACIA) {
+            return new Actualizacion(0, sinCambios, 0, fallos);
+        }
+
+        // Términos por tipo y lexema; las posiciones quedan ordenadas por archivo, línea y columna
+        List<Map<String, Posiciones>> terminos = new ArrayList<>(TIPOS.length);
+        for (int i = 0; i < TIPOS.length; i++) {
+            terminos.add(new HashMap<>());
+        }
+        for (int t = 0; t < anterior.terminos; t++) {
+            anterior.copiarPosiciones(t, numeroNuevo, terminos.get(anterior.tipo(t)));
+        }
+        int analizados = 0;
+        for (int k = 0; k < pendientes.size(); k++) {
+            // Se guardan el tamaño y la fecha vistos antes de leer: si el archivo cambia mientras
+            // tanto, la próxima actualización lo vuelve a analizar
+            Path ruta = pendientes.get(k);
+            String relativa = relativa(raiz, ruta);
+            long[] metadatosArchivo = metadatosPendientes.get(k);
+            String texto;
+            try {
+                texto = Files.readString(ruta, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                fallidos.put(relativa, new Fallo(metadatosArchivo[0], metadatosArchivo[1], mensaje(e)));
+                fallos.add(relativa + ": " + mensaje(e));
+                continue;
+            }
+            fallidos.remove(relativa);
+            indexar(rutas.size(), texto, terminos);
+            rutas.add(relativa);
+            metadatos.add(metadatosArchivo);
+            analizados++;
+        }
+
+        escribir(rutas, metadatos, terminos);
+        vista = abrir();
+        return new Actualizacion(analizados, sinCambios, eliminados, fallos);
+    }
+
+    /**
+     * Motivo legible de un fallo de lectura (algunas excepciones no tienen mensaje)
+     */
+    private static String mensaje(IOException e) {
+        if (e instanceof NoSuchFileException) {
+            return "el archivo ya no existe";
+        }
+        if (e instanceof CharacterCodingException) {
+            return "no es texto UTF-8 válido";
+        }
+        return e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+
+    private static String relativa(Path raiz, Path ruta) {
+        return raiz.relativize(ruta).toString().replace('\\', '/');
+    }
+
+    private void indexar(int numero, String texto, List<Map<String, Posiciones>> terminos) throws IOException {
+        lexer.reiniciar(texto);
+        TokenBuffer tokens = new TokenBuffer();
+        lexer.siguientes(tokens, Integer.MAX_VALUE);
+        tokens.setFuente(texto);
+        for (int i = 0; i < tokens.size(); i++) {
+            terminos.get(tokens.getTipoOrdinal(i))
+                    .computeIfAbsent(tokens.getLexema(i), l -> new Posiciones())
+                    .agregar(numero, tokens.getLinea(i), tokens.getColumna(i));
+        }
+    }
+
+    /**
+     * Escribe el índice completo en un archivo temporal y lo renombra sobre el actual
+     */
+    private void escribir(List<String> rutas, List<long[]> metadatos, List<Map<String, Posiciones>> terminos)
+            throws IOException {
+        // Ordenar los términos por tipo y lexema, y calcular el tamaño de cada sección
+        List<String> lexemas = new ArrayList<>();
+        List<Posiciones> listas = new ArrayList<>();
+        int[] primeroDeTipo = new int[TIPOS.length + 1];
+        for (int tipo = 0; tipo < TIPOS.length; tipo++) {
+            primeroDeTipo[tipo] = lexemas.size();
+            for (Map.Entry<String, Posiciones> termino : new TreeMap<>(terminos.get(tipo)).entrySet()) {
+                lexemas.add(termino.getKey());
+                listas.add(termino.getValue());
+            }
+        }
+        primeroDeTipo[TIPOS.length] = lexemas.size();
+
+        byte[][] rutasUtf8 = new byte[rutas.size()][];
+        long bytesArchivos = 0;
+        for (int i = 0; i < rutasUtf8.length; i++) {
+            rutasUtf8[i] = rutas.get(i).getBytes(StandardCharsets.UTF_8);
+            bytesArchivos += 8 + 8 + 4 + rutasUtf8[i].length;
+        }
+        byte[][] lexemasUtf8 = new byte[lexemas.size()][];
+        long bytesLexemas = 0;
+        for (int t = 0; t < lexemasUtf8.length; t++) {
+            lexemasUtf8[t] = lexemas.get(t).getBytes(StandardCharsets.UTF_8);
+            bytesLexemas += lexemasUtf8[t].length;
+        }
+
+        long inicioArchivos = TAMANO_CABECERA;
+        long inicioTerminos = inicioArchivos + bytesArchivos;
+        long inicioLexemas = inicioTerminos + (long) TAMANO_TERMINO * lexemas.size();
+        long inicioPosiciones = inicioLexemas + bytesLexemas;
+        if (bytesLexemas > Integer.MAX_VALUE) {
+            throw new IOException("Demasiados lexemas distintos para el índice");
+        }
+
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        // Nombre único aun entre procesos que actualizan el mismo índice
+        Path temporal = Files.createTempFile(directorio, archivo.getFileName() + ".", ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                ByteBuffer bloque = ByteBuffer.allocateDirect(1 << 16);
+                bloque.putInt(MAGIA).putLong(versionLexer).putInt(rutas.size()).putInt(lexemas.size())
+                      .putLong(inicioArchivos).putLong(inicioTerminos).putLong(inicioLexemas).putLong(inicioPosiciones);
+                for (int i = 0; i < rutasUtf8.length; i++) {
+                    asegurar(canal, bloque, 20);
+                    long[] m = metadatos.get(i);
+                    bloque.putLong(m[0]).putLong(m[1]).putInt(rutasUtf8[i].length);
+                    escribirBytes(canal, bloque, rutasUtf8[i]);
+                }
+                long lexema = 0, posiciones = 0;
+                for (int t = 0, tipo = 0; t < lexemas.size(); t++) {
+                    while (t >= primeroDeTipo[tipo + 1]) {
+                        tipo++;
+                    }
+                    asegurar(canal, bloque, TAMANO_TERMINO);
+                    Posiciones lista = listas.get(t);
+                    bloque.putInt(tipo).putInt((int) lexema).putInt(lexemasUtf8[t].length)
+                          .putInt(lista.size()).putLong(posiciones);
+                    lexema += lexemasUtf8[t].length;
+                    posiciones += lista.bytesCodificados();
+                }
+                for (byte[] l : lexemasUtf8) {
+                    escribirBytes(canal, bloque, l);
+                }
+                for (Posiciones lista : listas) {
+                    lista.codificar(canal, bloque);
+                }
+                vaciar(canal, bloque);
+            }
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+    }
+
+    private static void escribirBytes(FileChannel canal, ByteBuffer bloque, byte[] bytes) throws IOException {
+        for (int i = 0; i < bytes.length; ) {
+            asegurar(canal, bloque, 1);
+            int n = Math.min(bloque.remaining(), bytes.length - i);
+            bloque.put(bytes, i, n);
+            i += n;
+        }
+    }
+
+    private static void asegurar(FileChannel canal, ByteBuffer bloque, int bytes) throws IOException {
+        if (bloque.remaining() < bytes) {
+            vaciar(canal, bloque);
+        }
+    }
+
+    private static void vaciar(FileChannel canal, ByteBuffer bloque) throws IOException {
+        bloque.flip();
+        while (bloque.hasRemaining()) {
+            canal.write(bloque);
+        }
+        bloque.clear();
+    }
+
+    private static int bytesVarint(int valor) {
+        return (38 - Integer.numberOfLeadingZeros(valor | 1)) / 7;
+    }
+
+    private static void escribirVarint(ByteBuffer bloque, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            bloque.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        bloque.put((byte) valor);
+    }
+
+    /**
+     * Posiciones de un término mientras se construye el índice: ternas (archivo, línea, columna)
+     */
+    private static class Posiciones {
+        private int[] datos = new int[6];
+        private int size;
+
+        void agregar(int archivo, int linea, int columna) {
+            if (size + 3 > datos.length) {
+                datos = Arrays.copyOf(datos, datos.length * 2);
+            }
+            datos[size++] = archivo;
+            datos[size++] = linea;
+            datos[size++] = columna;
+        }
+
+        int size() {
+            return size / 3;
+        }
+
+        /**
+         * Recorre las posiciones como diferencias: el archivo respecto del anterior; la línea
+         * respecto de la anterior del mismo archivo; la columna respecto de la anterior de la
+         * misma línea
+         */
+        long bytesCodificados() {
+            long bytes = 0;
+            int archivo = 0, linea = 0, columna = 0;
+            for (int i = 0; i < size; i += 3) {
+                int dArchivo = datos[i] - archivo;
+                if (dArchivo != 0) {
+                    linea = 0;
+                }
+                int dLinea = datos[i + 1] - linea;
+                if (dArchivo != 0 || dLinea != 0) {
+                    columna = 0;
+                }
+                bytes += bytesVarint(dArchivo) + bytesVarint(dLinea) + bytesVarint(datos[i + 2] - columna);
+                archivo = datos[i];
+                linea = datos[i + 1];
+                columna = datos[i + 2];
+            }
+            return bytes;
+        }
+
+        void codificar(FileChannel canal, ByteBuffer bloque) throws IOException {
+            int archivo = 0, linea = 0, columna = 0;
+            for (int i = 0; i < size; i += 3) {
+                asegurar(canal, bloque, 15);
+                int dArchivo = datos[i] - archivo;
+                if (dArchivo != 0) {
+                    linea = 0;
+                }
+                int dLinea = datos[i + 1] - linea;
+                if (dArchivo != 0 || dLinea != 0) {
+                    columna = 0;
+                }
+                escribirVarint(bloque, dArchivo);
+                escribirVarint(bloque, dLinea);
+                escribirVarint(bloque, datos[i + 2] - columna);
+                archivo = datos[i];
+                linea = datos[i + 1];
+                columna = datos[i + 2];
+            }
+        }
+    }
+
+    /**
+     * Índice abierto: archivo mapeado y tabla de archivos decodificada
+     */
+    private static class Vista {
+        static final Vista VACIA = new Vista();
+
+        final ByteBuffer datos;
+        final String[] rutas;
+        final long[] tamanos;
+        final long[] modificados;
+        final int terminos;
+        final long inicioTerminos;
+        final long inicioLexemas;
+        final long inicioPosiciones;
+
+        private Vista() {
+            datos = ByteBuffer.allocate(0);
+            rutas = new String[0];
+            tamanos = new long[0];
+            modificados = new long[0];
+            terminos = 0;
+            inicioTerminos = inicioLexemas = inicioPosiciones = 0;
+        }
+
+        Vista(ByteBuffer datos) {
+            this.datos = datos;
+            int archivos = datos.getInt(12);
+            terminos = datos.getInt(16);
+            long posicion = datos.getLong(20);
+            inicioTerminos = datos.getLong(28);
+            inicioLexemas = datos.getLong(36);
+            inicioPosiciones = datos.getLong(44);
+
+            rutas = new String[archivos];
+            tamanos = new long[archivos];
+            modificados = new long[archivos];
+            for (int i = 0; i < archivos; i++) {
+                int p = (int) posicion;
+                tamanos[i] = datos.getLong(p);
+                modificados[i] = datos.getLong(p + 8);
+                int longitud = datos.getInt(p + 16);
+                rutas[i] = cadena(p + 20, longitud);
+                posicion += 20 + longitud;
+            }
+        }
+
+        private String cadena(int desde, int longitud) {
+            byte[] bytes = new byte[longitud];
+            for (int i = 0; i < longitud; i++) {
+                bytes[i] = datos.get(desde + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int registro(int t) {
+            return (int) (inicioTerminos + (long) TAMANO_TERMINO * t);
+        }
+
+        int tipo(int t) {
+            return datos.getInt(registro(t));
+        }
+
+        String lexema(int t) {
+            int r = registro(t);
+            return cadena((int) (inicioLexemas + datos.getInt(r + 4)), datos.getInt(r + 8));
+        }
+
+        /**
+         * Primer término con tipo mayor o igual al indicado
+         */
+        int primerTerminoDeTipo(int tipo) {
+            int bajo = 0, alto = terminos;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (tipo(medio) < tipo) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+
+        /**
+         * Índice del término (tipo, lexema), o -1 si no está
+         */
+        int buscarTermino(int tipo, String lexema) {
+            int bajo = primerTerminoDeTipo(tipo), alto = primerTerminoDeTipo(tipo + 1) - 1;
+            while (bajo <= alto) {
+                int medio = (bajo + alto) >>> 1;
+                int comparacion = lexema(medio).compareTo(lexema);
+                if (comparacion < 0) {
+                    bajo = medio + 1;
+                } else if (comparacion > 0) {
+                    alto = medio - 1;
+                } else {
+                    return medio;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Decodifica las posiciones del término t y las entrega como ternas (archivo, línea, columna)
+         */
+        private void recorrer(int t, Destino destino) {
+            int r = registro(t);
+            int cantidad = datos.getInt(r + 12);
+            int p = (int) (inicioPosiciones + datos.getLong(r + 16));
+            int archivo = 0, linea = 0, columna = 0;
+            for (int i = 0; i < cantidad; i++) {
+                long leido = leerVarint(p);
+                int dArchivo = (int) leido;
+                leido = leerVarint((int) (leido >>> 32));
+                int dLinea = (int) leido;
+                leido = leerVarint((int) (leido >>> 32));
+                int dColumna = (int) leido;
+                p = (int) (leido >>> 32);
+                if (dArchivo != 0) {
+                    linea = 0;
+                }
+                if (dArchivo != 0 || dLinea != 0) {
+                    columna = 0;
+                }
+                archivo += dArchivo;
+                linea += dLinea;
+                columna += dColumna;
+                destino.aceptar(archivo, linea, columna);
+            }
+        }
+
+        /**
+         * Lee un varint en la posición p
+         * @return Valor en los 32 bits bajos y posición siguiente en los altos
+         */
+        private long leerVarint(int p) {
+            int valor = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos.get(p++);
+                valor |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+            return (long) p << 32 | (valor & 0xFFFFFFFFL);
+        }
+
+        void agregarOcurrencias(int t, List<Ocurrencia> resultado) {
+            Token.TipoToken tipo = TIPOS[tipo(t)];
+            String lexema = lexema(t);
+            recorrer(t, (archivo, linea, columna) ->
+                resultado.add(new Ocurrencia(rutas[archivo], tipo, lexema, linea, columna)));
+        }
+
+        /**
+         * Copia las posiciones del término t de los archivos conservados, con su número nuevo
+         */
+        void copiarPosiciones(int t, int[] numeroNuevo, Map<String, Posiciones> destino) {
+            Posiciones[] lista = new Posiciones[1];
+            recorrer(t, (archivo, linea, columna) -> {
+                int numero = numeroNuevo[archivo];
+                if (numero >= 0) {
+                    if (lista[0] == null) {
+                        lista[0] = destino.computeIfAbsent(lexema(t), l -> new Posiciones());
+                    }
+                    lista[0].agregar(numero, linea, columna);
+                }
+            });
+        }
+    }
+
+    private interface Destino {
+        void aceptar(int archivo, int linea, int columna);
+    }
+}
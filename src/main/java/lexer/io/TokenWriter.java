@@ -0,0 +1,89 @@
+package lexer.io;
+
+import lexer.ErrorBuffer;
+import lexer.TokenSequence;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Destino de escritura de tokens a medida que el lexer los produce.
+ * Las implementaciones escriben con buffers grandes y no retienen los tokens,
+ * por lo que el consumo de memoria no depende del tamaño de la entrada.
+ */
+public interface TokenWriter extends Closeable, Flushable {
+
+    /** Tamaño del buffer de salida de los escritores */
+    int TAMANO_BUFFER = 1 << 20;
+
+    /**
+     * Escribe un token
+     * @param tipo Ordinal del TipoToken
+     * @param inicio Desplazamiento del token en la entrada
+     * @param longitud Longitud del token en caracteres
+     * @param linea Línea (base 1)
+     * @param columna Columna (base 1)
+     * @param lexema Texto del token (los formatos que no lo usan lo ignoran)
+     */
+    void escribir(int tipo, int inicio, int longitud, int linea, int columna, CharSequence lexema) throws IOException;
+
+    /**
+     * Escribe un mensaje de error léxico (los formatos que no lo usan lo ignoran)
+     */
+    void escribirError(String mensaje) throws IOException;
+
+    /**
+     * Escribe los errores léxicos de un análisis y, si los hubo, el aviso de errores omitidos
+     */
+    default void escribirErrores(ErrorBuffer errores) throws IOException {
+        for (int i = 0; i < errores.size(); i++) {
+            escribirError(errores.getMensaje(i));
+        }
+        if (errores.getOmitidos() > 0) {
+            escribirError(errores.getMensajeOmitidos());
+        }
+    }
+
+    /**
+     * Escribe el token i de la secuencia indicada
+     */
+    default void escribir(TokenSequence tokens, int i) throws IOException {
+        escribir(tokens.getTipoOrdinal(i), tokens.getInicio(i), tokens.getLongitud(i),
+                 tokens.getLinea(i), tokens.getColumna(i), tokens.getLexema(i));
+    }
+
+    /**
+     * Crea el escritor correspondiente al formato indicado
+     * @param formato "texto", "ndjson" o "binario"
+     */
+    static TokenWriter crear(String formato, OutputStream salida) {
+        switch (formato) {
+            case "texto":
+                return new TextTokenWriter(salida);
+            case "ndjson":
+                return new NdjsonTokenWriter(salida);
+            case "binario":
+                return new BinaryTokenWriter(salida);
+            default:
+                throw new IllegalArgumentException("Formato desconocido: " + formato);
+        }
+    }
+
+    /**
+     * Extensión de archivo usada para cada formato
+     */
+    static String extension(String formato) {
+        switch (formato) {
+            case "texto":
+                return ".tokens";
+            case "ndjson":
+                return ".ndjson";
+            case "binario":
+                return ".tokbin";
+            default:
+                throw new IllegalArgumentException("Formato desconocido: " + formato);
+        }
+    }
+}
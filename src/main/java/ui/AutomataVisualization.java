@@ -1,216 +1,324 @@
 package ui;
 
+import javafx.animation.AnimationTimer;
 import javafx.geometry.Insets;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
-import javafx.scene.shape.Circle;
-import javafx.scene.shape.Line;
-import javafx.scene.text.Text;
+import lexer.Lexer;
 import lexer.Token;
+import lexer.TokenSequence;
+import lexer.TokenStatistics;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
- * Componente para visualizar el autómata finito del analizador léxico
+ * Componente para visualizar el autómata finito del analizador léxico.
+ *
+ * No conserva la lista de tokens: mantiene contadores acumulados y un buffer circular con
+ * los últimos tokens. Los cambios de estado los informa el lexer desde el hilo de análisis
+ * (solo se incrementan contadores atómicos), y un AnimationTimer redibuja a lo sumo una vez
+ * por pulso mientras hay cambios o transiciones que animar, y se detiene cuando no los hay.
  */
 public class AutomataVisualization {
-    
+
+    /** Tokens recientes mostrados */
+    private static final int RECIENTES = 5;
+
+    /** Caracteres del lexema conservados por token reciente */
+    private static final int MAX_LEXEMA = 40;
+
+    /** Duración del resaltado de una transición, en nanosegundos */
+    private static final double DURACION_BRILLO = 400e6;
+
+    // Estados del lexer en el orden en que se dibujan
+    private static final int INICIAL = 0;
+    private static final int LINEA = 1;
+    private static final int BLOQUE = 2;
+    private static final int CADENA = 3;
+    private static final int ESTADOS = 4;
+    private static final String[] NOMBRES = {"INICIAL", "COM. LÍNEA", "COM. BLOQUE", "CADENA"};
+    private static final Color[] COLORES = {Color.LIGHTBLUE, Color.LIGHTGREEN, Color.PALEGREEN, Color.LIGHTYELLOW};
+    private static final double[][] POSICIONES = {{90, 130}, {340, 60}, {340, 130}, {340, 200}};
+    private static final String[] ENTRADAS = {"", "//", "/*", "\""};
+    private static final String[] SALIDAS = {"", "\\n", "*/", "\""};
+
     private Pane pane;
     private Canvas canvas;
     private GraphicsContext gc;
-    private List<Token> currentTokens;
-    
+
+    // Contadores acumulados y tokens recientes (hilo de JavaFX)
+    private final TokenStatistics contadores = new TokenStatistics();
+    private final int[] tiposRecientes = new int[RECIENTES];
+    private final String[] lexemasRecientes = new String[RECIENTES];
+    private int siguienteReciente;
+    private int cantidadRecientes;
+
+    // Transiciones informadas por el lexer (hilo de análisis) y estado actual
+    private final AtomicLongArray transiciones = new AtomicLongArray(ESTADOS * ESTADOS);
+    private volatile int estadoActual = INICIAL;
+    private volatile int generacion;
+
+    // Estado de la animación (hilo de JavaFX)
+    private final long[] transicionesDibujadas = new long[ESTADOS * ESTADOS];
+    private final double[] brillo = new double[ESTADOS * ESTADOS];
+    private boolean sucio;
+    private boolean animando;
+    private long ultimoPulso;
+    private final AnimationTimer temporizador = new AnimationTimer() {
+        @Override
+        public void handle(long ahora) {
+            pulso(ahora);
+        }
+    };
+
     public AutomataVisualization() {
         pane = new VBox();
         pane.setPadding(new Insets(10));
         pane.setStyle("-fx-background-color: #fafafa;");
-        
-        canvas = new Canvas(500, 300);
+
+        canvas = new Canvas(500, 340);
         gc = canvas.getGraphicsContext2D();
         pane.getChildren().add(canvas);
-        
-        currentTokens = new ArrayList<>();
-        drawInitialAutomata();
+
+        dibujar();
     }
-    
+
     /**
-     * Dibuja el autómata inicial (sin tokens procesados)
+     * Comienza un análisis nuevo: reinicia contadores, tokens recientes y transiciones.
+     * Los observadores creados antes dejan de tener efecto.
      */
-    private void drawInitialAutomata() {
-        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-        
-        // Título
-        gc.setFill(Color.BLACK);
-        gc.setFont(javafx.scene.text.Font.font("Arial", 12));
-        gc.fillText("Autómata Finito - Estados", 10, 20);
-        
-        // Dibujar estados básicos
-        drawState(100, 100, "INICIAL", Color.LIGHTBLUE);
-        drawState(250, 100, "COMENTARIO", Color.LIGHTGREEN);
-        drawState(400, 100, "CADENA", Color.LIGHTYELLOW);
-        
-        // Dibujar transiciones
-        drawArrow(150, 100, 220, 100, "//");
-        drawArrow(300, 100, 370, 100, "\"");
-        
-        // Leyenda
-        gc.setFill(Color.GRAY);
-        gc.fillText("Estados del autómata:", 10, 250);
-        gc.setFill(Color.LIGHTBLUE);
-        gc.fillRect(10, 260, 15, 15);
-        gc.setFill(Color.BLACK);
-        gc.fillText("Estado inicial", 30, 272);
-        
-        gc.setFill(Color.LIGHTGREEN);
-        gc.fillRect(150, 260, 15, 15);
-        gc.setFill(Color.BLACK);
-        gc.fillText("Comentarios", 170, 272);
-        
-        gc.setFill(Color.LIGHTYELLOW);
-        gc.fillRect(280, 260, 15, 15);
-        gc.setFill(Color.BLACK);
-        gc.fillText("Cadenas", 300, 272);
+    public void reiniciar() {
+        generacion++;
+        contadores.reiniciar();
+        cantidadRecientes = 0;
+        siguienteReciente = 0;
+        for (int i = 0; i < transiciones.length(); i++) {
+            transiciones.set(i, 0);
+        }
+        java.util.Arrays.fill(transicionesDibujadas, 0);
+        java.util.Arrays.fill(brillo, 0);
+        estadoActual = INICIAL;
+        solicitarDibujo();
+    }
+
+    /**
+     * Observador para el lexer del análisis actual; se puede invocar desde cualquier hilo
+     */
+    public Lexer.ObservadorEstados nuevoObservador() {
+        int propia = generacion;
+        return (anterior, nuevo) -> {
+            if (propia == generacion) {
+                int desde = indiceDe(anterior), hacia = indiceDe(nuevo);
+                transiciones.incrementAndGet(desde * ESTADOS + hacia);
+                estadoActual = hacia;
+            }
+        };
+    }
+
+    private static int indiceDe(int estadoLexer) {
+        if (estadoLexer == Lexer.COMENTARIO_LINEA) return LINEA;
+        if (estadoLexer == Lexer.COMENTARIO_BLOQUE) return BLOQUE;
+        if (estadoLexer == Lexer.CADENA) return CADENA;
+        return INICIAL;
+    }
+
+    /**
+     * Agrega los tokens [desde, size) de la secuencia a los contadores y conserva los últimos
+     */
+    public void registrarTokens(TokenSequence tokens, int desde) {
+        for (int i = desde; i < tokens.size(); i++) {
+            contadores.registrar(tokens.getTipoOrdinal(i), tokens.getLongitud(i));
+        }
+        for (int i = Math.max(desde, tokens.size() - RECIENTES); i < tokens.size(); i++) {
+            agregarReciente(tokens, i);
+        }
+        solicitarDibujo();
     }
-    
+
     /**
-     * Actualiza la visualización con los tokens procesados
+     * Reemplaza los contadores por las estadísticas indicadas y los tokens recientes por los
+     * últimos de la secuencia (por ejemplo, tras un reanálisis incremental). La secuencia no se conserva.
      */
-    public void updateAutomata(List<Token> tokens) {
-        currentTokens = new ArrayList<>(tokens);
-        drawAutomataWithTokens();
+    public void updateAutomata(TokenStatistics estadisticas, TokenSequence tokens) {
+        contadores.reiniciar();
+        contadores.agregar(estadisticas);
+        cantidadRecientes = 0;
+        siguienteReciente = 0;
+        for (int i = Math.max(0, tokens.size() - RECIENTES); i < tokens.size(); i++) {
+            agregarReciente(tokens, i);
+        }
+        solicitarDibujo();
+    }
+
+    private void agregarReciente(TokenSequence tokens, int i) {
+        String lexema = tokens.getLexema(i);
+        tiposRecientes[siguienteReciente] = tokens.getTipoOrdinal(i);
+        lexemasRecientes[siguienteReciente] = lexema.length() > MAX_LEXEMA
+            ? lexema.substring(0, MAX_LEXEMA) + "…" : lexema;
+        siguienteReciente = (siguienteReciente + 1) % RECIENTES;
+        cantidadRecientes = Math.min(cantidadRecientes + 1, RECIENTES);
+    }
+
+    /**
+     * Programa un redibujado en el próximo pulso (por ejemplo, al terminar un análisis)
+     */
+    public void solicitarDibujo() {
+        sucio = true;
+        if (!animando) {
+            animando = true;
+            ultimoPulso = 0;
+            temporizador.start();
+        }
+    }
+
+    /**
+     * Un pulso de la animación: detecta las transiciones nuevas, atenúa las anteriores y redibuja
+     */
+    private void pulso(long ahora) {
+        double transcurrido = ultimoPulso == 0 ? 0 : ahora - ultimoPulso;
+        ultimoPulso = ahora;
+        boolean activo = false;
+        for (int i = 0; i < brillo.length; i++) {
+            long cantidad = transiciones.get(i);
+            if (cantidad != transicionesDibujadas[i]) {
+                transicionesDibujadas[i] = cantidad;
+                brillo[i] = 1;
+                sucio = true;
+            } else if (brillo[i] > 0) {
+                brillo[i] = Math.max(0, brillo[i] - transcurrido / DURACION_BRILLO);
+                sucio = true;
+            }
+            activo |= brillo[i] > 0;
+        }
+        if (sucio) {
+            sucio = false;
+            dibujar();
+        }
+        if (!activo) {
+            temporizador.stop();
+            animando = false;
+        }
     }
-    
+
     /**
-     * Dibuja el autómata mostrando el flujo de tokens procesados
+     * Dibuja los estados y transiciones del lexer, los contadores y los últimos tokens
      */
-    private void drawAutomataWithTokens() {
+    private void dibujar() {
         gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
-        
+
         // Título
         gc.setFill(Color.BLACK);
         gc.setFont(javafx.scene.text.Font.font("Arial", 12));
-        gc.fillText("Autómata Finito - Procesamiento", 10, 20);
-        gc.fillText("Tokens procesados: " + currentTokens.size(), 10, 40);
-        
-        // Dibujar estados principales
-        int yPos = 80;
-        drawState(80, yPos, "INICIAL", Color.LIGHTBLUE);
-        drawState(220, yPos, "COMENTARIO", Color.LIGHTGREEN);
-        drawState(360, yPos, "CADENA", Color.LIGHTYELLOW);
-        drawState(500, yPos, "FINAL", Color.LIGHTCORAL);
-        
-        // Dibujar transiciones
-        drawArrow(130, yPos, 190, yPos, "//");
-        drawArrow(270, yPos, 330, yPos, "\"");
-        drawArrow(410, yPos, 470, yPos, "EOF");
-        
-        // Mostrar estadísticas de tokens
-        int yStats = 180;
+        gc.fillText("Autómata Finito - Estados del lexer", 10, 20);
+        gc.fillText("Tokens procesados: " + contadores.getTotal(), 10, 38);
+
+        // Transiciones desde el estado inicial y de regreso, con su cantidad
+        double[] inicial = POSICIONES[INICIAL];
+        for (int estado = LINEA; estado < ESTADOS; estado++) {
+            double[] p = POSICIONES[estado];
+            int ida = INICIAL * ESTADOS + estado;
+            int vuelta = estado * ESTADOS + INICIAL;
+            drawArrow(inicial[0] + 45, inicial[1] - 6, p[0] - 48, p[1] - 6,
+                      ENTRADAS[estado] + " (" + transicionesDibujadas[ida] + ")", brillo[ida]);
+            drawArrow(p[0] - 48, p[1] + 6, inicial[0] + 45, inicial[1] + 6,
+                      SALIDAS[estado] + " (" + transicionesDibujadas[vuelta] + ")", brillo[vuelta]);
+        }
+
+        // Estados; el actual se marca con un borde grueso
+        int actual = estadoActual;
+        for (int estado = 0; estado < ESTADOS; estado++) {
+            drawState(POSICIONES[estado][0], POSICIONES[estado][1], NOMBRES[estado], COLORES[estado], estado == actual);
+        }
+
+        // Estadísticas
+        int yStats = 250;
         gc.setFill(Color.BLACK);
         gc.setFont(javafx.scene.text.Font.font("Arial", 10));
         gc.fillText("Estadísticas:", 10, yStats);
-        
-        // Contar tipos de tokens
-        long palabrasReservadas = currentTokens.stream()
-            .filter(t -> t.getTipo() == Token.TipoToken.PALABRA_RESERVADA)
-            .count();
-        long identificadores = currentTokens.stream()
-            .filter(t -> t.getTipo() == Token.TipoToken.IDENTIFICADOR)
-            .count();
-        long numeros = currentTokens.stream()
-            .filter(t -> t.getTipo() == Token.TipoToken.NUMERO_ENTERO || 
-                        t.getTipo() == Token.TipoToken.NUMERO_DECIMAL)
-            .count();
-        long operadores = currentTokens.stream()
-            .filter(t -> t.getTipo().toString().startsWith("OPERADOR"))
-            .count();
-        
         yStats += 15;
-        gc.fillText("Palabras reservadas: " + palabrasReservadas, 10, yStats);
+        gc.fillText("Palabras reservadas: " + contadores.getCantidad(TokenStatistics.Categoria.PALABRAS_RESERVADAS), 10, yStats);
         yStats += 15;
-        gc.fillText("Identificadores: " + identificadores, 10, yStats);
+        gc.fillText("Identificadores: " + contadores.getCantidad(TokenStatistics.Categoria.IDENTIFICADORES), 10, yStats);
         yStats += 15;
-        gc.fillText("Números: " + numeros, 10, yStats);
+        gc.fillText("Números: " + contadores.getCantidad(TokenStatistics.Categoria.NUMEROS), 10, yStats);
         yStats += 15;
-        gc.fillText("Operadores: " + operadores, 10, yStats);
-        
-        // Mostrar últimos tokens procesados
-        if (!currentTokens.isEmpty()) {
-            yStats += 20;
-            gc.fillText("Últimos tokens:", 10, yStats);
-            yStats += 15;
-            int start = Math.max(0, currentTokens.size() - 5);
-            for (int i = start; i < currentTokens.size() && i < start + 5; i++) {
-                Token t = currentTokens.get(i);
-                gc.setFill(Color.DARKGRAY);
-                gc.fillText(String.format("%s: %s", t.getTipoString(), t.getLexema()), 
-                           10, yStats);
-                yStats += 12;
+        gc.fillText("Operadores: " + contadores.getCantidad(TokenStatistics.Categoria.OPERADORES), 10, yStats);
+
+        // Últimos tokens, del más antiguo al más reciente
+        if (cantidadRecientes > 0) {
+            int yTokens = 250;
+            gc.fillText("Últimos tokens:", 200, yTokens);
+            yTokens += 15;
+            gc.setFill(Color.DARKGRAY);
+            for (int k = 0; k < cantidadRecientes; k++) {
+                int i = (siguienteReciente - cantidadRecientes + k + RECIENTES) % RECIENTES;
+                gc.fillText(String.format("%s: %s", Token.TipoToken.values()[tiposRecientes[i]].toString().replace("_", " "),
+                           lexemasRecientes[i].replace("\n", "\\n")), 200, yTokens);
+                yTokens += 12;
             }
         }
     }
-    
+
     /**
      * Dibuja un estado del autómata
      */
-    private void drawState(double x, double y, String label, Color color) {
-        // Círculo del estado
+    private void drawState(double x, double y, String label, Color color, boolean actual) {
+        // Elipse del estado
         gc.setFill(color);
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(2);
-        gc.fillOval(x - 30, y - 15, 60, 30);
-        gc.strokeOval(x - 30, y - 15, 60, 30);
-        
+        gc.setStroke(actual ? Color.DARKRED : Color.BLACK);
+        gc.setLineWidth(actual ? 4 : 2);
+        gc.fillOval(x - 45, y - 18, 90, 36);
+        gc.strokeOval(x - 45, y - 18, 90, 36);
+
         // Etiqueta
         gc.setFill(Color.BLACK);
         gc.setFont(javafx.scene.text.Font.font("Arial", 10));
         double textWidth = gc.getFont().getSize() * label.length() / 2;
-        gc.fillText(label, x - textWidth/2, y + 5);
+        gc.fillText(label, x - textWidth/2, y + 4);
     }
-    
+
     /**
-     * Dibuja una flecha (transición)
+     * Dibuja una flecha (transición); con brillo mayor que 0 se resalta en proporción
      */
-    private void drawArrow(double x1, double y1, double x2, double y2, String label) {
-        gc.setStroke(Color.BLACK);
-        gc.setLineWidth(1.5);
+    private void drawArrow(double x1, double y1, double x2, double y2, String label, double brillo) {
+        Color color = Color.BLACK.interpolate(Color.ORANGERED, brillo);
+        gc.setStroke(color);
+        gc.setLineWidth(1.5 + 2.5 * brillo);
         gc.strokeLine(x1, y1, x2, y2);
-        
+
         // Punta de la flecha
         double angle = Math.atan2(y2 - y1, x2 - x1);
         double arrowLength = 10;
         double arrowAngle = Math.PI / 6;
-        
+
         double x3 = x2 - arrowLength * Math.cos(angle - arrowAngle);
         double y3 = y2 - arrowLength * Math.sin(angle - arrowAngle);
         double x4 = x2 - arrowLength * Math.cos(angle + arrowAngle);
         double y4 = y2 - arrowLength * Math.sin(angle + arrowAngle);
-        
+
         gc.strokeLine(x2, y2, x3, y3);
         gc.strokeLine(x2, y2, x4, y4);
-        
-        // Etiqueta de la transición
+
+        // Etiqueta de la transición, sobre la flecha de ida y bajo la de vuelta
         if (label != null && !label.isEmpty()) {
-            gc.setFill(Color.DARKBLUE);
+            gc.setFill(brillo > 0 ? color : Color.DARKBLUE);
             gc.setFont(javafx.scene.text.Font.font("Arial", 9));
             double midX = (x1 + x2) / 2;
-            double midY = (y1 + y2) / 2 - 10;
+            double midY = (y1 + y2) / 2 + (x2 > x1 ? -6 : 14);
             gc.fillText(label, midX - 10, midY);
         }
     }
-    
+
     /**
      * Limpia la visualización
      */
     public void clear() {
-        currentTokens.clear();
-        drawInitialAutomata();
+        reiniciar();
     }
-    
+
     /**
      * Obtiene el panel de visualización
      */
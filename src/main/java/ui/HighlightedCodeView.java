@@ -0,0 +1,244 @@
+package ui;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
+import lexer.Token;
+import lexer.TokenStatistics;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Vista de solo lectura del código con resaltado de sintaxis por tipo de token.
+ *
+ * Es una lista virtual de líneas: solo existen celdas para las líneas visibles, y cada celda
+ * se dibuja con los rangos de estilo que calcula el SyntaxHighlighter en segundo plano.
+ * Tras una edición se siguen mostrando los estilos anteriores hasta que llegan los nuevos
+ * de las líneas visibles, de modo que el hilo de JavaFX nunca espera al lexer.
+ */
+class HighlightedCodeView {
+
+    private static final Font FUENTE = Font.font("Consolas", 12);
+    private static final double ALTO_LINEA = 17;
+
+    /** Líneas pedidas de más por encima y por debajo de las visibles */
+    private static final int MARGEN = 40;
+
+    private static final Color[] COLOR_POR_TIPO = new Color[Token.TipoToken.values().length];
+    static {
+        for (Token.TipoToken tipo : Token.TipoToken.values()) {
+            COLOR_POR_TIPO[tipo.ordinal()] = colorDe(TokenStatistics.categoriaDe(tipo));
+        }
+    }
+
+    private final SyntaxHighlighter resaltador = new SyntaxHighlighter();
+    private final Lineas lineas = new Lineas();
+    private final ListView<Integer> lista = new ListView<>(lineas);
+
+    // Últimos estilos recibidos (pueden ser de una versión anterior del texto)
+    private SyntaxHighlighter.Estilos estilos;
+
+    // Rango de líneas pedido por las celdas en el pulso actual, y si hay una solicitud en curso
+    private int pedidaDesde = Integer.MAX_VALUE;
+    private int pedidaHasta = -1;
+    private boolean pedidoProgramado;
+    private boolean solicitudEnCurso;
+    private int visibleDesde;
+    private int visibleHasta;
+
+    HighlightedCodeView() {
+        lista.setFixedCellSize(ALTO_LINEA);
+        lista.setCellFactory(l -> new CeldaLinea());
+        lista.setStyle("-fx-font-family: 'Consolas', monospace;");
+    }
+
+    ListView<Integer> getVista() {
+        return lista;
+    }
+
+    /**
+     * Muestra un texto nuevo, analizándolo completo en segundo plano
+     */
+    void cargar(String texto) {
+        resaltador.cargar(texto);
+        actualizarVisibles();
+    }
+
+    /**
+     * Aplica una edición del editor; solo se vuelve a analizar la región afectada
+     */
+    void editar(String texto, int inicio, int finAnterior, int longitudInsertada) {
+        resaltador.editar(texto, inicio, finAnterior, longitudInsertada);
+        actualizarVisibles();
+    }
+
+    private static Color colorDe(TokenStatistics.Categoria categoria) {
+        switch (categoria) {
+            case PALABRAS_RESERVADAS: return Color.web("#0033b3");
+            case IDENTIFICADORES: return Color.web("#000000");
+            case NUMEROS: return Color.web("#1750eb");
+            case CADENAS: return Color.web("#067d17");
+            case BOOLEANOS: return Color.web("#0033b3");
+            case OPERADORES: return Color.web("#871094");
+            case DELIMITADORES: return Color.web("#555555");
+            case COMENTARIOS: return Color.web("#8c8c8c");
+            case ERRORES: return Color.web("#d32f2f");
+            default: return Color.BLACK;
+        }
+    }
+
+    /**
+     * Pide los estilos de las últimas líneas visibles para la versión actual del texto
+     */
+    private void actualizarVisibles() {
+        pedir(visibleDesde, visibleHasta);
+    }
+
+    /**
+     * Acumula el rango pedido por las celdas y envía una sola solicitud por pulso
+     */
+    private void pedir(int desde, int hasta) {
+        pedidaDesde = Math.min(pedidaDesde, desde);
+        pedidaHasta = Math.max(pedidaHasta, hasta);
+        if (!pedidoProgramado && !solicitudEnCurso) {
+            pedidoProgramado = true;
+            Platform.runLater(this::enviarPedido);
+        }
+    }
+
+    private void enviarPedido() {
+        pedidoProgramado = false;
+        if (pedidaHasta < 0) {
+            return;
+        }
+        visibleDesde = pedidaDesde;
+        visibleHasta = pedidaHasta;
+        pedidaDesde = Integer.MAX_VALUE;
+        pedidaHasta = -1;
+        solicitudEnCurso = true;
+        resaltador.solicitar(visibleDesde - MARGEN, visibleHasta + MARGEN, this::recibir);
+    }
+
+    /**
+     * Recibe los estilos calculados y vuelve a dibujar solo las celdas visibles
+     */
+    private void recibir(SyntaxHighlighter.Estilos recibidos) {
+        solicitudEnCurso = false;
+        estilos = recibidos;
+        lineas.setTamano(recibidos.totalLineas);
+        if (recibidos.version != resaltador.getVersion()) {
+            // Hubo ediciones mientras se calculaban: pedir de nuevo el rango visible
+            pedir(visibleDesde, visibleHasta);
+        }
+        lista.refresh();
+        if (pedidaHasta >= 0 && !pedidoProgramado) {
+            pedidoProgramado = true;
+            Platform.runLater(this::enviarPedido);
+        }
+    }
+
+    private SyntaxHighlighter.Linea lineaEnCache(int indice) {
+        if (estilos == null) {
+            return null;
+        }
+        int k = indice - estilos.primera;
+        return k >= 0 && k < estilos.lineas.length ? estilos.lineas[k] : null;
+    }
+
+    /**
+     * Celda que dibuja una línea como una secuencia de Text coloreados
+     */
+    private class CeldaLinea extends ListCell<Integer> {
+        private final TextFlow flujo = new TextFlow();
+
+        CeldaLinea() {
+            setText(null);
+            setPrefHeight(ALTO_LINEA);
+        }
+
+        @Override
+        protected void updateItem(Integer indice, boolean vacia) {
+            super.updateItem(indice, vacia);
+            if (vacia || indice == null) {
+                setGraphic(null);
+                return;
+            }
+            SyntaxHighlighter.Linea linea = lineaEnCache(indice);
+            if (linea == null || estilos.version != resaltador.getVersion()) {
+                pedir(indice, indice);
+            }
+            if (linea == null) {
+                setGraphic(null);
+                return;
+            }
+            flujo.getChildren().setAll(segmentos(linea));
+            setGraphic(flujo);
+        }
+
+        private Text[] segmentos(SyntaxHighlighter.Linea linea) {
+            int[] spans = linea.spans;
+            Text[] textos = new Text[spans.length / 3 * 2 + 1];
+            int cantidad = 0;
+            int posicion = 0;
+            for (int s = 0; s < spans.length; s += 3) {
+                if (spans[s] > posicion) {
+                    textos[cantidad++] = crearTexto(linea.texto.substring(posicion, spans[s]), Color.BLACK);
+                }
+                textos[cantidad++] = crearTexto(linea.texto.substring(spans[s], spans[s + 1]), COLOR_POR_TIPO[spans[s + 2]]);
+                posicion = spans[s + 1];
+            }
+            if (posicion < linea.texto.length()) {
+                textos[cantidad++] = crearTexto(linea.texto.substring(posicion), Color.BLACK);
+            }
+            return cantidad == textos.length ? textos : Arrays.copyOf(textos, cantidad);
+        }
+
+        private Text crearTexto(String contenido, Color color) {
+            Text texto = new Text(contenido.replace("\t", "    "));
+            texto.setFont(FUENTE);
+            texto.setFill(color);
+            return texto;
+        }
+    }
+
+    /**
+     * Lista observable de índices de línea; solo se guarda su tamaño
+     */
+    private static class Lineas extends ObservableListBase<Integer> {
+        private int tamano;
+
+        @Override
+        public Integer get(int index) {
+            if (index < 0 || index >= tamano) {
+                throw new IndexOutOfBoundsException("Índice: " + index + ", líneas: " + tamano);
+            }
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return tamano;
+        }
+
+        void setTamano(int nuevo) {
+            int anterior = tamano;
+            if (nuevo == anterior) {
+                return;
+            }
+            tamano = nuevo;
+            beginChange();
+            if (nuevo < anterior) {
+                nextRemove(nuevo, Collections.nCopies(anterior - nuevo, null));
+            } else {
+                nextAdd(anterior, nuevo);
+            }
+            endChange();
+        }
+    }
+}
@@ -1,23 +1,35 @@
 package ui;
 
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
+import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import lexer.CharSequenceReader;
+import lexer.ErrorBuffer;
+import lexer.IncrementalLexer;
 import lexer.Lexer;
+import lexer.LexerPool;
+import lexer.MappedText;
 import lexer.Token;
+import lexer.TokenBuffer;
+import lexer.TokenDiff;
+import lexer.TokenSequence;
+import lexer.io.TextTokenWriter;
+import lexer.io.TokenCache;
+import lexer.io.TokenWriter;
 
 import java.io.*;
 import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Paths;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
 
 /**
  * Controlador principal de la interfaz gráfica del analizador léxico
@@ -25,32 +37,87 @@ import java.util.List;
 public class LexicalAnalyzerController {
     
     private TextArea codeEditor;
+    private HighlightedCodeView codigoResaltado;
     private TableView<TokenTableRow> tokensTable;
     private TextArea errorsArea;
     private AutomataVisualization automataViz;
-    private ObservableList<TokenTableRow> tokensData;
+    private TokenRowList tokensData;
     private Label statusLabel;
+    private ProgressBar progressBar;
+    
+    // Análisis completo en segundo plano; los tokens se publican en la tabla por lotes
+    private static final int TAMANO_LOTE = 16384;
+    
+    // Errores mostrados en el área de errores; el resto se resume en una línea
+    private static final int MAX_ERRORES_MOSTRADOS = 500;
+    
+    // Lexers reutilizados entre análisis
+    private final LexerPool lexers = new LexerPool(2);
+    private Task<ResultadoAnalisis> tareaActual;
+    
+    // Caché en disco de análisis anteriores por contenido (null si no se pudo abrir)
+    private final TokenCache cache = abrirCache();
+    
+    // Análisis incremental: tras el primer análisis, cada edición vuelve a analizar solo la región afectada
+    private final IncrementalLexer incremental = new IncrementalLexer();
+    private boolean analisisActivo;
+    private TextFormatter.Change edicionPendiente;
+    
+    // Modo de archivo mapeado: el editor muestra solo los primeros caracteres del archivo
+    // y la tabla conserva solo los primeros tokens (el resto se cuenta pero no se guarda)
+    private static final int VENTANA_MAPEADA = 64 * 1024;
+    private static final int MAX_TOKENS_MAPEADOS = 4_000_000;
+    private MappedText archivoMapeado;
+    
+    /**
+     * Resultado de un análisis en segundo plano
+     */
+    private static class ResultadoAnalisis {
+        private final ErrorBuffer errores;
+        private final int totalLineas;
+        private final long totalTokens;
+        
+        ResultadoAnalisis(ErrorBuffer errores, int totalLineas, long totalTokens) {
+            this.errores = errores;
+            this.totalLineas = totalLineas;
+            this.totalTokens = totalTokens;
+        }
+    }
+    
+    private static TokenCache abrirCache() {
+        try {
+            return new TokenCache(Paths.get(System.getProperty("user.home"), ".analizador-lexico", "cache"),
+                                  TokenCache.LIMITE_PREDETERMINADO);
+        } catch (IOException e) {
+            System.err.println("Caché de análisis no disponible: " + e.getMessage());
+            return null;
+        }
+    }
     
     /**
-     * Clase auxiliar para mostrar tokens en la tabla
+     * Clase auxiliar para mostrar tokens en la tabla.
+     * Es una vista sobre una secuencia de tokens: los textos de cada celda se crean al consultarlos.
      */
     public static class TokenTableRow {
-        private String tipo;
-        private String lexema;
-        private String linea;
-        private String columna;
-        
-        public TokenTableRow(String tipo, String lexema, String linea, String columna) {
-            this.tipo = tipo;
-            this.lexema = lexema;
-            this.linea = linea;
-            this.columna = columna;
+        private static final String[] NOMBRES_TIPOS = new String[Token.TipoToken.values().length];
+        static {
+            for (Token.TipoToken tipo : Token.TipoToken.values()) {
+                NOMBRES_TIPOS[tipo.ordinal()] = tipo.toString().replace("_", " ");
+            }
+        }
+        
+        private final TokenSequence buffer;
+        private final int indice;
+        
+        public TokenTableRow(TokenSequence buffer, int indice) {
+            this.buffer = buffer;
+            this.indice = indice;
         }
         
-        public String getTipo() { return tipo; }
-        public String getLexema() { return lexema; }
-        public String getLinea() { return linea; }
-        public String getColumna() { return columna; }
+        public String getTipo() { return NOMBRES_TIPOS[buffer.getTipoOrdinal(indice)]; }
+        public String getLexema() { return buffer.getLexema(indice); }
+        public String getLinea() { return String.valueOf(buffer.getLinea(indice)); }
+        public String getColumna() { return String.valueOf(buffer.getColumna(indice)); }
     }
     
     /**
@@ -79,8 +146,12 @@ public class LexicalAnalyzerController {
         
         // Barra de estado inferior
         statusLabel = new Label("Listo");
-        statusLabel.setPadding(new Insets(5));
-        root.setBottom(statusLabel);
+        progressBar = new ProgressBar();
+        progressBar.setVisible(false);
+        HBox statusBar = new HBox(10, statusLabel, progressBar);
+        statusBar.setAlignment(Pos.CENTER_LEFT);
+        statusBar.setPadding(new Insets(5));
+        root.setBottom(statusBar);
         
         return root;
     }
@@ -102,6 +173,26 @@ public class LexicalAnalyzerController {
         codeEditor.setStyle("-fx-font-family: 'Consolas', monospace;");
         VBox.setVgrow(codeEditor, Priority.ALWAYS);
         
+        // El formateador informa el rango exacto de cada edición antes de aplicarla
+        codeEditor.setTextFormatter(new TextFormatter<String>(change -> {
+            if (change.isContentChange()) {
+                edicionPendiente = change;
+            }
+            return change;
+        }));
+        codeEditor.textProperty().addListener((obs, anterior, actual) -> {
+            resaltarEdicion(actual);
+            reanalizarEdicion(actual);
+        });
+        
+        // Vista con resaltado de sintaxis, calculado en segundo plano y solo para las líneas visibles
+        codigoResaltado = new HighlightedCodeView();
+        Tab edicionTab = new Tab("Edición", codeEditor);
+        Tab resaltadoTab = new Tab("Resaltado", codigoResaltado.getVista());
+        TabPane editorTabs = new TabPane(edicionTab, resaltadoTab);
+        editorTabs.setTabClosingPolicy(TabPane.TabClosingPolicy.UNAVAILABLE);
+        VBox.setVgrow(editorTabs, Priority.ALWAYS);
+        
         // Botones de control
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
@@ -125,7 +216,7 @@ public class LexicalAnalyzerController {
         buttonBox.getChildren().addAll(analyzeBtn, clearBtn);
 
         
-        panel.getChildren().addAll(title, codeEditor, buttonBox);
+        panel.getChildren().addAll(title, editorTabs, buttonBox);
         
         return panel;
     }
@@ -143,24 +234,16 @@ public class LexicalAnalyzerController {
         tokensTitle.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
         
         tokensTable = new TableView<>();
-        tokensData = FXCollections.observableArrayList();
+        tokensData = new TokenRowList();
         tokensTable.setItems(tokensData);
         
-        TableColumn<TokenTableRow, String> tipoCol = new TableColumn<>("Tipo");
-        tipoCol.setCellValueFactory(new PropertyValueFactory<>("tipo"));
-        tipoCol.setPrefWidth(200);
-        
-        TableColumn<TokenTableRow, String> lexemaCol = new TableColumn<>("Lexema");
-        lexemaCol.setCellValueFactory(new PropertyValueFactory<>("lexema"));
-        lexemaCol.setPrefWidth(150);
-        
-        TableColumn<TokenTableRow, String> lineaCol = new TableColumn<>("Línea");
-        lineaCol.setCellValueFactory(new PropertyValueFactory<>("linea"));
-        lineaCol.setPrefWidth(80);
+        // Altura fija: la tabla calcula el desplazamiento sin medir filas, aun con millones de tokens
+        tokensTable.setFixedCellSize(24);
         
-        TableColumn<TokenTableRow, String> columnaCol = new TableColumn<>("Columna");
-        columnaCol.setCellValueFactory(new PropertyValueFactory<>("columna"));
-        columnaCol.setPrefWidth(80);
+        TableColumn<TokenTableRow, String> tipoCol = crearColumna("Tipo", TokenTableRow::getTipo, 200);
+        TableColumn<TokenTableRow, String> lexemaCol = crearColumna("Lexema", TokenTableRow::getLexema, 150);
+        TableColumn<TokenTableRow, String> lineaCol = crearColumna("Línea", TokenTableRow::getLinea, 80);
+        TableColumn<TokenTableRow, String> columnaCol = crearColumna("Columna", TokenTableRow::getColumna, 80);
         
         tokensTable.getColumns().addAll(tipoCol, lexemaCol, lineaCol, columnaCol);
         VBox.setVgrow(tokensTable, Priority.ALWAYS);
@@ -192,6 +275,18 @@ public class LexicalAnalyzerController {
         return panel;
     }
     
+    /**
+     * Crea una columna de la tabla de tokens que lee el valor directamente de la fila, sin reflexión.
+     * Las columnas no se ordenan: las filas son vistas sobre el almacenamiento de tokens.
+     */
+    private TableColumn<TokenTableRow, String> crearColumna(String titulo, Function<TokenTableRow, String> valor, double ancho) {
+        TableColumn<TokenTableRow, String> columna = new TableColumn<>(titulo);
+        columna.setCellValueFactory(c -> new ReadOnlyStringWrapper(valor.apply(c.getValue())));
+        columna.setSortable(false);
+        columna.setPrefWidth(ancho);
+        return columna;
+    }
+    
     /**
      * Crea la barra de menú
      */
@@ -201,9 +296,15 @@ public class LexicalAnalyzerController {
         Menu fileMenu = new Menu("Archivo");
         MenuItem loadItem = new MenuItem("Cargar archivo...");
         loadItem.setOnAction(e -> loadFile());
+        MenuItem loadMappedItem = new MenuItem("Abrir archivo grande (mapeado)...");
+        loadMappedItem.setOnAction(e -> loadMappedFile());
+        MenuItem saveItem = new MenuItem("Guardar tokens...");
+        saveItem.setOnAction(e -> saveTokens());
+        MenuItem diffItem = new MenuItem("Comparar tokens con archivo...");
+        diffItem.setOnAction(e -> compararConArchivo());
         MenuItem exitItem = new MenuItem("Salir");
         exitItem.setOnAction(e -> Platform.exit());
-        fileMenu.getItems().addAll(loadItem, new SeparatorMenuItem(), exitItem);
+        fileMenu.getItems().addAll(loadItem, loadMappedItem, saveItem, diffItem, new SeparatorMenuItem(), exitItem);
         
         Menu helpMenu = new Menu("Ayuda");
         MenuItem aboutItem = new MenuItem("Acerca de");
@@ -215,64 +316,238 @@ public class LexicalAnalyzerController {
     }
     
     /**
-     * Analiza el código fuente y muestra los tokens
+     * Analiza el código fuente en segundo plano y muestra los tokens a medida que se producen.
+     * Un nuevo análisis cancela el que esté en curso.
      */
     private void analyzeCode() {
+        if (archivoMapeado != null) {
+            // Se analiza el archivo mapeado completo, no la ventana visible en el editor
+            MappedText.LectorMapeado lector = archivoMapeado.abrirReader();
+            double total = Math.max(1, archivoMapeado.getTamanoBytes());
+            iniciarAnalisis(archivoMapeado, lector, () -> lector.getBytesLeidos() / total);
+            return;
+        }
+        
         String code = codeEditor.getText();
         if (code.isEmpty()) {
             statusLabel.setText("Error: No hay código para analizar");
             return;
         }
         
-        try {
-            // Limpiar resultados anteriores
-            tokensData.clear();
-            errorsArea.clear();
-            
-            // Crear el lexer
-            StringReader reader = new StringReader(code);
-            Lexer lexer = new Lexer(reader);
-            lexer.resetErrores();
-            
-            // Analizar tokens
-            List<Token> tokens = new ArrayList<>();
-            Token token;
-            int tokenCount = 0;
-            
-            while ((token = lexer.nextToken()) != null && 
-                   token.getTipo() != Token.TipoToken.FIN_ARCHIVO) {
-                tokens.add(token);
-                tokenCount++;
-                
-                // Agregar a la tabla
-                tokensData.add(new TokenTableRow(
-                    token.getTipoString(),
-                    token.getLexema(),
-                    String.valueOf(token.getLinea()),
-                    String.valueOf(token.getColumna())
-                ));
+        CharSequenceReader lector = new CharSequenceReader(code, 0, code.length());
+        iniciarAnalisis(code, lector, () -> (double) lector.getPosicion() / code.length());
+    }
+    
+    /**
+     * Inicia el análisis en segundo plano de la entrada indicada
+     * @param fuente Texto del que se extraen los lexemas
+     * @param entrada Reader con el mismo texto, consumido por el lexer
+     * @param progreso Fracción de la entrada ya leída
+     */
+    private void iniciarAnalisis(CharSequence fuente, Reader entrada, DoubleSupplier progreso) {
+        cancelarAnalisis();
+        
+        // Limpiar resultados anteriores
+        analisisActivo = false;
+        errorsArea.clear();
+        incremental.iniciarCarga(fuente);
+        tokensData.setTokens(incremental);
+        automataViz.reiniciar();
+        Lexer.ObservadorEstados observador = automataViz.nuevoObservador();
+        // Un archivo mapeado no pasa por la caché: su hash exige decodificarlo completo
+        // y la copia de todos sus tokens no cabría en memoria
+        TokenCache cacheAnalisis = fuente instanceof MappedText ? null : cache;
+        
+        Task<ResultadoAnalisis> tarea = new Task<ResultadoAnalisis>() {
+            @Override
+            protected ResultadoAnalisis call() throws Exception {
+                Lexer lexer = lexers.adquirir();
+                try {
+                    int maximoErrores = lexer.getBufferErrores().getMaximo();
+                    long hash = 0;
+                    if (cacheAnalisis != null) {
+                        updateMessage("Buscando en caché...");
+                        hash = TokenCache.hashContenido(fuente);
+                        TokenCache.Resultado guardado = cacheAnalisis.buscar(hash, maximoErrores);
+                        if (guardado != null) {
+                            TokenBuffer tokens = guardado.getTokens();
+                            for (int desde = 0; desde < tokens.size(); desde += TAMANO_LOTE) {
+                                TokenBuffer lote = new TokenBuffer(TAMANO_LOTE);
+                                lote.agregar(tokens, desde, Math.min(desde + TAMANO_LOTE, tokens.size()));
+                                publicarLote(this, lote);
+                            }
+                            return new ResultadoAnalisis(guardado.getBufferErrores(), guardado.getTotalLineas(), tokens.size());
+                        }
+                    }
+                    
+                    lexer.reiniciar(entrada);
+                    lexer.setObservadorEstados(observador);
+                    TokenBuffer completo = cacheAnalisis != null ? new TokenBuffer() : null;
+                    // Cada lote se entrega al hilo de JavaFX, por lo que no se reutiliza
+                    TokenBuffer lote = new TokenBuffer(TAMANO_LOTE);
+                    long totalTokens = 0;
+                    while (lexer.siguientes(lote, TAMANO_LOTE) > 0) {
+                        if (isCancelled()) {
+                            return null;
+                        }
+                        totalTokens += lote.size();
+                        if (completo != null) {
+                            completo.agregar(lote, 0, lote.size());
+                        }
+                        publicarLote(this, lote);
+                        lote = new TokenBuffer(TAMANO_LOTE);
+                        double avance = progreso.getAsDouble();
+                        updateProgress(avance, 1.0);
+                        updateMessage(String.format("Analizando: %.0f%%", avance * 100));
+                    }
+                    if (completo != null) {
+                        try {
+                            cacheAnalisis.guardar(hash, maximoErrores, completo, lexer.getBufferErrores(), lexer.getTokenLinea());
+                        } catch (IOException e) {
+                            System.err.println("No se pudo guardar el análisis en la caché: " + e.getMessage());
+                        }
+                    }
+                    return new ResultadoAnalisis(lexer.getBufferErrores().copiar(), lexer.getTokenLinea(), totalTokens);
+                } finally {
+                    lexer.setObservadorEstados(null);
+                    lexers.liberar(lexer);
+                }
             }
+        };
+        
+        tarea.setOnSucceeded(e -> {
+            ResultadoAnalisis resultado = tarea.getValue();
+            finalizarTarea();
+            incremental.finalizarCarga(resultado.totalLineas, resultado.errores);
+            tokensData.sincronizar();
+            // El modo mapeado es de solo lectura: no hay análisis incremental de ediciones
+            analisisActivo = archivoMapeado == null;
             
             // Mostrar errores
-            List<String> errores = lexer.getErrores();
-            if (!errores.isEmpty()) {
-                StringBuilder errorText = new StringBuilder();
-                for (String error : errores) {
-                    errorText.append(error).append("\n");
-                }
-                errorsArea.setText(errorText.toString());
+            if (!resultado.errores.isEmpty()) {
+                errorsArea.setText(formatearErrores(resultado.errores));
             }
             
-            // Actualizar visualización del autómata
-            automataViz.updateAutomata(tokens);
+            // Los contadores del autómata ya se actualizaron lote a lote
+            automataViz.solicitarDibujo();
             
             // Actualizar estado
-            statusLabel.setText(String.format("Análisis completado: %d tokens encontrados", tokenCount));
-            
-        } catch (Exception e) {
+            if (resultado.totalTokens > incremental.size()) {
+                statusLabel.setText(String.format("Análisis completado: %d tokens encontrados (la tabla muestra los primeros %d)",
+                    resultado.totalTokens, incremental.size()));
+            } else {
+                statusLabel.setText(String.format("Análisis completado: %d tokens encontrados", resultado.totalTokens));
+            }
+        });
+        
+        tarea.setOnFailed(e -> {
+            Throwable error = tarea.getException();
+            finalizarTarea();
+            statusLabel.setText("Error al analizar: " + error.getMessage());
+            errorsArea.setText("Error: " + error.getMessage());
+            error.printStackTrace();
+        });
+        
+        tareaActual = tarea;
+        progressBar.progressProperty().bind(tarea.progressProperty());
+        progressBar.setVisible(true);
+        statusLabel.textProperty().bind(tarea.messageProperty());
+        
+        Thread hilo = new Thread(tarea, "analisis-lexico");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+    
+    /**
+     * Entrega un lote de tokens al hilo de JavaFX, que lo agrega a la tabla con una sola notificación.
+     * En modo mapeado la tabla se detiene en MAX_TOKENS_MAPEADOS; el autómata cuenta todos los tokens.
+     */
+    private void publicarLote(Task<ResultadoAnalisis> tarea, TokenBuffer lote) {
+        Platform.runLater(() -> {
+            if (tarea == tareaActual && !tarea.isCancelled()) {
+                int retenidos = archivoMapeado == null ? lote.size()
+                    : Math.max(0, Math.min(lote.size(), MAX_TOKENS_MAPEADOS - incremental.size()));
+                if (retenidos == lote.size()) {
+                    incremental.agregarLote(lote);
+                } else if (retenidos > 0) {
+                    TokenBuffer parte = new TokenBuffer(retenidos);
+                    parte.agregar(lote, 0, retenidos);
+                    incremental.agregarLote(parte);
+                }
+                if (retenidos > 0) {
+                    tokensData.sincronizar();
+                }
+                lote.setFuente(incremental.getTexto());
+                automataViz.registrarTokens(lote, 0);
+            }
+        });
+    }
+    
+    /**
+     * Cancela el análisis en segundo plano en curso, si lo hay
+     */
+    private void cancelarAnalisis() {
+        if (tareaActual != null) {
+            tareaActual.cancel();
+            finalizarTarea();
+            statusLabel.setText("Análisis cancelado");
+        }
+    }
+    
+    private void finalizarTarea() {
+        tareaActual = null;
+        progressBar.progressProperty().unbind();
+        progressBar.setVisible(false);
+        statusLabel.textProperty().unbind();
+    }
+    
+    /**
+     * Envía la última edición del editor al resaltado de sintaxis
+     */
+    private void resaltarEdicion(String code) {
+        TextFormatter.Change edicion = edicionPendiente;
+        if (edicion == null) {
+            codigoResaltado.cargar(code);
+        } else {
+            codigoResaltado.editar(code, edicion.getRangeStart(), edicion.getRangeEnd(), edicion.getText().length());
+        }
+    }
+    
+    /**
+     * Vuelve a analizar solo la región modificada por la última edición del editor
+     * y actualiza las filas afectadas de la tabla
+     */
+    private void reanalizarEdicion(String code) {
+        TextFormatter.Change edicion = edicionPendiente;
+        edicionPendiente = null;
+        if (tareaActual != null) {
+            // Los tokens en carga corresponden al texto anterior a la edición
+            cancelarAnalisis();
+            tokensData.setTokens(null);
+            return;
+        }
+        if (!analisisActivo || edicion == null) {
+            return;
+        }
+        
+        try {
+            long inicio = System.nanoTime();
+            IncrementalLexer.Cambio cambio = incremental.editar(code,
+                edicion.getRangeStart(), edicion.getRangeEnd(), edicion.getText().length());
+            tokensData.aplicar(cambio);
+            if (cambio.getDeltaLineas() != 0) {
+                // Las filas visibles posteriores a la edición cambian de línea
+                tokensTable.refresh();
+            }
+            automataViz.updateAutomata(incremental.getEstadisticas(), incremental);
+            long micros = (System.nanoTime() - inicio) / 1000;
+            ErrorBuffer errores = incremental.getErroresDocumento();
+            errorsArea.setText(errores.isEmpty() ? "" : formatearErrores(errores));
+            statusLabel.setText(String.format("Reanálisis incremental: %d tokens reemplazados por %d (%d µs), %d tokens en total",
+                cambio.getEliminados(), cambio.getInsertados(), micros, incremental.size()));
+        } catch (IOException e) {
+            analisisActivo = false;
             statusLabel.setText("Error al analizar: " + e.getMessage());
-            errorsArea.setText("Error: " + e.getMessage());
-            e.printStackTrace();
         }
     }
     
@@ -280,8 +555,11 @@ public class LexicalAnalyzerController {
      * Limpia el editor y los resultados
      */
     private void clearAll() {
+        cancelarAnalisis();
+        cerrarArchivoMapeado();
+        analisisActivo = false;
         codeEditor.clear();
-        tokensData.clear();
+        tokensData.setTokens(null);
         errorsArea.clear();
         automataViz.clear();
         statusLabel.setText("Listo");
@@ -303,7 +581,11 @@ public class LexicalAnalyzerController {
         if (file != null) {
             try {
                 String content = Files.readString(file.toPath());
+                cancelarAnalisis();
+                cerrarArchivoMapeado();
+                analisisActivo = false;
                 codeEditor.setText(content);
+                tokensData.setTokens(null);
                 statusLabel.setText("Archivo cargado: " + file.getName());
             } catch (IOException e) {
                 statusLabel.setText("Error al cargar archivo: " + e.getMessage());
@@ -311,6 +593,60 @@ public class LexicalAnalyzerController {
         }
     }
     
+    /**
+     * Abre un archivo mapeado en memoria: el lexer lo lee directamente del mapeo sin crear
+     * un String con su contenido, y el editor muestra solo una ventana inicial de solo lectura
+     */
+    private void loadMappedFile() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Abrir archivo grande");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Archivos de texto", "*.txt", "*.code", "*.*")
+        );
+        
+        Stage stage = (Stage) codeEditor.getScene().getWindow();
+        File file = fileChooser.showOpenDialog(stage);
+        
+        if (file != null) {
+            if (file.length() > MappedText.MAXIMO_BYTES) {
+                // Los desplazamientos de los tokens son int: se rechaza antes de mapear
+                statusLabel.setText(String.format("El archivo %s supera el máximo de %d bytes admitido",
+                    file.getName(), MappedText.MAXIMO_BYTES));
+                return;
+            }
+            try {
+                MappedText texto = new MappedText(file.toPath());
+                cancelarAnalisis();
+                cerrarArchivoMapeado();
+                analisisActivo = false;
+                tokensData.setTokens(null);
+                archivoMapeado = texto;
+                codeEditor.setText(texto.leerVentana(VENTANA_MAPEADA));
+                codeEditor.setEditable(false);
+                statusLabel.setText(String.format("Archivo mapeado: %s (%d bytes, vista parcial de solo lectura)",
+                    file.getName(), texto.getTamanoBytes()));
+            } catch (IOException e) {
+                statusLabel.setText("Error al cargar archivo: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Sale del modo mapeado y libera el archivo
+     */
+    private void cerrarArchivoMapeado() {
+        if (archivoMapeado == null) {
+            return;
+        }
+        try {
+            archivoMapeado.close();
+        } catch (IOException e) {
+            statusLabel.setText("Error al cerrar archivo: " + e.getMessage());
+        }
+        archivoMapeado = null;
+        codeEditor.setEditable(true);
+    }
+    
     /**
      * Guarda los tokens en un archivo
      */
@@ -322,22 +658,33 @@ public class LexicalAnalyzerController {
         
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Guardar tokens");
-        fileChooser.getExtensionFilters().add(
-            new FileChooser.ExtensionFilter("Archivos de texto", "*.txt")
-        );
+        FileChooser.ExtensionFilter texto = new FileChooser.ExtensionFilter("Archivos de texto", "*.txt");
+        FileChooser.ExtensionFilter ndjson = new FileChooser.ExtensionFilter("JSON por líneas", "*.ndjson");
+        FileChooser.ExtensionFilter binario = new FileChooser.ExtensionFilter("Tokens binarios", "*.tokbin");
+        fileChooser.getExtensionFilters().addAll(texto, ndjson, binario);
         
         Stage stage = (Stage) codeEditor.getScene().getWindow();
         File file = fileChooser.showSaveDialog(stage);
         
         if (file != null) {
-            try (PrintWriter writer = new PrintWriter(file)) {
-                writer.println("TOKENS IDENTIFICADOS");
-                writer.println("===================");
-                writer.println();
-                
-                for (TokenTableRow row : tokensData) {
-                    writer.printf("%-30s %-20s Línea: %-5s Columna: %-5s%n",
-                        row.getTipo(), row.getLexema(), row.getLinea(), row.getColumna());
+            String nombre = file.getName();
+            FileChooser.ExtensionFilter filtro = fileChooser.getSelectedExtensionFilter();
+            String formato = nombre.endsWith(".ndjson") || (filtro == ndjson && !nombre.endsWith(".txt")) ? "ndjson"
+                : nombre.endsWith(".tokbin") || (filtro == binario && !nombre.endsWith(".txt")) ? "binario"
+                : "texto";
+            
+            try (OutputStream salida = new FileOutputStream(file);
+                 TokenWriter writer = formato.equals("texto")
+                     ? new TextTokenWriter(salida, "TOKENS IDENTIFICADOS")
+                     : TokenWriter.crear(formato, salida)) {
+                if (archivoMapeado != null) {
+                    // Extraer lexemas de un archivo mapeado es costoso: se vuelve a analizar en flujo
+                    escribirEnFlujo(archivoMapeado.abrirReader(), writer, !formato.equals("binario"));
+                } else {
+                    for (int i = 0; i < incremental.size(); i++) {
+                        writer.escribir(incremental, i);
+                    }
+                    writer.escribirErrores(incremental.getErroresDocumento());
                 }
                 
                 statusLabel.setText("Tokens guardados en: " + file.getName());
@@ -347,6 +694,99 @@ public class LexicalAnalyzerController {
         }
     }
     
+    /**
+     * Compara los tokens de un archivo (versión anterior) con los del código del editor
+     * (versión nueva) en segundo plano, y muestra la diferencia en una ventana aparte
+     */
+    private void compararConArchivo() {
+        if (archivoMapeado != null) {
+            statusLabel.setText("La comparación no está disponible para archivos mapeados");
+            return;
+        }
+        
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Comparar con archivo");
+        fileChooser.getExtensionFilters().add(
+            new FileChooser.ExtensionFilter("Archivos de texto", "*.txt", "*.code", "*.*")
+        );
+        
+        Stage stage = (Stage) codeEditor.getScene().getWindow();
+        File file = fileChooser.showOpenDialog(stage);
+        if (file == null) {
+            return;
+        }
+        
+        String actual = codeEditor.getText();
+        Task<TokenDiff> tarea = new Task<TokenDiff>() {
+            @Override
+            protected TokenDiff call() throws Exception {
+                return TokenDiff.comparar(Files.readString(file.toPath()), actual);
+            }
+        };
+        tarea.setOnSucceeded(e -> {
+            TokenDiff diff = tarea.getValue();
+            Stage ventana = new Stage();
+            ventana.initOwner(stage);
+            ventana.setTitle("Diferencia de tokens: " + file.getName() + " → editor");
+            ventana.setScene(new Scene(new TokenDiffView(diff).crearVista(file.getName(), "editor"), 800, 600));
+            ventana.show();
+            statusLabel.setText(String.format("Comparación completada: %d bloques de cambios", diff.getCambios().size()));
+        });
+        tarea.setOnFailed(e -> statusLabel.setText("Error al comparar: " + tarea.getException().getMessage()));
+        statusLabel.setText("Comparando tokens con " + file.getName() + "...");
+        
+        Thread hilo = new Thread(tarea, "comparacion-tokens");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+    
+    /**
+     * Texto del área de errores: los mensajes se formatean solo para los errores mostrados
+     */
+    private static String formatearErrores(ErrorBuffer errores) {
+        StringBuilder errorText = new StringBuilder();
+        int mostrados = Math.min(errores.size(), MAX_ERRORES_MOSTRADOS);
+        for (int i = 0; i < mostrados; i++) {
+            errorText.append(errores.getMensaje(i)).append("\n");
+        }
+        long restantes = errores.getTotal() - mostrados;
+        if (restantes > 0) {
+            errorText.append("... y ").append(restantes).append(" errores más\n");
+        }
+        return errorText.toString();
+    }
+    
+    /**
+     * Analiza la entrada y escribe cada token a medida que se produce
+     * @param conLexemas Si el formato necesita los lexemas (si no, se usa el modo compacto)
+     */
+    private void escribirEnFlujo(Reader entrada, TokenWriter writer, boolean conLexemas) throws IOException {
+        Lexer lexer = lexers.adquirir();
+        lexer.reiniciar(entrada);
+        try {
+            escribirEnFlujo(lexer, writer, conLexemas);
+        } finally {
+            lexers.liberar(lexer);
+        }
+    }
+    
+    private void escribirEnFlujo(Lexer lexer, TokenWriter writer, boolean conLexemas) throws IOException {
+        if (conLexemas) {
+            Token token;
+            while ((token = lexer.nextToken()) != null && token.getTipo() != Token.TipoToken.FIN_ARCHIVO) {
+                writer.escribir(token.getTipo().ordinal(), lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                                token.getLinea(), token.getColumna(), token.getLexema());
+            }
+        } else {
+            int tipo;
+            while ((tipo = lexer.siguienteToken()) >= 0) {
+                writer.escribir(tipo, lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                                lexer.getTokenLinea(), lexer.getTokenColumna(), null);
+            }
+        }
+        writer.escribirErrores(lexer.getBufferErrores());
+    }
+    
     /**
      * Muestra el diálogo "Acerca de"
      */
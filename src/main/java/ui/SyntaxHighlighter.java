@@ -0,0 +1,240 @@
+package ui;
+
+import javafx.application.Platform;
+import lexer.IncrementalLexer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Calcula en segundo plano los estilos del código a partir de los tokens del lexer.
+ *
+ * Un único hilo mantiene su propio IncrementalLexer y la tabla de inicios de línea del texto:
+ * las ediciones se aplican en orden y solo vuelven a analizar la región afectada. La vista
+ * pide los estilos de un rango de líneas (las visibles) y los recibe en el hilo de JavaFX
+ * como rangos de caracteres por línea, sin bloquear la edición.
+ */
+class SyntaxHighlighter {
+
+    /**
+     * Texto y estilos de una línea: spans contiene ternas (desde, hasta, tipo) relativas a la línea
+     */
+    static class Linea {
+        final String texto;
+        final int[] spans;
+
+        Linea(String texto, int[] spans) {
+            this.texto = texto;
+            this.spans = spans;
+        }
+    }
+
+    /**
+     * Estilos de un rango de líneas, calculados sobre la versión indicada del texto
+     */
+    static class Estilos {
+        final int version;
+        final int primera;
+        final Linea[] lineas;
+        final int totalLineas;
+
+        Estilos(int version, int primera, Linea[] lineas, int totalLineas) {
+            this.version = version;
+            this.primera = primera;
+            this.lineas = lineas;
+            this.totalLineas = totalLineas;
+        }
+    }
+
+    private final ExecutorService hilo = Executors.newSingleThreadExecutor(tarea -> {
+        Thread t = new Thread(tarea, "resaltado-sintaxis");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Estado confinado al hilo de resaltado
+    private final IncrementalLexer lexer = new IncrementalLexer();
+    private String texto = "";
+    private int[] inicioLineas = new int[1024];
+    private int totalLineas = 1;
+    private int versionAplicada;
+
+    /** Última versión enviada desde el hilo de JavaFX */
+    private int version;
+
+    /**
+     * Reemplaza el texto completo y lo analiza desde el principio
+     * @return Versión del texto
+     */
+    int cargar(String nuevo) {
+        int v = ++version;
+        hilo.execute(() -> {
+            recargar(nuevo);
+            versionAplicada = v;
+        });
+        return v;
+    }
+
+    /**
+     * Aplica una edición: el rango [inicio, finAnterior) del texto anterior se reemplazó
+     * por longitudInsertada caracteres
+     * @param nuevo Texto completo después de la edición
+     * @return Versión del texto
+     */
+    int editar(String nuevo, int inicio, int finAnterior, int longitudInsertada) {
+        int v = ++version;
+        hilo.execute(() -> {
+            if (inicio == 0 && finAnterior >= texto.length()) {
+                recargar(nuevo);
+            } else {
+                try {
+                    lexer.editar(nuevo, inicio, finAnterior, longitudInsertada);
+                    actualizarLineas(nuevo, inicio, finAnterior, longitudInsertada);
+                    texto = nuevo;
+                } catch (IOException | RuntimeException e) {
+                    recargar(nuevo);
+                }
+            }
+            versionAplicada = v;
+        });
+        return v;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Pide los estilos de las líneas [primera, ultima]; el resultado se entrega en el hilo de JavaFX
+     */
+    void solicitar(int primera, int ultima, Consumer<Estilos> destino) {
+        hilo.execute(() -> {
+            Estilos estilos = calcular(primera, ultima);
+            Platform.runLater(() -> destino.accept(estilos));
+        });
+    }
+
+    private void recargar(String nuevo) {
+        texto = nuevo;
+        try {
+            lexer.analizarTodo(nuevo);
+        } catch (IOException e) {
+            // Un texto en memoria no produce errores de lectura
+            throw new IllegalStateException(e);
+        }
+        totalLineas = 1;
+        inicioLineas[0] = 0;
+        for (int i = nuevo.indexOf('\n'); i >= 0; i = nuevo.indexOf('\n', i + 1)) {
+            agregarLinea(i + 1);
+        }
+    }
+
+    private void agregarLinea(int inicio) {
+        if (totalLineas == inicioLineas.length) {
+            inicioLineas = Arrays.copyOf(inicioLineas, totalLineas * 2);
+        }
+        inicioLineas[totalLineas++] = inicio;
+    }
+
+    /**
+     * Actualiza la tabla de inicios de línea tras una edición: se quitan las líneas que
+     * comenzaban dentro del rango reemplazado, se agregan las del texto insertado y las
+     * siguientes se desplazan
+     */
+    private void actualizarLineas(String nuevo, int inicio, int finAnterior, int longitudInsertada) {
+        int delta = longitudInsertada - (finAnterior - inicio);
+        int desde = primeraLineaDespuesDe(inicio);
+        int hasta = primeraLineaDespuesDe(finAnterior);
+
+        int insertadas = 0;
+        int finInsertado = inicio + longitudInsertada;
+        for (int i = nuevo.indexOf('\n', inicio); i >= 0 && i < finInsertado; i = nuevo.indexOf('\n', i + 1)) {
+            insertadas++;
+        }
+
+        int total = totalLineas - (hasta - desde) + insertadas;
+        if (total > inicioLineas.length) {
+            inicioLineas = Arrays.copyOf(inicioLineas, Math.max(total, inicioLineas.length * 2));
+        }
+        System.arraycopy(inicioLineas, hasta, inicioLineas, desde + insertadas, totalLineas - hasta);
+        for (int k = desde + insertadas; k < total; k++) {
+            inicioLineas[k] += delta;
+        }
+        int k = desde;
+        for (int i = nuevo.indexOf('\n', inicio); i >= 0 && i < finInsertado; i = nuevo.indexOf('\n', i + 1)) {
+            inicioLineas[k++] = i + 1;
+        }
+        totalLineas = total;
+    }
+
+    /**
+     * Índice de la primera línea que comienza después del desplazamiento
+     */
+    private int primeraLineaDespuesDe(int desplazamiento) {
+        int bajo = 0, alto = totalLineas;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (inicioLineas[medio] <= desplazamiento) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Índice del primer token que termina después del desplazamiento
+     */
+    private int primerTokenDespuesDe(int desplazamiento) {
+        int bajo = 0, alto = lexer.size();
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (lexer.getInicio(medio) + lexer.getLongitud(medio) <= desplazamiento) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Recorta los tokens que cubren cada línea del rango a rangos relativos a la línea
+     */
+    private Estilos calcular(int primera, int ultima) {
+        primera = Math.max(0, Math.min(primera, totalLineas - 1));
+        ultima = Math.max(primera, Math.min(ultima, totalLineas - 1));
+        Linea[] lineas = new Linea[ultima - primera + 1];
+
+        int n = lexer.size();
+        int t = primerTokenDespuesDe(inicioLineas[primera]);
+        int[] spans = new int[48];
+        for (int k = primera; k <= ultima; k++) {
+            int inicio = inicioLineas[k];
+            int fin = k + 1 < totalLineas ? inicioLineas[k + 1] - 1 : texto.length();
+            int cantidad = 0;
+            while (t < n && lexer.getInicio(t) < fin) {
+                int desdeToken = lexer.getInicio(t);
+                int hastaToken = desdeToken + lexer.getLongitud(t);
+                if (hastaToken > inicio) {
+                    if (cantidad + 3 > spans.length) {
+                        spans = Arrays.copyOf(spans, spans.length * 2);
+                    }
+                    spans[cantidad++] = Math.max(desdeToken, inicio) - inicio;
+                    spans[cantidad++] = Math.min(hastaToken, fin) - inicio;
+                    spans[cantidad++] = lexer.getTipoOrdinal(t);
+                }
+                if (hastaToken > fin) {
+                    break; // el token continúa en la línea siguiente
+                }
+                t++;
+            }
+            lineas[k - primera] = new Linea(texto.substring(inicio, fin), Arrays.copyOf(spans, cantidad));
+        }
+        return new Estilos(versionAplicada, primera, lineas, totalLineas);
+    }
+}
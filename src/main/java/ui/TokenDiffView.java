@@ -0,0 +1,137 @@
+package ui;
+
+import javafx.collections.ObservableListBase;
+import javafx.geometry.Insets;
+import javafx.scene.Parent;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.BorderPane;
+import lexer.TokenBuffer;
+import lexer.TokenDiff;
+
+import java.util.List;
+
+/**
+ * Vista de la diferencia de tokens entre dos versiones: una lista virtual con una fila por
+ * bloque de cambios y una por token eliminado o insertado. Las filas se formatean al
+ * mostrarlas, por lo que la vista no depende del tamaño del script de edición.
+ */
+class TokenDiffView {
+
+    private final TokenDiff diff;
+    private final List<TokenDiff.Cambio> cambios;
+
+    // Fila en la que comienza cada bloque (encabezado); la última entrada es el total de filas
+    private final int[] inicioBloques;
+
+    TokenDiffView(TokenDiff diff) {
+        this.diff = diff;
+        this.cambios = diff.getCambios();
+        inicioBloques = new int[cambios.size() + 1];
+        for (int i = 0; i < cambios.size(); i++) {
+            TokenDiff.Cambio cambio = cambios.get(i);
+            inicioBloques[i + 1] = inicioBloques[i] + 1 + cambio.getEliminados() + cambio.getInsertados();
+        }
+    }
+
+    /**
+     * Crea el panel con el resumen y la lista de cambios
+     * @param anterior Nombre de la versión anterior
+     * @param nuevo Nombre de la versión nueva
+     */
+    Parent crearVista(String anterior, String nuevo) {
+        Label resumen = new Label(diff.sinCambios()
+            ? String.format("Sin diferencias de tokens entre %s y %s", anterior, nuevo)
+            : String.format("%s → %s: %d bloques, %d tokens eliminados, %d insertados",
+                anterior, nuevo, cambios.size(), diff.getEliminados(), diff.getInsertados()));
+        resumen.setPadding(new Insets(5));
+
+        ListView<String> lista = new ListView<>(new Filas());
+        lista.setFixedCellSize(20);
+        lista.setStyle("-fx-font-family: 'Consolas', monospace;");
+        lista.setCellFactory(l -> new CeldaDiff());
+
+        BorderPane panel = new BorderPane(lista);
+        panel.setTop(resumen);
+        return panel;
+    }
+
+    /**
+     * Texto de una fila: encabezado del bloque, o token eliminado (-) o insertado (+)
+     */
+    private String fila(int indice) {
+        int bloque = bloqueDe(indice);
+        TokenDiff.Cambio cambio = cambios.get(bloque);
+        int k = indice - inicioBloques[bloque] - 1;
+        if (k < 0) {
+            return "@@ " + posicion(diff.getAnterior(), cambio.getIndiceAnterior()) + " -" + cambio.getEliminados()
+                + " | " + posicion(diff.getNuevo(), cambio.getIndiceNuevo()) + " +" + cambio.getInsertados() + " @@";
+        }
+        if (k < cambio.getEliminados()) {
+            return token('-', diff.getAnterior(), cambio.getIndiceAnterior() + k);
+        }
+        return token('+', diff.getNuevo(), cambio.getIndiceNuevo() + k - cambio.getEliminados());
+    }
+
+    private int bloqueDe(int fila) {
+        int bajo = 0, alto = cambios.size() - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) >>> 1;
+            if (inicioBloques[medio] <= fila) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bajo;
+    }
+
+    private static String posicion(TokenBuffer tokens, int i) {
+        return i < tokens.size() ? "L" + tokens.getLinea(i) + ":C" + tokens.getColumna(i) : "fin";
+    }
+
+    private static String token(char marca, TokenBuffer tokens, int i) {
+        return marca + " " + tokens.getTipo(i) + " '" + tokens.getLexema(i).replace("\n", "\\n")
+            + "'  L" + tokens.getLinea(i) + ":C" + tokens.getColumna(i);
+    }
+
+    /**
+     * Celda coloreada según el tipo de fila
+     */
+    private static class CeldaDiff extends ListCell<String> {
+        @Override
+        protected void updateItem(String texto, boolean vacia) {
+            super.updateItem(texto, vacia);
+            if (vacia || texto == null) {
+                setText(null);
+                setStyle("");
+                return;
+            }
+            setText(texto);
+            switch (texto.charAt(0)) {
+                case '-': setStyle("-fx-background-color: #fdecea; -fx-text-fill: #b71c1c;"); break;
+                case '+': setStyle("-fx-background-color: #e8f5e9; -fx-text-fill: #1b5e20;"); break;
+                default: setStyle("-fx-background-color: #eef2f7; -fx-font-weight: bold;");
+            }
+        }
+    }
+
+    /**
+     * Lista observable de filas; no cambia después de creada
+     */
+    private class Filas extends ObservableListBase<String> {
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Índice: " + index + ", filas: " + size());
+            }
+            return fila(index);
+        }
+
+        @Override
+        public int size() {
+            return inicioBloques[cambios.size()];
+        }
+    }
+}
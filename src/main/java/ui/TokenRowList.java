@@ -0,0 +1,71 @@
+package ui;
+
+import javafx.collections.ObservableListBase;
+import lexer.IncrementalLexer;
+import lexer.TokenSequence;
+
+import java.util.Collections;
+
+/**
+ * Lista observable de filas de la tabla respaldada por una secuencia de tokens.
+ * Las filas se crean al consultarlas, y las ediciones notifican solo el rango de tokens afectado.
+ */
+class TokenRowList extends ObservableListBase<LexicalAnalyzerController.TokenTableRow> {
+
+    private TokenSequence tokens;
+    private int size;
+
+    @Override
+    public LexicalAnalyzerController.TokenTableRow get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice: " + index + ", tamaño: " + size);
+        }
+        return new LexicalAnalyzerController.TokenTableRow(tokens, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Reemplaza todas las filas por las de la secuencia indicada (null para vaciar)
+     */
+    public void setTokens(TokenSequence tokens) {
+        int anterior = size;
+        this.tokens = tokens;
+        this.size = tokens == null ? 0 : tokens.size();
+        notificar(0, anterior, size);
+    }
+
+    /**
+     * Notifica las filas agregadas al final de la secuencia desde la última notificación
+     */
+    public void sincronizar() {
+        int anterior = size;
+        size = tokens.size();
+        notificar(anterior, 0, size - anterior);
+    }
+
+    /**
+     * Notifica el rango de filas modificado por una edición incremental
+     */
+    public void aplicar(IncrementalLexer.Cambio cambio) {
+        size = tokens.size();
+        notificar(cambio.getIndice(), cambio.getEliminados(), cambio.getInsertados());
+    }
+
+    private void notificar(int indice, int eliminados, int insertados) {
+        if (eliminados == 0 && insertados == 0) {
+            return;
+        }
+        beginChange();
+        if (eliminados > 0) {
+            nextRemove(indice, Collections.nCopies(eliminados, null));
+        }
+        if (insertados > 0) {
+            nextAdd(indice, indice + insertados);
+        }
+        endChange();
+    }
+}
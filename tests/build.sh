@@ -0,0 +1,52 @@
+#!/bin/bash
+
+# Script de compilación de las comprobaciones diferenciales del lexer
+# Requiere: Java 11+, JFlex
+
+cd "$(dirname "$0")/.."
+
+echo "========================================="
+echo "Compilando comprobaciones diferenciales"
+echo "========================================="
+
+mkdir -p src/generated
+mkdir -p tests/build
+
+if [ ! -f "lib/jflex-1.9.1.jar" ]; then
+    echo "ERROR: JFlex no encontrado en lib/jflex-1.9.1.jar"
+    exit 1
+fi
+
+# Paso 1: Generar el lexer desde Lexer.flex
+echo ""
+echo "Paso 1: Generando lexer con JFlex..."
+java -jar lib/jflex-1.9.1.jar --encoding UTF-8 -d src/generated src/main/java/lexer/Lexer.flex
+
+if [ $? -ne 0 ]; then
+    echo "ERROR: Fallo al generar el lexer"
+    exit 1
+fi
+
+# Paso 2: Compilar el lexer y las comprobaciones
+echo ""
+echo "Paso 2: Compilando comprobaciones..."
+
+JAVA_FILES=$(find src/main/java/lexer src/generated tests/src/main/java -name "*.java" 2>/dev/null)
+
+rm -rf tests/build/*
+javac -encoding UTF-8 -d tests/build $JAVA_FILES 2>&1
+
+if [ $? -ne 0 ]; then
+    echo "ERROR: Fallo en la compilación de las comprobaciones"
+    exit 1
+fi
+
+echo ""
+echo "========================================="
+echo "Comprobaciones compiladas en tests/build"
+echo "========================================="
+echo ""
+echo "Para ejecutar (desde la raíz del proyecto):"
+echo "  tests/run.sh                           # todas las comprobaciones"
+echo "  tests/run.sh Utf8LexerCheck 7 5000     # una comprobación con semilla y casos"
+echo ""
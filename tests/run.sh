@@ -0,0 +1,23 @@
+#!/bin/bash
+# Ejecuta las comprobaciones diferenciales. Sin argumentos ejecuta todas con su semilla fija;
+# con argumentos ejecuta la clase indicada (por ejemplo: Utf8LexerCheck 7 5000, semilla y casos)
+cd "$(dirname "$0")/.."
+
+CHECKS="Utf8LexerCheck IncrementalLexerCheck ParallelLexerCheck KeywordTableCheck"
+
+if [ $# -gt 0 ]; then
+    CLASE="$1"
+    shift
+    exec java -cp tests/build "checks.$CLASE" "$@"
+fi
+
+FALLIDAS=0
+for CHECK in $CHECKS; do
+    java -cp tests/build "checks.$CHECK" || FALLIDAS=$((FALLIDAS + 1))
+done
+
+if [ $FALLIDAS -gt 0 ]; then
+    echo "Comprobaciones fallidas: $FALLIDAS"
+    exit 1
+fi
+echo "Todas las comprobaciones pasaron"
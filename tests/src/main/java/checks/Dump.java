@@ -0,0 +1,144 @@
+package checks;
+
+import lexer.ErrorBuffer;
+import lexer.Lexer;
+import lexer.Token;
+import lexer.TokenSequence;
+import lexer.TokenStatistics;
+import lexer.Utf8Lexer;
+
+import java.io.IOException;
+
+/**
+ * Volcados de texto de los resultados de un análisis (tokens, fin de archivo, errores y
+ * estadísticas), para comparar dos implementaciones línea por línea.
+ */
+public final class Dump {
+
+    private Dump() {
+    }
+
+    /**
+     * Analiza la entrada completa del lexer y vuelca cada token y el estado final
+     * @param conLexemas Si se usa nextToken (lexemas) en lugar del modo compacto
+     */
+    public static String lexer(Lexer lexer, boolean conLexemas) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            String lexema = "";
+            if (conLexemas) {
+                Token token = lexer.nextToken();
+                if (token.getTipo() == Token.TipoToken.FIN_ARCHIVO) {
+                    break;
+                }
+                lexema = token.getLexema();
+            } else if (lexer.siguienteToken() < 0) {
+                break;
+            }
+            token(sb, lexer.getTokenTipo(), lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                  lexer.getTokenLinea(), lexer.getTokenColumna()).append('|')
+                .append(lexer.getTokenSimbolo()).append('|').append(lexema).append('\n');
+        }
+        fin(sb, lexer.getTokenInicio(), lexer.getTokenLinea(), lexer.getTokenColumna(), lexer.getEstadoInconcluso());
+        errores(sb, lexer.getBufferErrores());
+        return sb.append(estadisticas(lexer.getEstadisticas())).toString();
+    }
+
+    /**
+     * Igual que {@link #lexer(Lexer, boolean)} para el Utf8Lexer
+     */
+    public static String utf8Lexer(Utf8Lexer lexer, boolean conLexemas) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            String lexema = "";
+            if (conLexemas) {
+                Token token = lexer.nextToken();
+                if (token.getTipo() == Token.TipoToken.FIN_ARCHIVO) {
+                    break;
+                }
+                lexema = token.getLexema();
+            } else if (lexer.siguienteToken() < 0) {
+                break;
+            }
+            token(sb, lexer.getTokenTipo(), lexer.getTokenInicio(), lexer.getTokenLongitud(),
+                  lexer.getTokenLinea(), lexer.getTokenColumna()).append('|')
+                .append(lexer.getTokenSimbolo()).append('|').append(lexema).append('\n');
+        }
+        fin(sb, lexer.getTokenInicio(), lexer.getTokenLinea(), lexer.getTokenColumna(), lexer.getEstadoInconcluso());
+        errores(sb, lexer.getBufferErrores());
+        return sb.append(estadisticas(lexer.getEstadisticas())).toString();
+    }
+
+    /**
+     * Tokens de una secuencia (tipo, desplazamiento, longitud, línea y columna)
+     */
+    public static String tokens(TokenSequence tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            token(sb, tokens.getTipoOrdinal(i), tokens.getInicio(i), tokens.getLongitud(i),
+                  tokens.getLinea(i), tokens.getColumna(i)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Errores almacenados con todos sus campos, y el total incluidos los omitidos
+     */
+    public static String errores(ErrorBuffer errores) {
+        return errores(new StringBuilder(), errores).toString();
+    }
+
+    private static StringBuilder token(StringBuilder sb, int tipo, int inicio, int longitud, int linea, int columna) {
+        return sb.append(tipo).append('|').append(inicio).append('|').append(longitud)
+                 .append('|').append(linea).append(':').append(columna);
+    }
+
+    private static void fin(StringBuilder sb, int inicio, int linea, int columna, int estadoInconcluso) {
+        sb.append("EOF ").append(linea).append(':').append(columna).append('@').append(inicio)
+          .append(" inconcluso=").append(estadoInconcluso).append('\n');
+    }
+
+    private static StringBuilder errores(StringBuilder sb, ErrorBuffer errores) {
+        for (int i = 0; i < errores.size(); i++) {
+            sb.append("E ").append(errores.getCodigo(i)).append(' ').append(errores.getInicio(i))
+              .append(' ').append(errores.getLongitud(i)).append(' ').append(errores.getLinea(i))
+              .append(':').append(errores.getColumna(i)).append(' ').append(errores.getEstado(i))
+              .append(' ').append(errores.getDetalle(i)).append('\n');
+        }
+        return sb.append("errores=").append(errores.getTotal()).append('\n');
+    }
+
+    /**
+     * Total de tokens, longitud media y cantidad de cada tipo presente
+     */
+    public static String estadisticas(TokenStatistics estadisticas) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("tokens=").append(estadisticas.getTotal())
+          .append(" longitudMedia=").append(estadisticas.getLongitudMedia());
+        for (Token.TipoToken tipo : Token.TipoToken.values()) {
+            if (estadisticas.getCantidad(tipo) > 0) {
+                sb.append(' ').append(tipo).append('=').append(estadisticas.getCantidad(tipo));
+            }
+        }
+        return sb.append('\n').toString();
+    }
+
+    /**
+     * Falla con la primera línea distinta si los volcados no coinciden
+     * @param caso Descripción del caso (semilla, índice, modo) para reproducirlo
+     */
+    public static void comparar(String caso, String esperado, String obtenido) {
+        if (esperado.equals(obtenido)) {
+            return;
+        }
+        String[] a = esperado.split("\n", -1);
+        String[] b = obtenido.split("\n", -1);
+        int i = 0;
+        while (i < a.length && i < b.length && a[i].equals(b[i])) {
+            i++;
+        }
+        throw new AssertionError(caso + ": difiere en la línea " + (i + 1)
+            + "\n  esperado: " + (i < a.length ? a[i] : "(fin)")
+            + "\n  obtenido: " + (i < b.length ? b[i] : "(fin)"));
+    }
+}
@@ -0,0 +1,87 @@
+package checks;
+
+import lexer.IncrementalLexer;
+import lexer.Lexer;
+import lexer.TokenBuffer;
+
+import java.io.Reader;
+import java.util.Random;
+
+/**
+ * Comprueba que, tras cada edición aleatoria, los tokens, las estadísticas y los errores del
+ * documento que mantiene IncrementalLexer coinciden con los de un análisis completo del texto
+ * editado. El texto inicial se carga alternando analizarTodo y la carga por lotes que usa la
+ * interfaz (iniciarCarga, agregarLote y finalizarCarga).
+ *
+ * Argumentos opcionales: semilla y cantidad de ediciones.
+ */
+public final class IncrementalLexerCheck {
+
+    /** Longitud a partir de la cual el texto se recorta y se vuelve a cargar */
+    private static final int LONGITUD_MAXIMA = 3000;
+    private static final int TAMANO_LOTE = 64;
+
+    private IncrementalLexerCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long semilla = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int ediciones = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        Random random = new Random(semilla);
+        Lexer referencia = new Lexer(Reader.nullReader());
+        IncrementalLexer incremental = new IncrementalLexer();
+
+        String texto = RandomInput.texto(random, 300);
+        cargar(incremental, referencia, texto, random.nextBoolean());
+        for (int edicion = 0; edicion < ediciones; edicion++) {
+            int inicio = random.nextInt(texto.length() + 1);
+            int fin = Math.min(texto.length(), inicio + (random.nextInt(4) == 0 ? random.nextInt(20) : random.nextInt(2)));
+            String insertado = random.nextInt(3) == 0 ? "" : RandomInput.texto(random, 1 + random.nextInt(2));
+            texto = texto.substring(0, inicio) + insertado + texto.substring(fin);
+            incremental.editar(texto, inicio, fin, insertado.length());
+
+            String descripcion = "semilla " + semilla + ", edición " + edicion
+                + " (reemplazo de [" + inicio + ", " + fin + ") por " + insertado.length() + " caracteres)";
+            comparar(descripcion, incremental, referencia, texto);
+
+            if (texto.length() > LONGITUD_MAXIMA) {
+                texto = texto.substring(0, random.nextInt(LONGITUD_MAXIMA / 2));
+                cargar(incremental, referencia, texto, random.nextBoolean());
+            }
+        }
+        System.out.printf("IncrementalLexerCheck: %d ediciones coinciden con el análisis completo (semilla %d)%n",
+            ediciones, semilla);
+    }
+
+    /**
+     * Carga el texto completo en el IncrementalLexer
+     * @param porLotes Si se cargan los tokens de otro lexer por lotes, como el análisis en segundo plano
+     */
+    private static void cargar(IncrementalLexer incremental, Lexer lexer, String texto, boolean porLotes)
+            throws Exception {
+        if (!porLotes) {
+            incremental.analizarTodo(texto);
+            return;
+        }
+        incremental.iniciarCarga(texto);
+        lexer.reiniciar(texto);
+        TokenBuffer lote = new TokenBuffer(TAMANO_LOTE);
+        while (lexer.siguientes(lote, TAMANO_LOTE) > 0) {
+            incremental.agregarLote(lote);
+            lote.clear();
+        }
+        incremental.finalizarCarga(lexer.getTokenLinea(), lexer.getBufferErrores());
+    }
+
+    private static void comparar(String descripcion, IncrementalLexer incremental, Lexer lexer, String texto)
+            throws Exception {
+        lexer.reiniciar(texto);
+        TokenBuffer tokens = new TokenBuffer();
+        lexer.siguientes(tokens, Integer.MAX_VALUE);
+        Dump.comparar(descripcion + ", tokens", Dump.tokens(tokens), Dump.tokens(incremental));
+        Dump.comparar(descripcion + ", estadísticas",
+                      Dump.estadisticas(lexer.getEstadisticas()), Dump.estadisticas(incremental.getEstadisticas()));
+        Dump.comparar(descripcion + ", errores del documento",
+                      Dump.errores(lexer.getBufferErrores()), Dump.errores(incremental.getErroresDocumento()));
+    }
+}
@@ -0,0 +1,182 @@
+package checks;
+
+import lexer.KeywordTable;
+import lexer.Lexer;
+import lexer.Token;
+import lexer.Utf8Lexer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Comprueba que KeywordTable clasifica igual que un mapa cada palabra de conjuntos aleatorios,
+ * y cualquier otro identificador como no reservado, con las tres variantes de buscar. Algunos
+ * conjuntos se forman con bloques "Aa" y "BB", cuyas palabras tienen la misma clave de tres
+ * caracteres y el mismo hash polinomial de String, para forzar las claves de respaldo. El Lexer y
+ * el Utf8Lexer con la misma tabla deben producir los mismos tokens. También comprueba que
+ * cargar rechaza con una IOException las líneas mal formadas del archivo de palabras.
+ *
+ * Argumentos opcionales: semilla y cantidad de casos.
+ */
+public final class KeywordTableCheck {
+
+    private static final String LETRAS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ_";
+    private static final String DIGITOS = "0123456789";
+
+    private KeywordTableCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long semilla = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int casos = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Random random = new Random(semilla);
+
+        comprobar("colisión zAaqzz/zBBqzz", random, palabras("zAaqzz", "zBBqzz"));
+        for (int caso = 0; caso < casos; caso++) {
+            Map<String, Token.TipoToken> palabras = random.nextInt(3) == 0
+                ? colisionantes(random, 1 + random.nextInt(6))
+                : aleatorias(random, random.nextInt(40));
+            comprobar("semilla " + semilla + ", caso " + caso, random, palabras);
+        }
+        comprobarCarga();
+        System.out.printf("KeywordTableCheck: %d conjuntos de palabras coinciden con la referencia (semilla %d)%n",
+            casos + 1, semilla);
+    }
+
+    private static Map<String, Token.TipoToken> palabras(String... lista) {
+        Map<String, Token.TipoToken> palabras = new LinkedHashMap<>();
+        for (String palabra : lista) {
+            palabras.put(palabra, Token.TipoToken.PALABRA_RESERVADA);
+        }
+        return palabras;
+    }
+
+    private static Map<String, Token.TipoToken> aleatorias(Random random, int cantidad) {
+        Map<String, Token.TipoToken> palabras = new LinkedHashMap<>();
+        while (palabras.size() < cantidad) {
+            palabras.put(identificador(random), tipo(random));
+        }
+        return palabras;
+    }
+
+    /**
+     * Palabras con un mismo prefijo y sufijo y combinaciones de "Aa" y "BB" en el medio
+     */
+    private static Map<String, Token.TipoToken> colisionantes(Random random, int bloques) {
+        String prefijo = identificador(random);
+        String sufijo = random.nextBoolean() ? "" : identificador(random).toLowerCase();
+        List<String> lista = new ArrayList<>();
+        for (int combinacion = 0; combinacion < 1 << bloques; combinacion++) {
+            StringBuilder sb = new StringBuilder(prefijo);
+            for (int b = 0; b < bloques; b++) {
+                sb.append((combinacion >> b & 1) == 0 ? "Aa" : "BB");
+            }
+            lista.add(sb.append(sufijo).toString());
+        }
+        Map<String, Token.TipoToken> palabras = new LinkedHashMap<>();
+        for (String palabra : lista) {
+            palabras.put(palabra, tipo(random));
+        }
+        return palabras;
+    }
+
+    private static String identificador(Random random) {
+        int longitud = 1 + random.nextInt(10);
+        StringBuilder sb = new StringBuilder();
+        sb.append(LETRAS.charAt(random.nextInt(LETRAS.length())));
+        while (sb.length() < longitud) {
+            String alfabeto = random.nextInt(4) == 0 ? DIGITOS : LETRAS;
+            sb.append(alfabeto.charAt(random.nextInt(alfabeto.length())));
+        }
+        return sb.toString();
+    }
+
+    private static Token.TipoToken tipo(Random random) {
+        return random.nextInt(5) == 0 ? Token.TipoToken.BOOLEANO : Token.TipoToken.PALABRA_RESERVADA;
+    }
+
+    private static void comprobar(String caso, Random random, Map<String, Token.TipoToken> palabras) throws Exception {
+        KeywordTable tabla = new KeywordTable(palabras);
+        List<String> indices = new ArrayList<>(palabras.keySet());
+
+        // Las palabras del conjunto, variantes de un carácter y otros identificadores
+        List<String> consultas = new ArrayList<>(indices);
+        for (String palabra : indices) {
+            char[] c = palabra.toCharArray();
+            c[random.nextInt(c.length)] = LETRAS.charAt(random.nextInt(LETRAS.length()));
+            consultas.add(new String(c));
+            consultas.add(palabra + "x");
+            if (palabra.length() > 1) {
+                consultas.add(palabra.substring(1));
+            }
+        }
+        for (int i = 0; i < 20; i++) {
+            consultas.add(identificador(random));
+        }
+
+        StringBuilder texto = new StringBuilder();
+        for (String consulta : consultas) {
+            int esperado = indices.indexOf(consulta);
+            String descripcion = caso + ", '" + consulta + "'";
+            if (tabla.buscar(consulta) != (esperado < 0 ? null : palabras.get(consulta))) {
+                throw new AssertionError(descripcion + ": buscar(String) devolvió " + tabla.buscar(consulta));
+            }
+            char[] caracteres = ("##" + consulta + "#").toCharArray();
+            int porCaracteres = tabla.buscar(caracteres, 2, consulta.length());
+            byte[] bytes = ("#" + consulta + "##").getBytes(StandardCharsets.US_ASCII);
+            int porBytes = tabla.buscar(bytes, 1, consulta.length());
+            if (porCaracteres != esperado || porBytes != esperado) {
+                throw new AssertionError(descripcion + ": índice esperado " + esperado + ", buscar(char[]) "
+                    + porCaracteres + ", buscar(byte[]) " + porBytes);
+            }
+            texto.append(consulta).append(random.nextBoolean() ? " " : "\n");
+        }
+
+        Lexer lexer = new Lexer(Reader.nullReader());
+        lexer.setPalabrasReservadas(tabla);
+        lexer.reiniciar(texto.toString());
+        Utf8Lexer utf8 = new Utf8Lexer();
+        utf8.setPalabrasReservadas(tabla);
+        byte[] bytes = texto.toString().getBytes(StandardCharsets.UTF_8);
+        utf8.reiniciar(bytes, 0, bytes.length);
+        boolean conLexemas = random.nextBoolean();
+        Dump.comparar(caso + ", Utf8Lexer", Dump.lexer(lexer, conLexemas), Dump.utf8Lexer(utf8, conLexemas));
+    }
+
+    /**
+     * Cada línea mal formada del archivo de palabras se informa con una IOException
+     */
+    private static void comprobarCarga() throws IOException {
+        String[] invalidos = {
+            "si FOO\n", "si PALABRA_RESERVADA extra\n", "si IDENTIFICADOR\n", "9si\n"
+        };
+        Path archivo = Files.createTempFile("palabras", ".txt");
+        try {
+            for (String contenido : invalidos) {
+                Files.write(archivo, contenido.getBytes(StandardCharsets.UTF_8));
+                try {
+                    KeywordTable.cargar(archivo);
+                    throw new AssertionError("cargar aceptó " + contenido.trim());
+                } catch (IOException e) {
+                    // esperado
+                }
+            }
+            Files.write(archivo, "# colisión\nzAaqzz\nzBBqzz BOOLEANO\n".getBytes(StandardCharsets.UTF_8));
+            KeywordTable tabla = KeywordTable.cargar(archivo);
+            if (tabla.buscar("zAaqzz") != Token.TipoToken.PALABRA_RESERVADA
+                    || tabla.buscar("zBBqzz") != Token.TipoToken.BOOLEANO) {
+                throw new AssertionError("cargar clasificó mal zAaqzz/zBBqzz");
+            }
+        } finally {
+            Files.deleteIfExists(archivo);
+        }
+    }
+}
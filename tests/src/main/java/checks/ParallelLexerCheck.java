@@ -0,0 +1,87 @@
+package checks;
+
+import lexer.Lexer;
+import lexer.ParallelLexer;
+import lexer.TokenBuffer;
+
+import java.io.Reader;
+import java.util.Random;
+
+/**
+ * Comprueba que ParallelLexer produce los mismos tokens, errores y total de líneas que el
+ * análisis secuencial. Los textos mezclan fragmentos cortos con comentarios y cadenas muy largos,
+ * cerrados o no, para que los cortes entre fragmentos caigan dentro de ellos y obliguen a
+ * volver a analizar con el estado correcto. Algunos casos usan un límite de errores bajo.
+ *
+ * Argumentos opcionales: semilla y cantidad de casos.
+ */
+public final class ParallelLexerCheck {
+
+    private ParallelLexerCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long semilla = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int casos = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        Random random = new Random(semilla);
+        Lexer lexer = new Lexer(Reader.nullReader());
+
+        for (int caso = 0; caso < casos; caso++) {
+            String texto = generar(random, 300_000 + random.nextInt(800_000));
+            int fragmentos = 2 + random.nextInt(30);
+            int maximoErrores = random.nextInt(4) == 0 ? 1 + random.nextInt(50) : 10_000;
+            String descripcion = "semilla " + semilla + ", caso " + caso + " (" + fragmentos + " fragmentos, máximo "
+                + maximoErrores + " errores)";
+
+            lexer.reiniciar(texto);
+            lexer.setMaximoErrores(maximoErrores);
+            TokenBuffer tokens = new TokenBuffer();
+            lexer.siguientes(tokens, Integer.MAX_VALUE);
+
+            ParallelLexer paralelo = new ParallelLexer();
+            paralelo.setMaximoErrores(maximoErrores);
+            ParallelLexer.Resultado resultado = paralelo.analizar(texto, fragmentos);
+
+            Dump.comparar(descripcion + ", tokens", Dump.tokens(tokens), Dump.tokens(resultado.getTokens()));
+            Dump.comparar(descripcion + ", errores",
+                          Dump.errores(lexer.getBufferErrores()), Dump.errores(resultado.getBufferErrores()));
+            if (lexer.getTokenLinea() != resultado.getTotalLineas()) {
+                throw new AssertionError(descripcion + ": total de líneas " + resultado.getTotalLineas()
+                    + ", esperado " + lexer.getTokenLinea());
+            }
+        }
+        System.out.printf("ParallelLexerCheck: %d casos coinciden con el análisis secuencial (semilla %d)%n",
+            casos, semilla);
+    }
+
+    private static String generar(Random random, int longitud) {
+        StringBuilder sb = new StringBuilder(longitud + 256);
+        while (sb.length() < longitud) {
+            int k = random.nextInt(200);
+            if (k == 0) {
+                // comentario de bloque que puede abarcar varios fragmentos
+                sb.append("/*");
+                int largo = random.nextInt(200_000);
+                for (int i = 0; i < largo; i++) {
+                    sb.append(i % 50 == 0 ? '\n' : 'c');
+                }
+                if (random.nextBoolean()) {
+                    sb.append("*/");
+                }
+            } else if (k == 1) {
+                // cadena sin cerrar en cada línea: un error por línea
+                sb.append('"');
+                int largo = random.nextInt(150_000);
+                for (int i = 0; i < largo; i++) {
+                    sb.append(i % 40 == 0 ? '\n' : 's');
+                }
+                if (random.nextInt(3) > 0) {
+                    sb.append('"');
+                }
+            } else {
+                sb.append(RandomInput.texto(random, 1));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package checks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Entradas aleatorias para las comprobaciones diferenciales: concatenaciones de fragmentos que
+ * ejercitan todas las reglas del lexer (palabras, números, operadores, comentarios y cadenas
+ * cerrados o sin cerrar, separadores de línea Unicode, caracteres no reconocidos y pares sustitutos).
+ */
+public final class RandomInput {
+
+    static final String[] FRAGMENTOS = {
+        "if ", "x1 ", "= ", "3.14 ", "\"cad\" ", "// com\n", "/* b\n c */", "\n", "\r\n", "\r",
+        "@", "@@", "#", "*/", "/*", "\"", "\t", "y==z;", "1.", "12", "*", "**/", "/", "// x * y\r\n",
+        "\"a*b\"", "/***/", " * ", " ", "!=", "!", ">=", "<", "while", "true", "_a9", ".5", "{", "}",
+        "é", "ñandú", "\u0085", "\u000B", "\f", "\u2028", "\u2029",
+        "😀", "𝄞x", "\"é\n", "//😀 z", "\uFFFD"
+    };
+
+    // Bytes sueltos que forman secuencias UTF-8 mal formadas o truncadas
+    private static final byte[] BYTES_INVALIDOS = {
+        (byte) 0x80, (byte) 0xC0, (byte) 0xC3, (byte) 0xE2, (byte) 0x82, (byte) 0xED, (byte) 0xA0, (byte) 0xF0,
+        (byte) 0x9F, (byte) 0x98, (byte) 0xF4, (byte) 0x90, (byte) 0xFF, (byte) 0xE0, (byte) 0xBF, (byte) 0xF5
+    };
+
+    private RandomInput() {
+    }
+
+    /**
+     * Texto de la cantidad de fragmentos indicada; incluye sustitutos aislados
+     */
+    public static String texto(Random random, int fragmentos) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fragmentos; i++) {
+            if (random.nextInt(40) == 0) {
+                sb.append(random.nextBoolean() ? '\uD800' : '\uDC00');
+            } else {
+                sb.append(FRAGMENTOS[random.nextInt(FRAGMENTOS.length)]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Bytes UTF-8 de la cantidad de fragmentos indicada, con secuencias mal formadas intercaladas
+     */
+    public static byte[] bytes(Random random, int fragmentos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        for (int i = 0; i < fragmentos; i++) {
+            if (random.nextInt(6) == 0) {
+                int cantidad = 1 + random.nextInt(3);
+                for (int j = 0; j < cantidad; j++) {
+                    salida.write(BYTES_INVALIDOS[random.nextInt(BYTES_INVALIDOS.length)]);
+                }
+            } else {
+                byte[] fragmento = FRAGMENTOS[random.nextInt(FRAGMENTOS.length)].getBytes(StandardCharsets.UTF_8);
+                salida.write(fragmento, 0, fragmento.length);
+            }
+        }
+        return salida.toByteArray();
+    }
+
+    /**
+     * Texto con un token largo (identificador, número, comentario o cadena, cerrado o no) de
+     * aproximadamente la longitud indicada, para cruzar los bordes de buffers y ventanas
+     */
+    public static String tokenLargo(Random random, int longitud) {
+        StringBuilder sb = new StringBuilder(longitud + 16);
+        switch (random.nextInt(5)) {
+            case 0:
+                sb.append('a');
+                while (sb.length() < longitud) {
+                    sb.append((char) ('a' + random.nextInt(26)));
+                }
+                break;
+            case 1:
+                while (sb.length() < longitud / 2) {
+                    sb.append((char) ('0' + random.nextInt(10)));
+                }
+                sb.append('.');
+                while (sb.length() < longitud) {
+                    sb.append((char) ('0' + random.nextInt(10)));
+                }
+                break;
+            case 2:
+                sb.append("/*");
+                while (sb.length() < longitud) {
+                    sb.append(random.nextInt(50) == 0 ? "\r\n" : random.nextInt(20) == 0 ? "*" : "cé😀");
+                }
+                if (random.nextBoolean()) {
+                    sb.append("*/");
+                }
+                break;
+            case 3:
+                sb.append('"');
+                while (sb.length() < longitud) {
+                    sb.append(random.nextInt(30) == 0 ? " " : "sñ");
+                }
+                if (random.nextBoolean()) {
+                    sb.append('"');
+                }
+                break;
+            default:
+                sb.append("//");
+                while (sb.length() < longitud) {
+                    sb.append(random.nextInt(10) == 0 ? '*' : ' ');
+                }
+                sb.append('\n');
+                break;
+        }
+        sb.append(texto(random, 4));
+        return sb.toString();
+    }
+}
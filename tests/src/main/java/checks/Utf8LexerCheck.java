@@ -0,0 +1,102 @@
+package checks;
+
+import lexer.Lexer;
+import lexer.Utf8Lexer;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Comprueba que Utf8Lexer produce exactamente los mismos tokens, lexemas, símbolos, errores y
+ * estadísticas que Lexer sobre el texto decodificado (secuencias mal formadas reemplazadas por
+ * U+FFFD), recorriendo un byte[] completo, un rango interior de un byte[] y un ByteBuffer directo.
+ *
+ * Argumentos opcionales: semilla y cantidad de casos.
+ */
+public final class Utf8LexerCheck {
+
+    /** Tamaño de los casos con tokens largos: mayor que la ventana del Utf8Lexer sobre buffers directos */
+    private static final int LONGITUD_LARGA = 150_000;
+
+    private Utf8LexerCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long semilla = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        int casos = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        Random random = new Random(semilla);
+
+        for (int caso = 0; caso < casos; caso++) {
+            byte[] bytes = caso % 500 == 499
+                ? RandomInput.tokenLargo(random, LONGITUD_LARGA).getBytes(StandardCharsets.UTF_8)
+                : RandomInput.bytes(random, random.nextInt(200));
+            boolean conLexemas = random.nextBoolean();
+            String descripcion = "semilla " + semilla + ", caso " + caso + (conLexemas ? " (lexemas)" : " (compacto)");
+            String esperado = Dump.lexer(new Lexer(referencia(bytes)), conLexemas);
+
+            Utf8Lexer lexer = new Utf8Lexer();
+            lexer.reiniciar(bytes, 0, bytes.length);
+            Dump.comparar(descripcion + ", byte[]", esperado, Dump.utf8Lexer(lexer, conLexemas));
+
+            byte[] interior = new byte[bytes.length + 7];
+            System.arraycopy(bytes, 0, interior, 3, bytes.length);
+            lexer = new Utf8Lexer();
+            lexer.reiniciar(interior, 3, 3 + bytes.length);
+            Dump.comparar(descripcion + ", rango de byte[]", esperado, Dump.utf8Lexer(lexer, conLexemas));
+
+            ByteBuffer directo = ByteBuffer.allocateDirect(bytes.length);
+            directo.put(bytes).flip();
+            lexer = new Utf8Lexer();
+            lexer.reiniciar(directo);
+            Dump.comparar(descripcion + ", ByteBuffer directo", esperado, Dump.utf8Lexer(lexer, conLexemas));
+
+            comprobarInformarMalformados(bytes, descripcion);
+        }
+        System.out.printf("Utf8LexerCheck: %d casos coinciden con Lexer (semilla %d)%n", casos, semilla);
+    }
+
+    /**
+     * Texto de referencia: el decodificador de la plataforma con reemplazo. Se entrega al Lexer
+     * ya decodificado porque la recarga del Reader de JFlex falla si un read() termina justo
+     * en la mitad alta de un par sustituto.
+     */
+    private static Reader referencia(byte[] bytes) throws CharacterCodingException {
+        CharsetDecoder decodificador = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return new StringReader(decodificador.decode(ByteBuffer.wrap(bytes)).toString());
+    }
+
+    /**
+     * Con setInformarMalformados(true) el análisis falla si y solo si la entrada no es UTF-8 válido
+     */
+    private static void comprobarInformarMalformados(byte[] bytes, String descripcion) throws Exception {
+        boolean valido = true;
+        try {
+            StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes));
+        } catch (CharacterCodingException e) {
+            valido = false;
+        }
+        Utf8Lexer lexer = new Utf8Lexer();
+        lexer.setInformarMalformados(true);
+        lexer.reiniciar(bytes, 0, bytes.length);
+        boolean informado = false;
+        try {
+            while (lexer.siguienteToken() >= 0) {
+                // solo interesa si se interrumpe
+            }
+        } catch (CharacterCodingException e) {
+            informado = true;
+        }
+        if (informado == valido) {
+            throw new AssertionError(descripcion + ": setInformarMalformados(true) "
+                + (valido ? "informó una entrada válida" : "no informó una entrada mal formada"));
+        }
+    }
+}